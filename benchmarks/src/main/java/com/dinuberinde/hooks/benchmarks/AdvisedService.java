@@ -0,0 +1,85 @@
+package com.dinuberinde.hooks.benchmarks;
+
+import com.dinuberinde.hooks.*;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bean advised with the hook annotations, one method for each benchmarked configuration.
+ */
+@Component
+public class AdvisedService {
+    private int value;
+
+    @PreHook(definingClass = BenchmarkHook.class, tag = "pre")
+    public int pre() {
+        return ++value;
+    }
+
+    @PreHook(definingClass = BenchmarkHook.class, method = "preNoArgs")
+    public int preNoArgs() {
+        return ++value;
+    }
+
+    @PreHook(definingClass = BenchmarkHookComponent.class, tag = "pre")
+    public int preSpringBean() {
+        return ++value;
+    }
+
+    @PreHook(definingClass = {BenchmarkHook.class, BenchmarkHookComponent.class, BenchmarkHook.class}, tag = "pre")
+    public int preMultiple() {
+        return ++value;
+    }
+
+    @PostHook(definingClass = BenchmarkHook.class, tag = "post")
+    public int post() {
+        return ++value;
+    }
+
+    @PostHook(definingClass = BenchmarkHook.class, method = "postNoArgs")
+    public int postNoArgs() {
+        return ++value;
+    }
+
+    @PostHook(definingClass = BenchmarkHookComponent.class, tag = "post")
+    public int postSpringBean() {
+        return ++value;
+    }
+
+    @PostHook(definingClass = {BenchmarkHook.class, BenchmarkHookComponent.class, BenchmarkHook.class}, tag = "post")
+    public int postMultiple() {
+        return ++value;
+    }
+
+    @ExceptionHook(definingClass = BenchmarkHook.class, tag = "exception")
+    public int exception() {
+        throw PlainService.FAILURE;
+    }
+
+    @DataInHook(definingClass = BenchmarkHook.class, tag = "data-in")
+    public String dataIn(@DataIn String data) {
+        return data;
+    }
+
+    @DataOutHook(definingClass = BenchmarkHook.class, tag = "data-out")
+    public int dataOut() {
+        return ++value;
+    }
+
+    @DataOutHook(definingClass = BenchmarkHook.class, tag = "data-out", async = true)
+    public int dataOutAsync() {
+        return ++value;
+    }
+
+    @DataOutHook(definingClass = BenchmarkHook.class, tag = "data-out", ringBuffer = true)
+    public int dataOutRingBuffer() {
+        return ++value;
+    }
+
+    @DataInHook(definingClass = BenchmarkHook.class, tag = "all")
+    @PreHook(definingClass = BenchmarkHook.class, tag = "all")
+    @DataOutHook(definingClass = BenchmarkHook.class, tag = "all")
+    @PostHook(definingClass = BenchmarkHook.class, tag = "all")
+    public String all(@DataIn String data) {
+        return data;
+    }
+}
@@ -0,0 +1,15 @@
+package com.dinuberinde.hooks.benchmarks;
+
+import com.dinuberinde.hooks.HooksAOP;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Application context of the benchmarks.
+ */
+@Configuration
+@EnableAspectJAutoProxy(proxyTargetClass = true)
+@Import({HooksAOP.class, AdvisedService.class, PlainService.class, BenchmarkHookComponent.class})
+public class BenchmarkConfiguration {
+}
@@ -0,0 +1,43 @@
+package com.dinuberinde.hooks.benchmarks;
+
+import com.dinuberinde.hooks.Hook;
+
+/**
+ * Hook class instantiated through its constructor. The hook methods do the least
+ * possible work, so that the benchmarks measure the cost of the advice.
+ */
+public class BenchmarkHook {
+    private int calls;
+
+    public void pre(Hook hook) {
+        calls++;
+    }
+
+    public void preNoArgs() {
+        calls++;
+    }
+
+    public void post(Hook hook) {
+        calls++;
+    }
+
+    public void postNoArgs() {
+        calls++;
+    }
+
+    public void exception(Hook hook) {
+        calls++;
+    }
+
+    public String dataIn(Hook hook) {
+        return hook.getTag();
+    }
+
+    public void dataOut(Hook hook) {
+        calls++;
+    }
+
+    public int getCalls() {
+        return calls;
+    }
+}
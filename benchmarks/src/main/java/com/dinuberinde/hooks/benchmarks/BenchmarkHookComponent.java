@@ -0,0 +1,24 @@
+package com.dinuberinde.hooks.benchmarks;
+
+import com.dinuberinde.hooks.Hook;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hook class resolved as a Spring bean.
+ */
+@Component
+public class BenchmarkHookComponent {
+    private int calls;
+
+    public void pre(Hook hook) {
+        calls++;
+    }
+
+    public void post(Hook hook) {
+        calls++;
+    }
+
+    public int getCalls() {
+        return calls;
+    }
+}
@@ -0,0 +1,53 @@
+package com.dinuberinde.hooks.benchmarks;
+
+import com.dinuberinde.hooks.AsyncHookExecutor;
+import com.dinuberinde.hooks.HookRingBuffers;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Producer side cost of a deferred {@link com.dinuberinde.hooks.DataOutHook} call, from several request threads:
+ * queued on the {@link AsyncHookExecutor} or published to the ring buffer of the hook class with each wait strategy
+ * of the {@link HookRingBuffers}. A full queue or ring buffer blocks the producers, so that the cost of the
+ * consumers keeping up is included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class DispatchBenchmark {
+    @Param({"async", "BUSY_SPIN", "YIELD", "PARK"})
+    private String dispatcher;
+
+    private AnnotationConfigApplicationContext context;
+    private AdvisedService advised;
+    private boolean async;
+
+    @Setup
+    public void setup() {
+        async = "async".equals(dispatcher);
+        context = new AnnotationConfigApplicationContext();
+        context.registerBean(AsyncHookExecutor.class, () -> new AsyncHookExecutor(1, 4096, AsyncHookExecutor.OverflowPolicy.BLOCK, false, Duration.ofSeconds(10)));
+        context.registerBean(HookRingBuffers.class, () -> new HookRingBuffers(4096, 1,
+                async ? HookRingBuffers.WaitStrategy.PARK : HookRingBuffers.WaitStrategy.valueOf(dispatcher), AsyncHookExecutor.OverflowPolicy.BLOCK, Duration.ofSeconds(10)));
+        context.register(BenchmarkConfiguration.class);
+        context.refresh();
+        advised = context.getBean(AdvisedService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int dataOutHook() {
+        return async ? advised.dataOutAsync() : advised.dataOutRingBuffer();
+    }
+}
@@ -0,0 +1,121 @@
+package com.dinuberinde.hooks.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call overhead of the hook annotations compared to an unadvised bean, with the hooks
+ * triggered by the separate advices of the aspect or by the single interceptor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HooksBenchmark {
+    @Param({"aspect", "interceptor"})
+    private String advice;
+
+    private AnnotationConfigApplicationContext context;
+    private PlainService plain;
+    private AdvisedService advised;
+
+    @Setup
+    public void setup() {
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark",
+                Map.of("spring.hooks.interceptor.enabled", String.valueOf("interceptor".equals(advice)))));
+        context.register(BenchmarkConfiguration.class);
+        context.refresh();
+        plain = context.getBean(PlainService.class);
+        advised = context.getBean(AdvisedService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int unadvised() {
+        return plain.work();
+    }
+
+    @Benchmark
+    public Object unadvisedException() {
+        try {
+            return plain.fail();
+        } catch (IllegalStateException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public int preHook() {
+        return advised.pre();
+    }
+
+    @Benchmark
+    public int preHookNoArgs() {
+        return advised.preNoArgs();
+    }
+
+    @Benchmark
+    public int preHookSpringBean() {
+        return advised.preSpringBean();
+    }
+
+    @Benchmark
+    public int preHookMultiple() {
+        return advised.preMultiple();
+    }
+
+    @Benchmark
+    public int postHook() {
+        return advised.post();
+    }
+
+    @Benchmark
+    public int postHookNoArgs() {
+        return advised.postNoArgs();
+    }
+
+    @Benchmark
+    public int postHookSpringBean() {
+        return advised.postSpringBean();
+    }
+
+    @Benchmark
+    public int postHookMultiple() {
+        return advised.postMultiple();
+    }
+
+    @Benchmark
+    public Object exceptionHook() {
+        try {
+            return advised.exception();
+        } catch (IllegalStateException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public String dataInHook() {
+        return advised.dataIn("");
+    }
+
+    @Benchmark
+    public int dataOutHook() {
+        return advised.dataOut();
+    }
+
+    @Benchmark
+    public String allHooks() {
+        return advised.all("");
+    }
+}
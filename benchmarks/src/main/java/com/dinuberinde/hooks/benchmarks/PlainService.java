@@ -0,0 +1,21 @@
+package com.dinuberinde.hooks.benchmarks;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Unadvised bean, the baseline of the benchmarks.
+ */
+@Component
+public class PlainService {
+    static final IllegalStateException FAILURE = new IllegalStateException("benchmark failure");
+
+    private int value;
+
+    public int work() {
+        return ++value;
+    }
+
+    public int fail() {
+        throw FAILURE;
+    }
+}
@@ -0,0 +1,556 @@
+package com.dinuberinde.hooks.processor;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Annotation processor of the Spring Hooks annotations. For every target method annotated with a hook annotation,
+ * it checks that the hook methods exist with a supported signature and, for the {@code @DataInHook}, that the
+ * hook methods supply the types of the {@code @DataIn} parameters, reporting compile errors otherwise.
+ * <br>
+ * <p>
+ * For every top level class declaring hook annotations, it generates a {@code <Class>_HookDispatcher}
+ * implementing {@code com.dinuberinde.hooks.HookDispatcher}, which calls the public hook methods and creates
+ * the public hook classes without reflection, and it registers the dispatchers as {@link java.util.ServiceLoader} services.
+ * </p>
+ */
+@SupportedAnnotationTypes({
+        HooksProcessor.PRE_HOOK,
+        HooksProcessor.POST_HOOK,
+        HooksProcessor.EXCEPTION_HOOK,
+        HooksProcessor.DATA_IN_HOOK,
+        HooksProcessor.DATA_OUT_HOOK
+})
+public class HooksProcessor extends AbstractProcessor {
+    static final String PRE_HOOK = "com.dinuberinde.hooks.PreHook";
+    static final String POST_HOOK = "com.dinuberinde.hooks.PostHook";
+    static final String EXCEPTION_HOOK = "com.dinuberinde.hooks.ExceptionHook";
+    static final String DATA_IN_HOOK = "com.dinuberinde.hooks.DataInHook";
+    static final String DATA_OUT_HOOK = "com.dinuberinde.hooks.DataOutHook";
+    private static final String DATA_IN = "com.dinuberinde.hooks.DataIn";
+    private static final String HOOK = "com.dinuberinde.hooks.Hook";
+    private static final String LIST = "java.util.List";
+    private static final String DISPATCHER = "com.dinuberinde.hooks.HookDispatcher";
+    private static final String DISPATCHER_SUFFIX = "_HookDispatcher";
+    private static final String SERVICES = "META-INF/services/" + DISPATCHER;
+
+    /**
+     * The default method names of the hooks, keyed by annotation.
+     */
+    private static final Map<String, String> defaultMethods = Map.of(
+            PRE_HOOK, "pre",
+            POST_HOOK, "post",
+            EXCEPTION_HOOK, "exception",
+            DATA_IN_HOOK, "dataIn",
+            DATA_OUT_HOOK, "dataOut"
+    );
+
+    private Elements elements;
+    private Types types;
+    private Messager messager;
+
+    /**
+     * The dispatchers generated so far, registered as services in the last round.
+     */
+    private final Set<String> dispatchers = new TreeSet<>();
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        this.elements = processingEnv.getElementUtils();
+        this.types = processingEnv.getTypeUtils();
+        this.messager = processingEnv.getMessager();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeServices();
+            return false;
+        }
+
+        Map<TypeElement, Dispatcher> roundDispatchers = new LinkedHashMap<>();
+        for (TypeElement annotation : annotations) {
+            String annotationName = annotation.getQualifiedName().toString();
+            for (ExecutableElement target : ElementFilter.methodsIn(roundEnv.getElementsAnnotatedWith(annotation))) {
+                AnnotationMirror mirror = getAnnotationMirror(target, annotationName);
+                if (mirror != null) {
+                    Dispatcher dispatcher = roundDispatchers.computeIfAbsent(getTopLevelType(target), Dispatcher::new);
+                    processHooks(target, annotationName, mirror, dispatcher);
+                }
+            }
+        }
+
+        for (Dispatcher dispatcher : roundDispatchers.values()) {
+            if (!dispatcher.invokers.isEmpty() || !dispatcher.instances.isEmpty()) {
+                writeDispatcher(dispatcher);
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * It checks the hooks of a hook annotation of a target method and adds them to the dispatcher of the target class.
+     * @param target the target method
+     * @param annotationName the qualified name of the hook annotation
+     * @param mirror the hook annotation
+     * @param dispatcher the dispatcher of the class of the target method
+     */
+    private void processHooks(ExecutableElement target, String annotationName, AnnotationMirror mirror, Dispatcher dispatcher) {
+        List<TypeMirror> definingClasses = new ArrayList<>();
+        List<String> methods = new ArrayList<>();
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : elements.getElementValuesWithDefaults(mirror).entrySet()) {
+            String name = entry.getKey().getSimpleName().toString();
+            Object value = entry.getValue().getValue();
+            if (name.equals("definingClass")) {
+                addValues(value, TypeMirror.class, definingClasses);
+            } else if (name.equals("method")) {
+                addValues(value, String.class, methods);
+            }
+        }
+
+        List<VariableElement> dataInParameters = null;
+        if (annotationName.equals(DATA_IN_HOOK)) {
+            dataInParameters = processDataInParameters(target, mirror, dispatcher);
+            if (dataInParameters == null) {
+                return;
+            }
+        }
+
+        for (int i = 0; i < definingClasses.size(); i++) {
+            TypeMirror definingClass = definingClasses.get(i);
+            if (definingClass.getKind() != TypeKind.DECLARED) {
+                // unresolved types are reported by the compiler
+                continue;
+            }
+
+            TypeElement hookClass = (TypeElement) types.asElement(definingClass);
+            String methodName = i < methods.size() ? methods.get(i) : defaultMethods.get(annotationName);
+            boolean batch = annotationName.equals(DATA_OUT_HOOK);
+            ExecutableElement hookMethod = findHookMethod(hookClass, methodName, batch);
+            if (hookMethod == null) {
+                if (dataInParameters == null || !dataInParameters.isEmpty()) {
+                    error("No suitable method [" + methodName + "] found on [" + hookClass.getQualifiedName() + "]: the hook method must be public and accept "
+                            + (batch ? "no parameter, a Hook parameter or a List<Hook> parameter" : "no parameter or a Hook parameter"), target, mirror);
+                }
+
+                continue;
+            }
+
+            if (dataInParameters != null && !checkDataIn(target, mirror, dataInParameters, hookClass, hookMethod)) {
+                continue;
+            }
+
+            addHook(dispatcher, hookClass, hookMethod);
+
+            if (dataInParameters != null) {
+                for (VariableElement parameter : dataInParameters) {
+                    AnnotationMirror dataIn = getAnnotationMirror(parameter, DATA_IN);
+                    String fallback = getStringValue(dataIn, "fallback");
+                    if (fallback.isEmpty()) {
+                        processFallback(target, parameter, target, mirror, hookClass, getStringValue(mirror, "fallback"), dispatcher);
+                    } else {
+                        processFallback(target, parameter, parameter, dataIn, hookClass, fallback, dispatcher);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * It checks the fallback method of the hook which supplies a {@code @DataIn} parameter and adds it to the dispatcher
+     * of the target class.
+     * @param element the element the errors are reported on
+     * @param mirror the annotation the errors are reported on
+     * @param fallback the name of the fallback method, empty if there is no fallback
+     */
+    private void processFallback(ExecutableElement target, VariableElement parameter, Element element, AnnotationMirror mirror, TypeElement hookClass, String fallback, Dispatcher dispatcher) {
+        if (fallback.isEmpty()) {
+            return;
+        }
+
+        ExecutableElement fallbackMethod = findHookMethod(hookClass, fallback, false);
+        if (fallbackMethod == null) {
+            error("No suitable fallback method [" + fallback + "] found on [" + hookClass.getQualifiedName() + "]: the fallback method must be public and accept "
+                    + "no parameter or a Hook parameter", element, mirror);
+        } else if (checkDataInType(target, parameter, element, mirror, hookClass, fallbackMethod)) {
+            addHook(dispatcher, hookClass, fallbackMethod);
+        }
+    }
+
+    /**
+     * It checks the {@code @DataIn} parameters of a target method which name their own hook
+     * and adds their hooks to the dispatcher of the target class.
+     * @param target the target method
+     * @param mirror the data in hook annotation
+     * @param dispatcher the dispatcher of the class of the target method
+     * @return the {@code @DataIn} parameters supplied by the hook of the data in hook annotation,
+     *         null if the target method has no {@code @DataIn} parameter
+     */
+    private List<VariableElement> processDataInParameters(ExecutableElement target, AnnotationMirror mirror, Dispatcher dispatcher) {
+        List<VariableElement> defaultParameters = new ArrayList<>();
+        boolean found = false;
+        for (VariableElement parameter : target.getParameters()) {
+            AnnotationMirror dataIn = getAnnotationMirror(parameter, DATA_IN);
+            if (dataIn == null) {
+                continue;
+            }
+
+            found = true;
+            TypeMirror definingClass = null;
+            String methodName = null;
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : elements.getElementValuesWithDefaults(dataIn).entrySet()) {
+                String name = entry.getKey().getSimpleName().toString();
+                if (name.equals("definingClass")) {
+                    definingClass = (TypeMirror) entry.getValue().getValue();
+                } else if (name.equals("method")) {
+                    methodName = (String) entry.getValue().getValue();
+                }
+            }
+
+            if (definingClass == null || definingClass.getKind() == TypeKind.VOID) {
+                defaultParameters.add(parameter);
+            } else if (definingClass.getKind() == TypeKind.DECLARED) {
+                TypeElement hookClass = (TypeElement) types.asElement(definingClass);
+                ExecutableElement hookMethod = findHookMethod(hookClass, methodName, false);
+                if (hookMethod == null) {
+                    error("No suitable method [" + methodName + "] found on [" + hookClass.getQualifiedName() + "]: the hook method must be public and accept "
+                            + "no parameter or a Hook parameter", parameter, dataIn);
+                } else if (checkDataInType(target, parameter, parameter, dataIn, hookClass, hookMethod)) {
+                    addHook(dispatcher, hookClass, hookMethod);
+                    processFallback(target, parameter, parameter, dataIn, hookClass, getStringValue(dataIn, "fallback"), dispatcher);
+                }
+            }
+        }
+
+        if (!found) {
+            error("Method [" + target.getSimpleName() + "] has no @DataIn annotated parameter", target, mirror);
+            return null;
+        }
+
+        return defaultParameters;
+    }
+
+    private void addHook(Dispatcher dispatcher, TypeElement hookClass, ExecutableElement hookMethod) {
+        if (isAccessible((TypeElement) hookMethod.getEnclosingElement())) {
+            dispatcher.invokers.putIfAbsent(getHookMethodKey(hookMethod), hookMethod);
+        }
+
+        if (isInstantiable(hookClass)) {
+            dispatcher.instances.putIfAbsent(elements.getBinaryName(hookClass).toString(), hookClass);
+        }
+    }
+
+    /**
+     * It checks that the types of the {@code @DataIn} parameters supplied by the hook of the data in hook annotation
+     * are returned by its hook method.
+     * @return true if the check succeeds
+     */
+    private boolean checkDataIn(ExecutableElement target, AnnotationMirror mirror, List<VariableElement> dataInParameters, TypeElement hookClass, ExecutableElement hookMethod) {
+        boolean valid = true;
+        for (VariableElement parameter : dataInParameters) {
+            valid &= checkDataInType(target, parameter, target, mirror, hookClass, hookMethod);
+        }
+
+        return valid;
+    }
+
+    /**
+     * It checks that the type of a {@code @DataIn} parameter is returned by the hook method which supplies it.
+     * @param element the element the error is reported on
+     * @param mirror the annotation the error is reported on
+     * @return true if the check succeeds
+     */
+    private boolean checkDataInType(ExecutableElement target, VariableElement parameter, Element element, AnnotationMirror mirror, TypeElement hookClass, ExecutableElement hookMethod) {
+        TypeMirror parameterType = parameter.asType();
+        if (!types.isSameType(box(types.erasure(hookMethod.getReturnType())), box(types.erasure(parameterType)))) {
+            error("Return type of method [" + hookMethod.getSimpleName() + "] of [" + hookClass.getQualifiedName() + "] must have type "
+                    + parameterType + ", parameter annotated with @DataIn of method [" + target.getSimpleName() + "]", element, mirror);
+            return false;
+        }
+
+        return true;
+    }
+
+    private TypeMirror box(TypeMirror type) {
+        return type.getKind().isPrimitive() ? types.boxedClass((PrimitiveType) type).asType() : type;
+    }
+
+    /**
+     * It finds a public hook method like the runtime does: first with a {@code Hook} parameter,
+     * then with a {@code List<Hook>} parameter if batches are accepted, then without parameters.
+     * @return the hook method or null if missing
+     */
+    private ExecutableElement findHookMethod(TypeElement hookClass, String methodName, boolean batch) {
+        List<ExecutableElement> candidates = new ArrayList<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(hookClass))) {
+            if (method.getSimpleName().contentEquals(methodName) && method.getModifiers().contains(Modifier.PUBLIC)) {
+                candidates.add(method);
+            }
+        }
+
+        ExecutableElement method = findMethodWithParam(candidates, HOOK);
+        if (method == null && batch) {
+            method = findMethodWithParam(candidates, LIST);
+        }
+
+        if (method == null) {
+            method = candidates.stream().filter(candidate -> candidate.getParameters().isEmpty()).findAny().orElse(null);
+        }
+
+        return method;
+    }
+
+    private ExecutableElement findMethodWithParam(List<ExecutableElement> candidates, String parameterType) {
+        return candidates.stream()
+                .filter(candidate -> candidate.getParameters().size() == 1 && getErasedName(candidate.getParameters().get(0).asType()).equals(parameterType))
+                .findAny()
+                .orElse(null);
+    }
+
+    private void writeDispatcher(Dispatcher dispatcher) {
+        String packageName = elements.getPackageOf(dispatcher.type).getQualifiedName().toString();
+        String simpleName = dispatcher.type.getSimpleName() + DISPATCHER_SUFFIX;
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+
+        source.append("import com.dinuberinde.hooks.HookInvoker;\n\n")
+                .append("@javax.annotation.processing.Generated(\"").append(HooksProcessor.class.getName()).append("\")\n")
+                .append("public final class ").append(simpleName).append(" implements ").append(DISPATCHER).append(" {\n\n")
+                .append("    @Override\n")
+                .append("    @SuppressWarnings({\"unchecked\", \"rawtypes\"})\n")
+                .append("    public HookInvoker invoker(String hookMethod) {\n")
+                .append("        switch (hookMethod) {\n");
+
+        for (Map.Entry<String, ExecutableElement> invoker : dispatcher.invokers.entrySet()) {
+            source.append("            case \"").append(invoker.getKey()).append("\":\n");
+            appendInvoker(source, invoker.getValue());
+        }
+
+        source.append("            default:\n")
+                .append("                return null;\n")
+                .append("        }\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public Object newInstance(String definingClass) {\n")
+                .append("        switch (definingClass) {\n");
+
+        for (Map.Entry<String, TypeElement> instance : dispatcher.instances.entrySet()) {
+            source.append("            case \"").append(instance.getKey()).append("\":\n")
+                    .append("                return new ").append(instance.getValue().getQualifiedName()).append("();\n");
+        }
+
+        source.append("            default:\n")
+                .append("                return null;\n")
+                .append("        }\n")
+                .append("    }\n")
+                .append("}\n");
+
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, dispatcher.type);
+            try (Writer writer = file.openWriter()) {
+                writer.write(source.toString());
+            }
+
+            dispatchers.add(qualifiedName);
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.WARNING, "Cannot generate the hook dispatcher " + qualifiedName + ": " + e.getMessage(), dispatcher.type);
+        }
+    }
+
+    private void appendInvoker(StringBuilder source, ExecutableElement hookMethod) {
+        TypeElement declaringType = (TypeElement) hookMethod.getEnclosingElement();
+        String receiver = hookMethod.getModifiers().contains(Modifier.STATIC)
+                ? declaringType.getQualifiedName().toString()
+                : "((" + declaringType.getQualifiedName() + ") instance)";
+
+        String argument = "";
+        if (!hookMethod.getParameters().isEmpty()) {
+            argument = "(" + getErasedName(hookMethod.getParameters().get(0).asType()) + ") argument";
+        }
+
+        String call = receiver + "." + hookMethod.getSimpleName() + "(" + argument + ")";
+        if (hookMethod.getReturnType().getKind() == TypeKind.VOID) {
+            source.append("                return (instance, argument) -> {\n")
+                    .append("                    ").append(call).append(";\n")
+                    .append("                    return null;\n")
+                    .append("                };\n");
+        } else {
+            source.append("                return (instance, argument) -> ").append(call).append(";\n");
+        }
+    }
+
+    /**
+     * It registers the generated dispatchers, keeping the ones registered by previous compilations whose classes still exist.
+     */
+    private void writeServices() {
+        if (dispatchers.isEmpty()) {
+            return;
+        }
+
+        Set<String> services = new TreeSet<>(dispatchers);
+        Filer filer = processingEnv.getFiler();
+        try {
+            FileObject existing = filer.getResource(StandardLocation.CLASS_OUTPUT, "", SERVICES);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(existing.openInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (!line.isEmpty() && elements.getTypeElement(line) != null) {
+                        services.add(line);
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // no services registered by previous compilations
+        }
+
+        try {
+            FileObject file = filer.createResource(StandardLocation.CLASS_OUTPUT, "", SERVICES);
+            try (Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+                for (String service : services) {
+                    writer.write(service);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.WARNING, "Cannot register the hook dispatchers: " + e.getMessage());
+        }
+    }
+
+    /**
+     * It returns the key of a hook method, as built by the runtime from the reflective method.
+     */
+    private String getHookMethodKey(ExecutableElement hookMethod) {
+        StringBuilder key = new StringBuilder(elements.getBinaryName((TypeElement) hookMethod.getEnclosingElement()))
+                .append('#').append(hookMethod.getSimpleName()).append('(');
+        List<? extends VariableElement> parameters = hookMethod.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            key.append(i > 0 ? "," : "").append(getErasedName(parameters.get(i).asType()));
+        }
+
+        return key.append(')').toString();
+    }
+
+    private String getErasedName(TypeMirror type) {
+        TypeMirror erasure = types.erasure(type);
+        if (erasure.getKind() == TypeKind.DECLARED) {
+            return elements.getBinaryName((TypeElement) ((DeclaredType) erasure).asElement()).toString();
+        }
+
+        return erasure.toString();
+    }
+
+    /**
+     * It checks that a type can be referenced from the generated code, which can live in any package.
+     */
+    private static boolean isAccessible(TypeElement type) {
+        for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            if (!element.getModifiers().contains(Modifier.PUBLIC)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * It checks that a hook class can be instantiated from the generated code through its public parameterless constructor.
+     */
+    private static boolean isInstantiable(TypeElement type) {
+        if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT) || !isAccessible(type)) {
+            return false;
+        }
+
+        if (type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC)) {
+            return false;
+        }
+
+        return ElementFilter.constructorsIn(type.getEnclosedElements()).stream()
+                .anyMatch(constructor -> constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC));
+    }
+
+    private static TypeElement getTopLevelType(Element element) {
+        Element current = element;
+        while (!(current.getEnclosingElement() instanceof PackageElement)) {
+            current = current.getEnclosingElement();
+        }
+
+        return (TypeElement) current;
+    }
+
+    private static AnnotationMirror getAnnotationMirror(Element element, String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationName)) {
+                return mirror;
+            }
+        }
+
+        return null;
+    }
+
+    private String getStringValue(AnnotationMirror mirror, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : elements.getElementValuesWithDefaults(mirror).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return (String) entry.getValue().getValue();
+            }
+        }
+
+        return "";
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void addValues(Object value, Class<T> type, List<T> values) {
+        if (value instanceof List) {
+            for (AnnotationValue element : (List<? extends AnnotationValue>) value) {
+                if (type.isInstance(element.getValue())) {
+                    values.add(type.cast(element.getValue()));
+                }
+            }
+        } else if (type.isInstance(value)) {
+            values.add(type.cast(value));
+        }
+    }
+
+    private void error(String message, Element element, AnnotationMirror mirror) {
+        messager.printMessage(Diagnostic.Kind.ERROR, message, element, mirror);
+    }
+
+    /**
+     * The hook methods and hook classes dispatched by the generated dispatcher of a top level class.
+     */
+    private static final class Dispatcher {
+        private final TypeElement type;
+        private final Map<String, ExecutableElement> invokers = new LinkedHashMap<>();
+        private final Map<String, TypeElement> instances = new LinkedHashMap<>();
+
+        private Dispatcher(TypeElement type) {
+            this.type = type;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.dinuberinde.hooks.processor;
+
+import com.dinuberinde.hooks.GeneratedHookInvocationEngine;
+import com.dinuberinde.hooks.Hook;
+import com.dinuberinde.hooks.HookDispatcher;
+import com.dinuberinde.hooks.HookInvoker;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.*;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HooksProcessorTests {
+
+    private static final String HOOK_SOURCE = "package sample;\n" +
+            "import com.dinuberinde.hooks.Hook;\n" +
+            "public class SampleHook {\n" +
+            "    public static int pre;\n" +
+            "    public void pre(Hook hook) { pre++; }\n" +
+            "    public String dataIn() { return \"supplied\"; }\n" +
+            "    public int count() { return 3; }\n" +
+            "}\n";
+
+    @TempDir
+    Path output;
+
+    @Test
+    public void shouldGenerateDispatchers() throws Throwable {
+        String target = "package sample;\n" +
+                "import com.dinuberinde.hooks.*;\n" +
+                "public class SampleController {\n" +
+                "    @PreHook(definingClass = SampleHook.class)\n" +
+                "    @DataInHook(definingClass = SampleHook.class)\n" +
+                "    public String sample(@DataIn String input, @DataIn(definingClass = SampleHook.class, method = \"count\") Integer count) { return input + count; }\n" +
+                "}\n";
+
+        Compilation compilation = compile(HOOK_SOURCE, target);
+        assertTrue(compilation.success, compilation.errors::toString);
+        assertEquals("sample.SampleController_HookDispatcher", Files.readString(output.resolve("META-INF/services/com.dinuberinde.hooks.HookDispatcher")).trim());
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{output.toUri().toURL()}, getClass().getClassLoader())) {
+            HookDispatcher dispatcher = ServiceLoader.load(HookDispatcher.class, classLoader).findFirst().orElseThrow();
+            Object instance = dispatcher.newInstance("sample.SampleHook");
+            assertNotNull(instance);
+
+            HookInvoker dataIn = dispatcher.invoker("sample.SampleHook#dataIn()");
+            assertEquals("supplied", dataIn.invoke(instance, null));
+            assertEquals(3, dispatcher.invoker("sample.SampleHook#count()").invoke(instance, null));
+            assertNull(dispatcher.invoker("sample.SampleHook#missing()"));
+
+            // testing that the engine binds the hook method through the dispatcher, without the fallback
+            Thread thread = Thread.currentThread();
+            ClassLoader contextClassLoader = thread.getContextClassLoader();
+            thread.setContextClassLoader(classLoader);
+            try {
+                GeneratedHookInvocationEngine engine = new GeneratedHookInvocationEngine(method -> {
+                    throw new AssertionError("unexpected fallback for " + method);
+                });
+
+                Class<?> hookClass = classLoader.loadClass("sample.SampleHook");
+                engine.bind(hookClass.getMethod("pre", Hook.class)).invoke(instance, new Hook("tag"));
+                assertEquals(1, hookClass.getField("pre").getInt(null));
+            } finally {
+                thread.setContextClassLoader(contextClassLoader);
+            }
+        }
+    }
+
+    @Test
+    public void shouldReportInvalidHooks() {
+        String target = "package sample;\n" +
+                "import com.dinuberinde.hooks.*;\n" +
+                "public class InvalidController {\n" +
+                "    @PostHook(definingClass = SampleHook.class, method = \"missing\")\n" +
+                "    public void missing() {}\n" +
+                "    @DataInHook(definingClass = SampleHook.class)\n" +
+                "    public void wrongType(@DataIn Integer input) {}\n" +
+                "    @DataInHook(definingClass = SampleHook.class)\n" +
+                "    public void noDataIn(String input) {}\n" +
+                "    @DataInHook(definingClass = SampleHook.class)\n" +
+                "    public void wrongParameter(@DataIn String input, @DataIn(definingClass = SampleHook.class, method = \"count\") String count) {}\n" +
+                "    @DataInHook(definingClass = SampleHook.class, fallback = \"missingFallback\")\n" +
+                "    public void missingFallback(@DataIn String input) {}\n" +
+                "}\n";
+
+        Compilation compilation = compile(HOOK_SOURCE, target);
+        assertFalse(compilation.success);
+        assertEquals(5, compilation.errors.size(), compilation.errors::toString);
+        assertTrue(compilation.errors.stream().anyMatch(error -> error.startsWith("No suitable method [missing] found on [sample.SampleHook]")));
+        assertTrue(compilation.errors.stream().anyMatch(error -> error.startsWith("Return type of method [dataIn] of [sample.SampleHook] must have type java.lang.Integer")));
+        assertTrue(compilation.errors.stream().anyMatch(error -> error.startsWith("Return type of method [count] of [sample.SampleHook] must have type java.lang.String")));
+        assertTrue(compilation.errors.stream().anyMatch(error -> error.equals("Method [noDataIn] has no @DataIn annotated parameter")));
+        assertTrue(compilation.errors.stream().anyMatch(error -> error.startsWith("No suitable fallback method [missingFallback] found on [sample.SampleHook]")));
+    }
+
+    private Compilation compile(String... sources) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        List<JavaFileObject> files = new ArrayList<>();
+        for (int i = 0; i < sources.length; i++) {
+            String name = sources[i].substring(sources[i].indexOf("class ") + 6, sources[i].indexOf(" {"));
+            files.add(new SourceFile("sample/" + name, sources[i]));
+        }
+
+        List<String> options = List.of("-d", output.toString(), "-s", output.toString(), "-classpath", System.getProperty("java.class.path"));
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, options, null, files);
+        task.setProcessors(List.of(new HooksProcessor()));
+        boolean success = task.call();
+
+        List<String> errors = diagnostics.getDiagnostics().stream()
+                .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                .map(diagnostic -> diagnostic.getMessage(null))
+                .collect(Collectors.toList());
+
+        return new Compilation(success, errors);
+    }
+
+    private static class Compilation {
+        private final boolean success;
+        private final List<String> errors;
+
+        private Compilation(boolean success, List<String> errors) {
+            this.success = success;
+            this.errors = errors;
+        }
+    }
+
+    private static class SourceFile extends SimpleJavaFileObject {
+        private final String source;
+
+        private SourceFile(String name, String source) {
+            super(Path.of(name + ".java").toUri(), Kind.SOURCE);
+            this.source = source;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return source;
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.dinuberinde.hooks;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor of the hooks marked as {@code async}. The hooks are queued in a bounded queue
+ * and run by a fixed number of platform threads. If virtual threads are requested and supported by the JDK,
+ * each hook call runs on its own virtual thread instead, and semaphores bound the hook calls running at once
+ * to the number of threads and the hook calls waiting to run to the queue capacity.
+ * When the queue is full, the {@link OverflowPolicy} decides what happens to a new hook call.
+ * On close, the queued hook calls are drained within the drain timeout, and the hook calls submitted
+ * afterwards are dropped with a warning.
+ * <br>
+ * <p>
+ * A default executor is created if no Spring bean of this type is declared:
+ * </p>
+ *<pre class="code">
+ *&#064;Bean
+ *public AsyncHookExecutor asyncHookExecutor() {
+ *  return new AsyncHookExecutor(8, 10_000, AsyncHookExecutor.OverflowPolicy.DROP, true, Duration.ofSeconds(10));
+ *}
+ *</pre>
+ */
+public class AsyncHookExecutor implements Executor, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(AsyncHookExecutor.class);
+
+    /**
+     * What happens to a hook call when the queue is full.
+     */
+    public enum OverflowPolicy {
+
+        /**
+         * The caller blocks until the queue has space.
+         */
+        BLOCK,
+
+        /**
+         * The hook call is dropped.
+         */
+        DROP,
+
+        /**
+         * The hook call runs on the caller thread.
+         */
+        CALLER_RUNS,
+
+        /**
+         * The hook call is rejected with a {@link RejectedExecutionException}, so that the caller can give up on it.
+         * It is also rejected once the executor is closed.
+         */
+        REJECT
+    }
+
+    private static final String THREAD_PREFIX = "spring-hooks-async-";
+
+    private final ExecutorService executor;
+    private final OverflowPolicy overflowPolicy;
+    private final Duration drainTimeout;
+
+    /**
+     * The hook calls running or waiting to run on virtual threads, whose permits bound them to the number of threads
+     * plus the queue capacity; null with platform threads, which are bounded by the queue of the executor.
+     */
+    private final Semaphore admitted;
+
+    /**
+     * The hook calls running on virtual threads, whose permits bound them to the number of threads; null with platform threads.
+     */
+    private final Semaphore running;
+
+    /**
+     * The number of permits of {@link #admitted}.
+     */
+    private final int capacity;
+
+    /**
+     * Creates an executor with a thread for each available processor, a queue of 10000 hook calls,
+     * the {@link OverflowPolicy#CALLER_RUNS} policy, platform threads and a drain timeout of 10 seconds.
+     */
+    public AsyncHookExecutor() {
+        this(Runtime.getRuntime().availableProcessors(), 10_000, OverflowPolicy.CALLER_RUNS, false, Duration.ofSeconds(10));
+    }
+
+    /**
+     * Creates an executor.
+     * @param threads the number of threads running the hooks
+     * @param queueCapacity the maximum number of queued hook calls
+     * @param overflowPolicy the policy applied when the queue is full
+     * @param virtualThreads true to run the hooks on virtual threads, if supported by the JDK
+     * @param drainTimeout the maximum time to wait for the queued hook calls on close
+     */
+    public AsyncHookExecutor(int threads, int queueCapacity, OverflowPolicy overflowPolicy, boolean virtualThreads, Duration drainTimeout) {
+        this(threads, queueCapacity, overflowPolicy, virtualThreads, drainTimeout, THREAD_PREFIX);
+    }
+
+    /**
+     * Creates an executor whose threads are named after a prefix.
+     * @param threads the number of threads running the hooks
+     * @param queueCapacity the maximum number of queued hook calls
+     * @param overflowPolicy the policy applied when the queue is full
+     * @param virtualThreads true to run the hooks on virtual threads, if supported by the JDK
+     * @param drainTimeout the maximum time to wait for the queued hook calls on close
+     * @param threadPrefix the prefix of the names of the threads
+     */
+    AsyncHookExecutor(int threads, int queueCapacity, OverflowPolicy overflowPolicy, boolean virtualThreads, Duration drainTimeout, String threadPrefix) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("The number of threads must be positive");
+        }
+
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("The queue capacity must be positive");
+        }
+
+        this.overflowPolicy = overflowPolicy;
+        this.drainTimeout = drainTimeout;
+        this.capacity = threads + queueCapacity;
+        ExecutorService threadPerTask = virtualThreads ? newVirtualThreadPerTaskExecutor(threadPrefix) : null;
+        if (threadPerTask != null) {
+            this.executor = threadPerTask;
+            this.admitted = new Semaphore(capacity);
+            this.running = new Semaphore(threads);
+        } else {
+            if (virtualThreads) {
+                logger.info("[ASYNC hooks] virtual threads are not supported by this JDK, using platform threads");
+            }
+
+            this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                    newPlatformThreadFactory(threadPrefix), newRejectionHandler(overflowPolicy));
+            this.admitted = null;
+            this.running = null;
+        }
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (admitted == null) {
+            executor.execute(command);
+            return;
+        }
+
+        if (executor.isShutdown()) {
+            if (overflowPolicy == OverflowPolicy.REJECT) {
+                throw new RejectedExecutionException("The executor of the hooks is closed");
+            }
+
+            logger.warn("[ASYNC hooks] executor closed, hook call dropped");
+            return;
+        }
+
+        if (!admitted.tryAcquire()) {
+            switch (overflowPolicy) {
+                case REJECT:
+                    throw new RejectedExecutionException("The queue of the hooks is full");
+                case DROP:
+                    logger.warn("[ASYNC hooks] queue full, hook call dropped");
+                    return;
+                case CALLER_RUNS:
+                    command.run();
+                    return;
+                default:
+                    try {
+                        admitted.acquire();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException("Interrupted while waiting for the hook queue", e);
+                    }
+            }
+        }
+
+        try {
+            executor.execute(() -> runVirtual(command));
+        } catch (RejectedExecutionException e) {
+            // closed while waiting for a permit
+            admitted.release();
+            if (overflowPolicy == OverflowPolicy.REJECT) {
+                throw e;
+            }
+
+            logger.warn("[ASYNC hooks] executor closed, hook call dropped");
+        }
+    }
+
+    /**
+     * It runs a hook call on its virtual thread, once fewer hook calls than the number of threads are running.
+     */
+    private void runVirtual(Runnable command) {
+        try {
+            running.acquire();
+            try {
+                command.run();
+            } finally {
+                running.release();
+            }
+        } catch (InterruptedException e) {
+            // interrupted by the expiry of the drain timeout while waiting to run, the hook call is counted as dropped
+            Thread.currentThread().interrupt();
+        } finally {
+            admitted.release();
+        }
+    }
+
+    /**
+     * It stops accepting new hook calls and waits for the queued ones to complete within the drain timeout.
+     * The hook calls still queued after the timeout are dropped.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(drainTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                // the queue of the platform threads is returned, while the virtual threads of the pending hook calls are interrupted
+                int pending = admitted != null ? capacity - admitted.availablePermits() : 0;
+                int dropped = executor.shutdownNow().size() + pending;
+                logger.warn("[ASYNC hooks] drain timeout expired, " + dropped + " hook calls dropped");
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static RejectedExecutionHandler newRejectionHandler(OverflowPolicy overflowPolicy) {
+        switch (overflowPolicy) {
+            case BLOCK:
+                return (command, executor) -> {
+                    if (executor.isShutdown()) {
+                        logger.warn("[ASYNC hooks] executor closed, hook call dropped");
+                        return;
+                    }
+
+                    try {
+                        executor.getQueue().put(command);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException("Interrupted while waiting for the hook queue", e);
+                    }
+
+                    // closed while waiting for space: the threads may have stopped before the hook call was queued
+                    if (executor.isShutdown() && executor.getQueue().remove(command)) {
+                        logger.warn("[ASYNC hooks] executor closed, hook call dropped");
+                    }
+                };
+            case DROP:
+                return (command, executor) -> logger.warn("[ASYNC hooks] queue full, hook call dropped");
+            case CALLER_RUNS:
+                return (command, executor) -> {
+                    if (executor.isShutdown()) {
+                        logger.warn("[ASYNC hooks] executor closed, hook call dropped");
+                        return;
+                    }
+
+                    command.run();
+                };
+            case REJECT:
+                return (command, executor) -> {
+                    throw new RejectedExecutionException(executor.isShutdown() ? "The executor of the hooks is closed" : "The queue of the hooks is full");
+                };
+            default:
+                throw new IllegalArgumentException("Unknown overflow policy " + overflowPolicy);
+        }
+    }
+
+    private static ThreadFactory newPlatformThreadFactory(String namePrefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * It creates an executor which starts a virtual thread for each task through reflection, since the library targets JDKs without virtual threads.
+     * @param namePrefix the prefix of the names of the threads
+     * @return the executor or null if virtual threads are not supported
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor(String namePrefix) {
+        ThreadFactory virtualThreadFactory = newVirtualThreadFactory(namePrefix);
+        if (virtualThreadFactory == null) {
+            return null;
+        }
+
+        try {
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, virtualThreadFactory);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * It creates a factory of virtual threads through reflection, since the library targets JDKs without virtual threads.
+     * @param namePrefix the prefix of the names of the threads
+     * @return the factory or null if virtual threads are not supported
+     */
+    static ThreadFactory newVirtualThreadFactory(String namePrefix) {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method name = builderType.getMethod("name", String.class, long.class);
+            builder = name.invoke(builder, namePrefix, 1L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.dinuberinde.hooks;
+
+/**
+ * Snapshot of the statistics of the cache of a {@link DataInHook}, see {@link DataInHook#cacheTtlMillis()}.
+ * Calls which share the result of a concurrent miss count as hits.
+ */
+public final class CacheStats {
+    private final String target;
+    private final String definingClass;
+    private final String method;
+    private final String tag;
+    private final int size;
+    private final long hits;
+    private final long misses;
+    private final long loadFailures;
+    private final long evictions;
+
+    CacheStats(String target, String definingClass, String method, String tag, int size, long hits, long misses, long loadFailures, long evictions) {
+        this.target = target;
+        this.definingClass = definingClass;
+        this.method = method;
+        this.tag = tag;
+        this.size = size;
+        this.hits = hits;
+        this.misses = misses;
+        this.loadFailures = loadFailures;
+        this.evictions = evictions;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public String getDefiningClass() {
+        return definingClass;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getLoadFailures() {
+        return loadFailures;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+}
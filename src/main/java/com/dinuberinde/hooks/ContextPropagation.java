@@ -0,0 +1,52 @@
+package com.dinuberinde.hooks;
+
+import org.springframework.util.ClassUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * It propagates the thread bound state of the caller, such as the current web request and the advised call
+ * exposed by the {@link Hook}, to the hook methods that run on a different thread while the caller waits for them.
+ */
+final class ContextPropagation {
+    private static final boolean webPresent = ClassUtils.isPresent("org.springframework.web.context.request.RequestContextHolder", ContextPropagation.class.getClassLoader());
+
+    private ContextPropagation() {}
+
+    /**
+     * It wraps a task so that it runs with the thread bound state of the current thread.
+     * @param task the task
+     * @return the wrapped task
+     */
+    static Runnable wrap(Runnable task) {
+        task = HookInvocation.wrap(task);
+        return webPresent ? RequestContext.wrap(task) : task;
+    }
+
+    /**
+     * Propagation of the current web request, in a separate class so that it is loaded only if Spring Web is present.
+     */
+    private static final class RequestContext {
+
+        static Runnable wrap(Runnable task) {
+            RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+            if (attributes == null) {
+                return task;
+            }
+
+            return () -> {
+                RequestAttributes previous = RequestContextHolder.getRequestAttributes();
+                RequestContextHolder.setRequestAttributes(attributes);
+                try {
+                    task.run();
+                } finally {
+                    if (previous != null) {
+                        RequestContextHolder.setRequestAttributes(previous);
+                    } else {
+                        RequestContextHolder.resetRequestAttributes();
+                    }
+                }
+            };
+        }
+    }
+}
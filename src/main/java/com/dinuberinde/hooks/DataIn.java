@@ -22,8 +22,42 @@ import java.lang.annotation.*;
  *  }
  *}
  *</pre>
+ *
+ * <p>
+ * A target method can have several parameters annotated with {@link DataIn}. A parameter which names its own
+ * {@link #definingClass()} is supplied by that hook, the others by the hook of the {@link DataInHook}.
+ * The hooks of different parameters run concurrently before the target method is invoked:
+ * </p>
+ *<pre class="code">
+ *  &#064;DataInHook(definingClass = ProfileSupplier.class)
+ *  public Page page(&#064;DataIn Profile profile, &#064;DataIn(definingClass = CartSupplier.class) Cart cart) {
+ *      ...
+ *  }
+ *</pre>
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.PARAMETER)
 public @interface DataIn {
+
+    /**
+     * The defining class of the hook which supplies the parameter, by default the defining class of the {@link DataInHook}
+     */
+    Class<?> definingClass() default void.class;
+
+    /**
+     * The method name of the hook which supplies the parameter, used together with {@link #definingClass()}
+     */
+    String method() default "dataIn";
+
+    /**
+     * The tag of the hook which supplies the parameter, by default the tag of the {@link DataInHook}
+     */
+    String tag() default "";
+
+    /**
+     * The name of a method of the {@link #definingClass()} which supplies the parameter when its hook method fails,
+     * times out or is skipped by its bulkhead or its circuit breaker, by default the fallback of the {@link DataInHook}
+     * if the parameter does not name its own hook
+     */
+    String fallback() default "";
 }
@@ -0,0 +1,256 @@
+package com.dinuberinde.hooks;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of the results of the {@link DataInHook} hook method of a target method. The key of a result is derived
+ * from the tag, from selected arguments of the target method or from an expression over them.
+ * Cached results expire after the time to live and, when the cache exceeds its maximum size,
+ * the least recently used results are evicted in bulk. Concurrent misses of the same key share a single
+ * call of the hook method, and results close to their expiration can be reloaded in the background
+ * while the cached result is still returned.
+ */
+final class DataInCache {
+    private static final Logger logger = LoggerFactory.getLogger(DataInCache.class);
+
+    /**
+     * The share of the maximum size kept after a bulk eviction.
+     */
+    private static final double EVICTION_TARGET = 0.9;
+
+    /**
+     * The key of the null argument, since the cache does not accept null keys.
+     */
+    private static final Object NULL_KEY = new Object();
+
+    private final String target;
+    private final ResolvedHook hook;
+    private final int[] keyArgs;
+    private final Expression keyExpression;
+    private final Callable<Object> loader;
+    private final long ttlNanos;
+    private final long refreshAheadNanos;
+    private final int maxSize;
+    private final Executor refreshExecutor;
+    private final Map<Object, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a cache.
+     * @param target the name of the target method, reported with the statistics of the cache
+     * @param hook the hook whose results are cached
+     * @param keyArgs the indexes of the arguments of the target method the key is made of
+     * @param keyExpression the expression the key is made of, null to use the arguments or the tag
+     * @param loader the call of the hook method
+     * @param ttlMillis the time to live of the cached results in milliseconds
+     * @param refreshAheadMillis the time before the expiration when a result is reloaded in the background, 0 to disable
+     * @param maxSize the maximum number of cached results
+     * @param refreshExecutor the executor of the background reloads
+     */
+    DataInCache(String target, ResolvedHook hook, int[] keyArgs, Expression keyExpression, Callable<Object> loader, long ttlMillis, long refreshAheadMillis, int maxSize, Executor refreshExecutor) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("The cache size of the @DataInHook of [" + target + "] must be positive");
+        }
+
+        this.target = target;
+        this.hook = hook;
+        this.keyArgs = keyArgs;
+        this.keyExpression = keyExpression;
+        this.loader = loader;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.refreshAheadNanos = TimeUnit.MILLISECONDS.toNanos(Math.min(refreshAheadMillis, ttlMillis));
+        this.maxSize = maxSize;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    /**
+     * It returns the cached result for the arguments of the target method, calling the hook method if it is missing or expired.
+     * @param args the arguments of the target method
+     * @return the result of the hook method
+     * @throws Exception if the key cannot be computed or the hook method fails
+     */
+    Object get(Object[] args) throws Exception {
+        Object key = key(args);
+        long now = System.nanoTime();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.isFresh(now)) {
+            hits.increment();
+            entry.lastAccess = now;
+            if (refreshAheadNanos > 0 && now - entry.loadedAt >= ttlNanos - refreshAheadNanos) {
+                refresh(key, entry);
+            }
+
+            return entry.result.getNow(null);
+        }
+
+        Entry created = new Entry(now);
+        entry = entries.compute(key, (k, current) -> current != null && (current.isLoading() || current.isFresh(now)) ? current : created);
+        if (entry != created) {
+            // loaded concurrently or loading: share the result of the other call
+            hits.increment();
+            return await(entry);
+        }
+
+        misses.increment();
+        if (entries.size() > maxSize) {
+            evict();
+        }
+
+        load(key, created);
+        return await(created);
+    }
+
+    /**
+     * It returns a snapshot of the statistics of this cache.
+     * @return the snapshot
+     */
+    CacheStats stats() {
+        return new CacheStats(target, hook.definingClass.getName(), hook.methodName, hook.tag, entries.size(), hits.sum(), misses.sum(), loadFailures.sum(), evictions.sum());
+    }
+
+    private Object key(Object[] args) {
+        if (keyExpression != null) {
+            StandardEvaluationContext context = new StandardEvaluationContext();
+            context.setVariable("tag", hook.tag);
+            context.setVariable("args", args);
+            for (int i = 0; i < args.length; i++) {
+                context.setVariable("p" + i, args[i]);
+            }
+
+            Object key = keyExpression.getValue(context);
+            return key != null ? key : NULL_KEY;
+        }
+
+        if (keyArgs.length == 0) {
+            return hook.tag;
+        }
+
+        if (keyArgs.length == 1) {
+            Object key = args[keyArgs[0]];
+            return key != null ? key : NULL_KEY;
+        }
+
+        Object[] key = new Object[keyArgs.length];
+        for (int i = 0; i < keyArgs.length; i++) {
+            key[i] = args[keyArgs[i]];
+        }
+
+        return Arrays.asList(key);
+    }
+
+    private void load(Object key, Entry entry) {
+        try {
+            Object result = loader.call();
+            entry.loadedAt = System.nanoTime();
+            entry.result.complete(result);
+        } catch (Throwable e) {
+            loadFailures.increment();
+            entries.remove(key, entry);
+            entry.result.completeExceptionally(e);
+        }
+    }
+
+    private void refresh(Object key, Entry entry) {
+        if (!entry.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            refreshExecutor.execute(() -> {
+                Entry refreshed = new Entry(System.nanoTime());
+                try {
+                    refreshed.result.complete(loader.call());
+                    refreshed.loadedAt = System.nanoTime();
+                    entries.replace(key, entry, refreshed);
+                } catch (Exception e) {
+                    loadFailures.increment();
+                    entry.refreshing.set(false);
+                    logger.error("[DATA-IN hook error] refresh of the cache of [" + target + "] failed", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            entry.refreshing.set(false);
+        }
+    }
+
+    /**
+     * It evicts the least recently used results, until the cache is below its maximum size.
+     * Only one thread evicts at a time, the others carry on.
+     */
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            List<Map.Entry<Object, Entry>> candidates = new ArrayList<>(entries.entrySet());
+            int target = (int) (maxSize * EVICTION_TARGET);
+            if (candidates.size() <= target) {
+                return;
+            }
+
+            candidates.sort(Comparator.comparingLong(candidate -> candidate.getValue().lastAccess));
+            for (int i = 0; i < candidates.size() - target; i++) {
+                Map.Entry<Object, Entry> candidate = candidates.get(i);
+                if (!candidate.getValue().isLoading() && entries.remove(candidate.getKey(), candidate.getValue())) {
+                    evictions.increment();
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private static Object await(Entry entry) throws Exception {
+        try {
+            return entry.result.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+
+            throw e;
+        }
+    }
+
+    /**
+     * A cached result, or the result being loaded.
+     */
+    private final class Entry {
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        private volatile long loadedAt;
+        private volatile long lastAccess;
+
+        private Entry(long now) {
+            this.lastAccess = now;
+        }
+
+        private boolean isLoading() {
+            return !result.isDone();
+        }
+
+        private boolean isFresh(long now) {
+            return result.isDone() && !result.isCompletedExceptionally() && now - loadedAt < ttlNanos;
+        }
+    }
+}
@@ -30,6 +30,18 @@ import java.lang.annotation.*;
  * The hook method must be {@code public} and accepts {@link Hook} as an optional parameter.
  * The default name of the hook method is <strong>dataIn</strong>
  * </p>
+ *
+ * <p>
+ * The results of the hook method can be cached through {@link #cacheTtlMillis()}. By default the key of a result
+ * is the tag, so that a single result is cached; {@link #cacheKeyArgs()} and {@link #cacheKey()} derive the key
+ * from the arguments of the target method instead:
+ * </p>
+ *<pre class="code">
+ *&#064;DataInHook(definingClass = PriceSupplier.class, cacheTtlMillis = 60_000, cacheKeyArgs = 0)
+ *public Order order(String currency, &#064;DataIn Price price) {
+ *  ...
+ *}
+ *</pre>
  */
 @Documented
 @Retention(RetentionPolicy.RUNTIME)
@@ -50,4 +62,93 @@ public @interface DataInHook {
      * The tag of the hook
      */
     String tag() default "";
+
+    /**
+     * The time to live in milliseconds of the cached results of the hook method, 0 to call the hook method on every invocation
+     */
+    long cacheTtlMillis() default 0;
+
+    /**
+     * The maximum number of cached results. When exceeded, the least recently used results are evicted
+     */
+    int cacheMaxSize() default 1000;
+
+    /**
+     * The indexes of the arguments of the target method the cache key is made of
+     */
+    int[] cacheKeyArgs() default {};
+
+    /**
+     * The SpEL expression the cache key is made of. The arguments of the target method are available
+     * as {@code #p0}, {@code #p1}, ... and {@code #args}, the tag as {@code #tag}. If set, {@link #cacheKeyArgs()} is ignored
+     */
+    String cacheKey() default "";
+
+    /**
+     * The time in milliseconds before the expiration of a cached result when it is reloaded in the background,
+     * while the cached result is still returned. 0 to disable. The reload runs outside of the invocation of the target method
+     */
+    long cacheRefreshAheadMillis() default 0;
+
+    /**
+     * The share of the invocations of the target method which call the hook methods, between 0 and 1.
+     * The skipped invocations leave the {@link DataIn} parameters unchanged
+     */
+    double sampleRate() default 1.0;
+
+    /**
+     * The maximum number of calls per second of each hook method, 0 for no limit. The calls over the limit are skipped
+     */
+    int maxPerSecond() default 0;
+
+    /**
+     * The scope in which the results of the hook methods of the {@link DataIn} parameters are memoized, so that the nested
+     * advised calls with a hook of the same hook class, hook method and tag reuse them, by default none
+     */
+    HookMemoization memoize() default HookMemoization.NONE;
+
+    /**
+     * The SpEL condition which must be true for the hook method to be called, empty to always call it.
+     * The arguments of the target method are available as {@code args} and the tag as {@code tag}.
+     * The expression is parsed once and, when SpEL supports it, compiled to bytecode after its first evaluations
+     */
+    String condition() default "";
+
+    /**
+     * The maximum time in milliseconds the caller waits for each hook method, 0 to wait until it returns.
+     * With a timeout the hook method runs on a separate thread, and a call over the timeout counts as a failure
+     * handled by the {@link #fallback()} method if any
+     */
+    long timeoutMillis() default 0;
+
+    /**
+     * The maximum number of concurrent calls of each hook method, 0 for no limit. The calls over the limit
+     * use the {@link #fallback()} method if any, otherwise they leave the {@link DataIn} parameters unchanged
+     */
+    int maxConcurrent() default 0;
+
+    /**
+     * The number of consecutive failures of each hook method which opens its circuit breaker, 0 for no breaker.
+     * While the breaker is open the calls use the {@link #fallback()} method if any, otherwise they leave
+     * the {@link DataIn} parameters unchanged, until a probe call succeeds after {@link #breakerOpenMillis()}
+     */
+    int breakerThreshold() default 0;
+
+    /**
+     * The time in milliseconds a circuit breaker stays open before a probe call is let through
+     */
+    long breakerOpenMillis() default 5000;
+
+    /**
+     * The exceptions of the hook method which do not count as failures of its circuit breaker. They are still
+     * handled by the {@link #fallback()} method if any
+     */
+    Class<? extends Throwable>[] breakerIgnore() default {};
+
+    /**
+     * The name of a method of the defining class which supplies the {@link DataIn} parameters in place of the hook method
+     * when the hook method fails, times out or is skipped by its bulkhead or its circuit breaker, empty for no fallback.
+     * The fallback method accepts {@link Hook} as an optional parameter and its results are not cached
+     */
+    String fallback() default "";
 }
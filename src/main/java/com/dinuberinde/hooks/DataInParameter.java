@@ -0,0 +1,42 @@
+package com.dinuberinde.hooks;
+
+/**
+ * A parameter of a target method annotated with {@link DataIn}, with the hook which supplies it.
+ * The parameters are resolved once, together with the hook plan of the target method.
+ */
+final class DataInParameter {
+
+    /**
+     * The index of the parameter among the parameters of the target method.
+     */
+    final int index;
+
+    /**
+     * The hook which supplies the parameter: the hook named by the {@link DataIn} annotation,
+     * otherwise the hook of the {@link DataInHook} annotation.
+     */
+    final ResolvedHook hook;
+
+    /**
+     * The cache of the results of the hook or null if they are not cached.
+     */
+    final DataInCache cache;
+
+    /**
+     * The hook which supplies the parameter when the hook fails or is rejected by its guard, null if there is no fallback.
+     */
+    final ResolvedHook fallback;
+
+    /**
+     * The reason why the hook cannot supply the parameter, null if it can.
+     */
+    final String failure;
+
+    DataInParameter(int index, ResolvedHook hook, DataInCache cache, ResolvedHook fallback, String failure) {
+        this.index = index;
+        this.hook = hook;
+        this.cache = cache;
+        this.fallback = fallback;
+        this.failure = failure;
+    }
+}
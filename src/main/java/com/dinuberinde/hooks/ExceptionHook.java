@@ -49,4 +49,77 @@ public @interface ExceptionHook {
      * The tag of the hook
      */
     String tag() default "";
+
+    /**
+     * If true, the {@link Hook} passed to the hook method is recycled across the calls on the same thread
+     * instead of being allocated for every call. The hook method must not retain the {@link Hook} after it returns.
+     */
+    boolean reuseHook() default false;
+
+    /**
+     * If true, the hook method runs on the {@link AsyncHookExecutor} instead of the thread of the target method,
+     * so that the hook does not add to the latency of the target method.
+     * Thread bound state, such as the current request, is not available to asynchronous hooks.
+     */
+    boolean async() default false;
+
+    /**
+     * If true, the hook method runs on the consumer threads of the ring buffer of its defining class in the {@link HookRingBuffers},
+     * which publishes the calls without locks nor allocations, instead of on the thread of the target method.
+     * It takes precedence over {@code async}. Thread bound state, such as the current request, is not available to these hooks.
+     */
+    boolean ringBuffer() default false;
+
+    /**
+     * The share of the invocations of the target method which call the hook method, between 0 and 1.
+     * The skipped invocations do not create a {@link Hook} nor look up the hook instance
+     */
+    double sampleRate() default 1.0;
+
+    /**
+     * The maximum number of calls per second of the hook method, 0 for no limit. The calls over the limit are skipped
+     */
+    int maxPerSecond() default 0;
+
+    /**
+     * The SpEL condition which must be true for the hook method to be called, empty to always call it.
+     * The arguments of the target method are available as {@code args}, its exception as {@code exception} and the tag as {@code tag}.
+     * The expression is parsed once and, when SpEL supports it, compiled to bytecode after its first evaluations
+     */
+    String condition() default "";
+
+    /**
+     * The maximum time in milliseconds the caller waits for the hook method, 0 to wait until it returns.
+     * With a timeout the hook method runs on a separate thread, and a call over the timeout counts as a failure
+     * whose result is not waited for
+     */
+    long timeoutMillis() default 0;
+
+    /**
+     * The maximum number of concurrent calls of the hook method, 0 for no limit. The calls over the limit are skipped
+     */
+    int maxConcurrent() default 0;
+
+    /**
+     * The number of consecutive failures of the hook method which opens its circuit breaker, 0 for no breaker.
+     * While the breaker is open the calls are skipped, until a probe call succeeds after {@link #breakerOpenMillis()}
+     */
+    int breakerThreshold() default 0;
+
+    /**
+     * The time in milliseconds a circuit breaker stays open before a probe call is let through
+     */
+    long breakerOpenMillis() default 5000;
+
+    /**
+     * The exceptions of the hook method which do not count as failures of its circuit breaker
+     */
+    Class<? extends Throwable>[] breakerIgnore() default {};
+
+    /**
+     * If true, the calls of the hook method are appended to an outbox on the local disk, a memory-mapped journal,
+     * and delivered to the hook method by a background thread, in order and at least once, also after a restart of the JVM.
+     * The exception of the {@link Hook} must be {@link java.io.Serializable}
+     */
+    boolean durable() default false;
 }
@@ -0,0 +1,79 @@
+package com.dinuberinde.hooks;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * Engine which invokes hook methods through the {@link HookDispatcher}s generated at compile time.
+ * The dispatchers are loaded once, when the engine is created, from the context class loader.
+ * The hook methods without a generated dispatcher are bound by the fallback engine.
+ */
+public class GeneratedHookInvocationEngine implements HookInvocationEngine {
+    private static final Logger logger = LoggerFactory.getLogger(GeneratedHookInvocationEngine.class);
+
+    private final HookInvocationEngine fallback;
+    private final List<HookDispatcher> dispatchers = new ArrayList<>();
+
+    /**
+     * Creates an engine.
+     * @param fallback the engine which binds the hook methods without a generated dispatcher
+     */
+    public GeneratedHookInvocationEngine(HookInvocationEngine fallback) {
+        this.fallback = fallback;
+
+        try {
+            for (HookDispatcher dispatcher : ServiceLoader.load(HookDispatcher.class)) {
+                dispatchers.add(dispatcher);
+            }
+        } catch (ServiceConfigurationError e) {
+            logger.warn("Cannot load the generated hook dispatchers, falling back to " + fallback.getClass().getSimpleName(), e);
+        }
+    }
+
+    @Override
+    public HookInvoker bind(Method hookMethod) {
+        if (!dispatchers.isEmpty()) {
+            String key = getHookMethodKey(hookMethod);
+            for (HookDispatcher dispatcher : dispatchers) {
+                HookInvoker invoker = dispatcher.invoker(key);
+                if (invoker != null) {
+                    return invoker;
+                }
+            }
+        }
+
+        return fallback.bind(hookMethod);
+    }
+
+    /**
+     * It creates an object instance of a hook class through a generated dispatcher.
+     * @param type the hook class
+     * @return the object instance or null if no generated dispatcher instantiates the hook class
+     */
+    Object newInstance(Class<?> type) {
+        for (HookDispatcher dispatcher : dispatchers) {
+            Object instance = dispatcher.newInstance(type.getName());
+            if (instance != null) {
+                return instance;
+            }
+        }
+
+        return null;
+    }
+
+    private static String getHookMethodKey(Method hookMethod) {
+        StringBuilder key = new StringBuilder(hookMethod.getDeclaringClass().getName()).append('#').append(hookMethod.getName()).append('(');
+        Class<?>[] parameterTypes = hookMethod.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            key.append(i > 0 ? "," : "").append(parameterTypes[i].getName());
+        }
+
+        return key.append(')').toString();
+    }
+}
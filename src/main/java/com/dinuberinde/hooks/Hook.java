@@ -1,5 +1,17 @@
 package com.dinuberinde.hooks;
 
+import java.lang.reflect.Method;
+
+/**
+ * The call of a hook method, with its tag and the data out or the exception of the target method if any.
+ * While the hook method runs on the thread of the target method, on the threads the hooks run on in parallel
+ * or on the thread which completes the {@link java.util.concurrent.CompletionStage} returned by the target method,
+ * the {@link Hook} also exposes the target method, its arguments, the target instance and, for the hooks which run
+ * after the target method, its elapsed time, until the completion of the stage if any. They are looked up only when asked for,
+ * and they are not available to the asynchronous, durable and batched hooks nor after the hook method returns. In particular,
+ * the outbox of a durable hook persists only the tag, the data out and the exception, so a hook delivered from the outbox,
+ * possibly after a restart, returns null and -1.
+ */
 public class Hook {
     private final String tag;
     private final Object dataOut;
@@ -26,4 +38,37 @@ public class Hook {
     public Exception getException() {
         return exception;
     }
+
+    /**
+     * It returns the advised target method.
+     * @return the target method or null if not available
+     */
+    public Method getMethod() {
+        return HookInvocation.method();
+    }
+
+    /**
+     * It returns the arguments of the target method, by reference: the arguments supplied by a {@link DataInHook}
+     * are visible to the hooks which run after it.
+     * @return the arguments or null if not available
+     */
+    public Object[] getArgs() {
+        return HookInvocation.args();
+    }
+
+    /**
+     * It returns the instance the target method is invoked on.
+     * @return the target instance or null if not available
+     */
+    public Object getTarget() {
+        return HookInvocation.target();
+    }
+
+    /**
+     * It returns the time the target method took, for the {@link PostHook}, {@link DataOutHook} and {@link ExceptionHook} hooks.
+     * @return the elapsed nanoseconds or -1 if not available
+     */
+    public long getElapsedNanos() {
+        return HookInvocation.elapsedNanos();
+    }
 }
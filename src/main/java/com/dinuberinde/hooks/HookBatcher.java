@@ -0,0 +1,149 @@
+package com.dinuberinde.hooks;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Buffer of the {@link Hook}s of a {@link DataOutHook} whose hook method accepts a {@code List<Hook>} parameter.
+ * The buffered hooks are delivered to the hook method in a single call when the batch size is reached
+ * or when the oldest buffered hook waited longer than the maximum delay.
+ */
+final class HookBatcher {
+    private static final Logger logger = LoggerFactory.getLogger(HookBatcher.class);
+
+    private final ResolvedHook hook;
+    private final int batchSize;
+    private final long maxDelayNanos;
+
+    /**
+     * The buffered hooks, null if no hook is buffered. Guarded by this batcher.
+     */
+    private List<Hook> batch;
+
+    /**
+     * The time when the first hook of the current batch was buffered. Guarded by this batcher.
+     */
+    private long batchStart;
+
+    HookBatcher(ResolvedHook hook, int batchSize, long maxDelayMillis) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size of [" + hook.methodName + "] of [" + hook.definingClass.getName() + "] must be positive");
+        }
+
+        this.hook = hook;
+        this.batchSize = batchSize;
+        this.maxDelayNanos = maxDelayMillis * 1_000_000L;
+    }
+
+    /**
+     * It buffers a hook, delivering the batch if it is full.
+     * @param element the hook to buffer
+     */
+    void add(Hook element) {
+        List<Hook> full = null;
+        synchronized (this) {
+            if (batch == null) {
+                batch = new ArrayList<>(batchSize);
+                batchStart = System.nanoTime();
+            }
+
+            batch.add(element);
+            if (batch.size() >= batchSize) {
+                full = batch;
+                batch = null;
+            }
+        }
+
+        if (full != null) {
+            deliver(full);
+        }
+    }
+
+    /**
+     * It delivers the current batch if its oldest hook waited longer than the maximum delay.
+     */
+    void flushExpired() {
+        List<Hook> expired = null;
+        synchronized (this) {
+            if (batch != null && System.nanoTime() - batchStart >= maxDelayNanos) {
+                expired = batch;
+                batch = null;
+            }
+        }
+
+        if (expired != null) {
+            deliver(expired);
+        }
+    }
+
+    /**
+     * It delivers the current batch, whatever its size and age.
+     */
+    void flush() {
+        List<Hook> pending;
+        synchronized (this) {
+            pending = batch;
+            batch = null;
+        }
+
+        if (pending != null) {
+            deliver(pending);
+        }
+    }
+
+    /**
+     * It returns the period at which expired batches should be looked for.
+     * @return the period in milliseconds
+     */
+    long flushPeriodMillis() {
+        return Math.max(1L, maxDelayNanos / 4_000_000L);
+    }
+
+    private void deliver(List<Hook> batch) {
+        Executor executor = hook.executor;
+        if (executor != null) {
+            executor.execute(() -> invoke(batch));
+        } else {
+            invoke(batch);
+        }
+    }
+
+    private void invoke(List<Hook> batch) {
+        if (hook.instances == null) {
+            logger.error("[DATA-OUT hook error] no instance of [{}] is available, a batch of {} hooks is dropped", hook.definingClass.getName(), batch.size());
+            return;
+        }
+
+        logger.debug("[DATAOUT hook] delivering a batch of {} hooks to [{}] of [{}]", batch.size(), hook.methodName, hook.definingClass.getName());
+        long start = System.nanoTime();
+        HookInvocationEvent event = HookInvocationEvent.start();
+        // the hooks of a batch belong to different calls, so the call which fills the batch is hidden
+        HookInvocation invocation = HookInvocation.enter(null);
+        Object instance = null;
+        try {
+            instance = hook.instances.acquire();
+            hook.invoker.invoke(instance, Collections.unmodifiableList(batch));
+            hook.stats.record(System.nanoTime() - start, false);
+            if (event != null) {
+                event.record(hook, false);
+            }
+        } catch (Throwable e) {
+            hook.stats.record(System.nanoTime() - start, true);
+            if (event != null) {
+                event.record(hook, true);
+            }
+
+            logger.error("[DATA-OUT hook error]", e);
+        } finally {
+            invocation.exit();
+            if (instance != null) {
+                hook.instances.release(instance);
+            }
+        }
+    }
+}
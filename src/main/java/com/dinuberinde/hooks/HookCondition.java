@@ -0,0 +1,91 @@
+package com.dinuberinde.hooks;
+
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+/**
+ * The condition of a hook, a SpEL expression which decides if the hook method is called. The expression is parsed
+ * once, when the hook of the target method is resolved, and compiled to bytecode after its first interpreted evaluations,
+ * so that in steady state it is evaluated without reflection. It is evaluated against a {@link Root}: the arguments
+ * of the target method as {@code args}, the tag as {@code tag}, the result of the target method as {@code result}
+ * and its exception as {@code exception}.
+ */
+final class HookCondition {
+
+    /**
+     * The parser of the conditions, which compiles an expression once it has been interpreted
+     * and falls back to the interpreter if a compiled expression fails.
+     */
+    private static final SpelExpressionParser parser = new SpelExpressionParser(new SpelParserConfiguration(SpelCompilerMode.MIXED, HookCondition.class.getClassLoader()));
+
+    /**
+     * The context of the evaluations, shared since the state of an evaluation is carried by its root object.
+     */
+    private static final EvaluationContext context = new StandardEvaluationContext();
+
+    private final String tag;
+    private final Expression expression;
+
+    private HookCondition(String tag, Expression expression) {
+        this.tag = tag;
+        this.expression = expression;
+    }
+
+    /**
+     * It parses the condition of a hook.
+     * @param condition the expression of the condition
+     * @param tag the tag of the hook
+     * @return the condition or null if the expression is empty, so that the hook is always called
+     */
+    static HookCondition of(String condition, String tag) {
+        return condition.isEmpty() ? null : new HookCondition(tag, parser.parseExpression(condition));
+    }
+
+    /**
+     * It evaluates the condition.
+     * @param args the arguments of the target method, null if not available
+     * @param result the result of the target method if any
+     * @param exception the exception of the target method if any
+     * @return true if the hook method must be called
+     */
+    boolean test(Object[] args, Object result, Exception exception) {
+        return Boolean.TRUE.equals(expression.getValue(context, new Root(tag, args, result, exception), Boolean.class));
+    }
+
+    /**
+     * The root object of the evaluation of a condition.
+     */
+    public static final class Root {
+        private final String tag;
+        private final Object[] args;
+        private final Object result;
+        private final Exception exception;
+
+        private Root(String tag, Object[] args, Object result, Exception exception) {
+            this.tag = tag;
+            this.args = args;
+            this.result = result;
+            this.exception = exception;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+
+        public Object[] getArgs() {
+            return args;
+        }
+
+        public Object getResult() {
+            return result;
+        }
+
+        public Exception getException() {
+            return exception;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.dinuberinde.hooks;
+
+import java.lang.annotation.*;
+
+/**
+ * Annotation which declares, on a hook class, the hook classes that must complete before its hook method runs,
+ * when the hooks of a {@link PreHook} or {@link PostHook} run in parallel. Dependencies on hook classes that are
+ * not part of the same annotation are ignored.
+ * <br>
+ *<p>Example:</p>
+ *<pre class="code">
+ *&#064;HookDependsOn(AuthHook.class)
+ *public class QuotaHook {
+ *  public void pre(Hook hook) {
+ *      // runs after AuthHook, in parallel with the other hooks
+ *  }
+ *}
+ *</pre>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface HookDependsOn {
+
+    /**
+     * The hook classes that must complete before the hook method of the annotated class
+     */
+    Class<?>[] value();
+}
@@ -0,0 +1,26 @@
+package com.dinuberinde.hooks;
+
+/**
+ * Dispatcher of hook methods generated at compile time by the {@code spring-hooks-processor} annotation processor,
+ * which calls the hook methods and creates the hook object instances through plain Java code instead of reflection.
+ * The processor generates a dispatcher for each class declaring hook annotations and registers it as a
+ * {@link java.util.ServiceLoader} service, which is picked up by the {@link GeneratedHookInvocationEngine}.
+ */
+public interface HookDispatcher {
+
+    /**
+     * It returns the invoker of a hook method.
+     * @param hookMethod the hook method, as the binary name of its declaring class, {@code #}, its name
+     *                   and the binary names of its parameter types within parentheses, for instance
+     *                   {@code hooks.LogHook#pre(com.dinuberinde.hooks.Hook)}
+     * @return the invoker or null if the hook method is not dispatched by this dispatcher
+     */
+    HookInvoker invoker(String hookMethod);
+
+    /**
+     * It creates an object instance of a hook class through its public parameterless constructor.
+     * @param definingClass the binary name of the hook class
+     * @return the object instance or null if the hook class is not instantiated by this dispatcher
+     */
+    Object newInstance(String definingClass);
+}
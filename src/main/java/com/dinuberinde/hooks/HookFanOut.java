@@ -0,0 +1,169 @@
+package com.dinuberinde.hooks;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * The hooks of a {@link PreHook} or {@link PostHook} which run in parallel. A hook starts as soon as
+ * the hooks it depends on, declared through {@link HookDependsOn}, have completed. The dependencies
+ * and the start order are computed once, when the hooks of the target method are resolved.
+ */
+final class HookFanOut {
+
+    /**
+     * The call of a single hook of the fan out.
+     */
+    @FunctionalInterface
+    interface HookCall {
+        void call(ResolvedHook hook) throws Exception;
+    }
+
+    private final ResolvedHook[] hooks;
+    private final Executor executor;
+
+    /**
+     * The indexes of the hooks each hook depends on.
+     */
+    private final int[][] dependencies;
+
+    /**
+     * The indexes of the hooks in an order where every hook follows its dependencies.
+     */
+    private final int[] order;
+
+    /**
+     * The reason why the hooks cannot run, null if they can.
+     */
+    private final String failure;
+
+    HookFanOut(ResolvedHook[] hooks, Executor executor) {
+        this.hooks = hooks;
+        this.executor = executor;
+        this.dependencies = new int[hooks.length][];
+
+        for (int i = 0; i < hooks.length; i++) {
+            HookDependsOn dependsOn = hooks[i].definingClass.getAnnotation(HookDependsOn.class);
+            List<Class<?>> dependencyClasses = dependsOn != null ? Arrays.asList(dependsOn.value()) : List.of();
+            int[] indexes = new int[hooks.length];
+            int count = 0;
+            for (int j = 0; j < hooks.length; j++) {
+                if (j != i && dependencyClasses.contains(hooks[j].definingClass)) {
+                    indexes[count++] = j;
+                }
+            }
+
+            dependencies[i] = Arrays.copyOf(indexes, count);
+        }
+
+        this.order = sort(dependencies);
+        this.failure = order.length < hooks.length ? "The dependencies declared through @HookDependsOn are cyclic for " + describe(hooks) : null;
+    }
+
+    /**
+     * It runs the hooks on the executor and waits for all of them to complete.
+     * @param call the call of a single hook
+     * @throws Exception the exception of the first failed hook, in declaration order
+     */
+    void run(HookCall call) throws Exception {
+        if (failure != null) {
+            throw new IllegalStateException(failure);
+        }
+
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[hooks.length];
+        for (int i : order) {
+            ResolvedHook hook = hooks[i];
+            Runnable task = ContextPropagation.wrap(() -> {
+                try {
+                    call.call(hook);
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            });
+
+            int[] hookDependencies = dependencies[i];
+            if (hookDependencies.length == 0) {
+                futures[i] = CompletableFuture.runAsync(task, executor);
+            } else {
+                CompletableFuture<?>[] dependencyFutures = new CompletableFuture<?>[hookDependencies.length];
+                for (int j = 0; j < hookDependencies.length; j++) {
+                    dependencyFutures[j] = futures[hookDependencies[j]];
+                }
+
+                futures[i] = CompletableFuture.allOf(dependencyFutures).thenRunAsync(task, executor);
+            }
+        }
+
+        Throwable firstFailure = null;
+        for (CompletableFuture<?> future : futures) {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                if (firstFailure == null) {
+                    firstFailure = e.getCause() != null ? e.getCause() : e;
+                }
+            }
+        }
+
+        if (firstFailure instanceof Exception) {
+            throw (Exception) firstFailure;
+        } else if (firstFailure != null) {
+            throw (Error) firstFailure;
+        }
+    }
+
+    /**
+     * It sorts the hooks so that every hook follows its dependencies, keeping the declaration order otherwise.
+     * @param dependencies the indexes of the hooks each hook depends on
+     * @return the sorted indexes, fewer than the hooks if the dependencies are cyclic
+     */
+    private static int[] sort(int[][] dependencies) {
+        int[] missing = new int[dependencies.length];
+        List<List<Integer>> dependents = new ArrayList<>();
+        for (int i = 0; i < dependencies.length; i++) {
+            dependents.add(new ArrayList<>());
+        }
+
+        Deque<Integer> ready = new ArrayDeque<>();
+        for (int i = 0; i < dependencies.length; i++) {
+            missing[i] = dependencies[i].length;
+            for (int dependency : dependencies[i]) {
+                dependents.get(dependency).add(i);
+            }
+
+            if (missing[i] == 0) {
+                ready.add(i);
+            }
+        }
+
+        int[] order = new int[dependencies.length];
+        int count = 0;
+        while (!ready.isEmpty()) {
+            int next = ready.poll();
+            order[count++] = next;
+            for (int dependent : dependents.get(next)) {
+                if (--missing[dependent] == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+
+        return Arrays.copyOf(order, count);
+    }
+
+    private static String describe(ResolvedHook[] hooks) {
+        StringBuilder description = new StringBuilder("[");
+        for (int i = 0; i < hooks.length; i++) {
+            description.append(i > 0 ? ", " : "").append(hooks[i].definingClass.getName());
+        }
+
+        return description.append("]").toString();
+    }
+}
@@ -0,0 +1,249 @@
+package com.dinuberinde.hooks;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * The guard of the calls of a hook method: a timeout, a bulkhead limiting the concurrent calls and a circuit breaker
+ * which skips the calls after consecutive failures. Once the breaker has been open for its open time,
+ * a single probe call is let through: it closes the breaker if it succeeds and keeps it open otherwise.
+ * The exceptions which the hook method throws on purpose, such as the denial of a pre hook, can be excluded
+ * from the failures, so that they count as successful calls.
+ * The state of the guard is updated without locks, and a call of a closed breaker reads a single volatile flag.
+ */
+final class HookGuard {
+    private static final Logger logger = LoggerFactory.getLogger(HookGuard.class);
+
+    /**
+     * The description of the hook, reported when a call is rejected.
+     */
+    private final String target;
+
+    /**
+     * The timeout of a call in nanoseconds, 0 to wait until the call returns.
+     */
+    private final long timeoutNanos;
+
+    /**
+     * The executor of the calls with a timeout, which rejects the calls it cannot run.
+     */
+    private final Executor executor;
+
+    /**
+     * The maximum number of concurrent calls, 0 for no limit.
+     */
+    private final int maxConcurrent;
+
+    /**
+     * The number of consecutive failures which opens the breaker, 0 if there is no breaker.
+     */
+    private final int breakerThreshold;
+
+    /**
+     * The time in nanoseconds the breaker stays open before a probe call.
+     */
+    private final long breakerOpenNanos;
+
+    /**
+     * The exceptions of the hook method which do not count as failures of the breaker.
+     */
+    private final Class<? extends Throwable>[] breakerIgnore;
+
+    /**
+     * True if the calls rejected by the breaker or the bulkhead and the timed out calls return null instead of throwing.
+     */
+    private final boolean skipRejected;
+
+    private final AtomicInteger concurrentCalls = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicBoolean probing = new AtomicBoolean();
+    private volatile boolean open;
+
+    /**
+     * The time when the open breaker lets a probe call through, written before {@link #open}.
+     */
+    private volatile long probeAt;
+
+    private HookGuard(String target, long timeoutMillis, Executor executor, int maxConcurrent, int breakerThreshold, long breakerOpenMillis, Class<? extends Throwable>[] breakerIgnore, boolean skipRejected) {
+        this.target = target;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        this.executor = executor;
+        this.maxConcurrent = maxConcurrent;
+        this.breakerThreshold = breakerThreshold;
+        this.breakerOpenNanos = TimeUnit.MILLISECONDS.toNanos(breakerOpenMillis);
+        this.breakerIgnore = breakerIgnore;
+        this.skipRejected = skipRejected;
+    }
+
+    /**
+     * It creates the guard of the calls of a hook.
+     * @param target the description of the hook, reported if the arguments are invalid and when a call is rejected
+     * @param timeoutMillis the timeout of a call in milliseconds, 0 to wait until the call returns
+     * @param executor the executor of the calls with a timeout, which rejects the calls it cannot run
+     * @param maxConcurrent the maximum number of concurrent calls, 0 for no limit
+     * @param breakerThreshold the number of consecutive failures which opens the breaker, 0 for no breaker
+     * @param breakerOpenMillis the time in milliseconds the breaker stays open before a probe call
+     * @param breakerIgnore the exceptions of the hook method which do not count as failures of the breaker
+     * @param skipRejected true if the calls rejected by the breaker or the bulkhead and the timed out calls return null instead of throwing
+     * @return the guard or null if the calls are not guarded
+     */
+    static HookGuard of(String target, long timeoutMillis, Executor executor, int maxConcurrent, int breakerThreshold, long breakerOpenMillis, Class<? extends Throwable>[] breakerIgnore, boolean skipRejected) {
+        if (timeoutMillis < 0 || maxConcurrent < 0 || breakerThreshold < 0 || breakerOpenMillis < 0) {
+            throw new IllegalArgumentException("The timeout, the maximum concurrent calls and the breaker settings of " + target + " must not be negative");
+        }
+
+        return timeoutMillis > 0 || maxConcurrent > 0 || breakerThreshold > 0 ? new HookGuard(target, timeoutMillis, executor, maxConcurrent, breakerThreshold, breakerOpenMillis, breakerIgnore, skipRejected) : null;
+    }
+
+    /**
+     * It makes a guarded call.
+     * @param call the call of the hook method
+     * @return the result of the call or null if it was skipped
+     * @throws HookRejectedException if the call was rejected or timed out and such calls are not skipped
+     */
+    Object call(Supplier<Object> call) {
+        boolean probe = false;
+        if (open) {
+            if (System.nanoTime() - probeAt < 0 || !probing.compareAndSet(false, true)) {
+                return reject(" is skipped by its open circuit breaker", HookRejectedException.Reason.CIRCUIT_OPEN);
+            }
+
+            probe = true;
+        }
+
+        if (maxConcurrent > 0 && concurrentCalls.incrementAndGet() > maxConcurrent) {
+            concurrentCalls.decrementAndGet();
+            if (probe) {
+                probing.set(false);
+            }
+
+            return reject(" is skipped by its full bulkhead", HookRejectedException.Reason.BULKHEAD_FULL);
+        }
+
+        boolean success = false;
+        boolean rejected = false;
+        try {
+            Object result = timeoutNanos > 0 ? callWithTimeout(call) : call.get();
+            success = true;
+            return result;
+        } catch (HookRejectedException e) {
+            // a call rejected by the executor of the calls with a timeout did not run, so it is not a failure of the hook
+            rejected = e.getReason() == HookRejectedException.Reason.BULKHEAD_FULL;
+            if (!skipRejected) {
+                throw e;
+            }
+
+            // the caller carries on without the result of the timed out call
+            logger.warn("[HOOK guard] {}", e.getMessage());
+            return null;
+        } catch (RuntimeException e) {
+            success = isIgnored(e);
+            throw e;
+        } finally {
+            if (maxConcurrent > 0 && timeoutNanos == 0) {
+                concurrentCalls.decrementAndGet();
+            }
+
+            if (breakerThreshold > 0 && !rejected) {
+                record(success, probe);
+            } else if (probe) {
+                probing.set(false);
+            }
+        }
+    }
+
+    private Object callWithTimeout(Supplier<Object> call) {
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        Runnable task = ContextPropagation.wrap(() -> {
+            try {
+                result.complete(call.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                // the bulkhead counts the call until it returns, even after the caller stopped waiting
+                if (maxConcurrent > 0) {
+                    concurrentCalls.decrementAndGet();
+                }
+            }
+        });
+
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            if (maxConcurrent > 0) {
+                concurrentCalls.decrementAndGet();
+            }
+
+            // the call fails fast instead of running on the caller thread without its timeout
+            throw new HookRejectedException(target + " is skipped by its full executor", HookRejectedException.Reason.BULKHEAD_FULL);
+        }
+
+        try {
+            return result.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new HookRejectedException(target + " timed out after " + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + " ms", HookRejectedException.Reason.TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HookRejectedException(target + " was interrupted", HookRejectedException.Reason.TIMEOUT);
+        } catch (ExecutionException e) {
+            ReflectionUtils.rethrowRuntimeException(e.getCause());
+            return null;
+        }
+    }
+
+    /**
+     * It checks if an exception of the hook method does not count as a failure of the breaker.
+     * @param exception the exception, wrapped if the hook method threw a checked exception
+     * @return true if the exception is ignored by the breaker
+     */
+    private boolean isIgnored(RuntimeException exception) {
+        Throwable cause = exception instanceof UndeclaredThrowableException && exception.getCause() != null ? exception.getCause() : exception;
+        for (Class<? extends Throwable> ignored : breakerIgnore) {
+            if (ignored.isInstance(cause)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void record(boolean success, boolean probe) {
+        if (success) {
+            if (probe) {
+                failures.set(0);
+                open = false;
+                probing.set(false);
+            } else if (failures.get() != 0) {
+                failures.set(0);
+            }
+        } else if (probe) {
+            probeAt = System.nanoTime() + breakerOpenNanos;
+            probing.set(false);
+        } else if (failures.incrementAndGet() >= breakerThreshold && !open) {
+            probeAt = System.nanoTime() + breakerOpenNanos;
+            open = true;
+            logger.warn("[HOOK guard] the circuit breaker of {} is open after {} consecutive failures", target, breakerThreshold);
+        }
+    }
+
+    private Object reject(String message, HookRejectedException.Reason reason) {
+        if (skipRejected) {
+            logger.debug("[HOOK guard] {}{}", target, message);
+            return null;
+        }
+
+        throw new HookRejectedException(target + message, reason);
+    }
+}
@@ -0,0 +1,26 @@
+package com.dinuberinde.hooks;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event of the creation of an instance of a hook class, through its constructor
+ * or through the lookup of its Spring bean.
+ */
+@Name("com.dinuberinde.hooks.HookInstance")
+@Label("Hook Instance Creation")
+@Description("Creation of an instance of a hook class")
+@Category("Spring Hooks")
+final class HookInstanceEvent extends jdk.jfr.Event {
+
+    @Label("Defining Class")
+    String definingClass;
+
+    @Label("Scope")
+    String scope;
+
+    @Label("Spring Bean")
+    boolean bean;
+}
@@ -0,0 +1,168 @@
+package com.dinuberinde.hooks;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The instances of a hook class the hook methods are invoked on, according to the scope of the hook class.
+ * An instance is acquired for each call of a hook method and released afterwards.
+ */
+abstract class HookInstances {
+
+    /**
+     * It acquires an instance for a call of a hook method.
+     * @return the instance
+     * @throws Exception if no instance can be acquired
+     */
+    abstract Object acquire() throws Exception;
+
+    /**
+     * It releases an instance acquired for a call of a hook method.
+     * @param instance the instance
+     */
+    void release(Object instance) {}
+
+    /**
+     * It creates the instances shared by all the threads.
+     * @param instance the single instance
+     * @return the instances
+     */
+    static HookInstances singleton(Object instance) {
+        return new Singleton(instance);
+    }
+
+    /**
+     * It creates the instances looked up on every call, such as the prototype or request scoped Spring beans.
+     * @param lookup the lookup of an instance
+     * @return the instances
+     */
+    static HookInstances lookup(Callable<Object> lookup) {
+        return new Lookup(lookup);
+    }
+
+    /**
+     * It creates the instances borrowed from a bounded pool. The pool is filled on demand.
+     * @param factory the factory of the instances
+     * @param size the maximum number of instances
+     * @param borrowTimeoutMillis the maximum time a call waits for an instance of an exhausted pool
+     * @return the instances
+     */
+    static HookInstances pooled(Callable<Object> factory, int size, long borrowTimeoutMillis) {
+        return new Pooled(factory, size, borrowTimeoutMillis);
+    }
+
+    /**
+     * It creates the instances bound to the threads, one per thread.
+     * @param factory the factory of the instances
+     * @return the instances
+     */
+    static HookInstances threadLocal(Callable<Object> factory) {
+        return new PerThread(factory);
+    }
+
+    private static final class Singleton extends HookInstances {
+        private final Object instance;
+
+        private Singleton(Object instance) {
+            this.instance = instance;
+        }
+
+        @Override
+        Object acquire() {
+            return instance;
+        }
+    }
+
+    private static final class Lookup extends HookInstances {
+        private final Callable<Object> lookup;
+
+        private Lookup(Callable<Object> lookup) {
+            this.lookup = lookup;
+        }
+
+        @Override
+        Object acquire() throws Exception {
+            return lookup.call();
+        }
+    }
+
+    private static final class Pooled extends HookInstances {
+        private final Callable<Object> factory;
+        private final int size;
+        private final long borrowTimeoutMillis;
+        private final BlockingQueue<Object> idle;
+
+        /**
+         * The number of instances created, which never exceeds the size of the pool.
+         */
+        private final AtomicInteger created = new AtomicInteger();
+
+        private Pooled(Callable<Object> factory, int size, long borrowTimeoutMillis) {
+            if (size < 1) {
+                throw new IllegalArgumentException("The pool size of a hook class must be positive");
+            }
+
+            this.factory = factory;
+            this.size = size;
+            this.borrowTimeoutMillis = borrowTimeoutMillis;
+            this.idle = new ArrayBlockingQueue<>(size);
+        }
+
+        @Override
+        Object acquire() throws Exception {
+            Object instance = idle.poll();
+            if (instance != null) {
+                return instance;
+            }
+
+            int count = created.get();
+            while (count < size) {
+                if (created.compareAndSet(count, count + 1)) {
+                    try {
+                        return factory.call();
+                    } catch (Exception e) {
+                        created.decrementAndGet();
+                        throw e;
+                    }
+                }
+
+                count = created.get();
+            }
+
+            instance = idle.poll(borrowTimeoutMillis, TimeUnit.MILLISECONDS);
+            if (instance == null) {
+                throw new IllegalStateException("No instance of the hook pool available after " + borrowTimeoutMillis + " ms");
+            }
+
+            return instance;
+        }
+
+        @Override
+        void release(Object instance) {
+            idle.offer(instance);
+        }
+    }
+
+    private static final class PerThread extends HookInstances {
+        private final Callable<Object> factory;
+        private final ThreadLocal<Object> instances = new ThreadLocal<>();
+
+        private PerThread(Callable<Object> factory) {
+            this.factory = factory;
+        }
+
+        @Override
+        Object acquire() throws Exception {
+            Object instance = instances.get();
+            if (instance == null) {
+                instance = factory.call();
+                instances.set(instance);
+            }
+
+            return instance;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.dinuberinde.hooks;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * The advised calls of a thread whose hooks are running, so that a {@link Hook} can expose the target method,
+ * its arguments, the target instance and the elapsed time of the target method without carrying them.
+ * A call is bound by reference to its join point or method invocation, and the method, the arguments and the target
+ * are looked up only if a hook method asks for them. The frames of the nested calls are kept in arrays reused by the thread,
+ * so that binding a call does not allocate.
+ */
+final class HookInvocation {
+    private static final ThreadLocal<HookInvocation> current = ThreadLocal.withInitial(HookInvocation::new);
+
+    /**
+     * The time of a call which is not measured.
+     */
+    private static final long UNTIMED = Long.MIN_VALUE;
+
+    /**
+     * The join points or the method invocations of the calls, null for the frames which hide the calls of the thread.
+     */
+    private Object[] invocations = new Object[8];
+    private long[] startNanos = new long[8];
+    private long[] endNanos = new long[8];
+    private int depth;
+
+    private HookInvocation() {}
+
+    /**
+     * It binds an advised call to the current thread, until {@link #exit()}.
+     * @param invocation the join point or the method invocation of the call, null to hide the calls of the thread from the hooks
+     * @return the calls of the current thread
+     */
+    static HookInvocation enter(Object invocation) {
+        HookInvocation context = current.get();
+        context.push(invocation, UNTIMED, UNTIMED);
+        return context;
+    }
+
+    private void push(Object invocation, long start, long end) {
+        if (depth == invocations.length) {
+            invocations = Arrays.copyOf(invocations, depth * 2);
+            startNanos = Arrays.copyOf(startNanos, depth * 2);
+            endNanos = Arrays.copyOf(endNanos, depth * 2);
+        }
+
+        invocations[depth] = invocation;
+        startNanos[depth] = start;
+        endNanos[depth] = end;
+        depth++;
+    }
+
+    /**
+     * It records the start of the target method of the innermost call, so that its elapsed time is measured.
+     */
+    void start() {
+        startNanos[depth - 1] = System.nanoTime();
+    }
+
+    /**
+     * It records the end of the target method of the innermost call, if its elapsed time is measured.
+     */
+    void end() {
+        if (startNanos[depth - 1] != UNTIMED) {
+            endNanos[depth - 1] = System.nanoTime();
+        }
+    }
+
+    /**
+     * It unbinds the innermost call from the current thread.
+     */
+    void exit() {
+        invocations[--depth] = null;
+    }
+
+    private static Object invocation() {
+        HookInvocation context = current.get();
+        return context.depth > 0 ? context.invocations[context.depth - 1] : null;
+    }
+
+    /**
+     * @return the target method of the innermost call of the current thread, null if none
+     */
+    static Method method() {
+        Object invocation = invocation();
+        if (invocation instanceof MethodInvocation) {
+            return ((MethodInvocation) invocation).getMethod();
+        }
+
+        return invocation != null ? ((MethodSignature) ((JoinPoint) invocation).getSignature()).getMethod() : null;
+    }
+
+    /**
+     * @return the arguments of the innermost call of the current thread, null if none
+     */
+    static Object[] args() {
+        Object invocation = invocation();
+        if (invocation instanceof MethodInvocation) {
+            return ((MethodInvocation) invocation).getArguments();
+        }
+
+        return invocation != null ? ((JoinPoint) invocation).getArgs() : null;
+    }
+
+    /**
+     * @return the target instance of the innermost call of the current thread, null if none
+     */
+    static Object target() {
+        Object invocation = invocation();
+        if (invocation instanceof MethodInvocation) {
+            return ((MethodInvocation) invocation).getThis();
+        }
+
+        return invocation != null ? ((JoinPoint) invocation).getTarget() : null;
+    }
+
+    /**
+     * @return the elapsed nanoseconds of the target method of the innermost call of the current thread,
+     * -1 if none or if the target method was not measured or has not returned yet
+     */
+    static long elapsedNanos() {
+        HookInvocation context = current.get();
+        if (context.depth == 0 || context.invocations[context.depth - 1] == null) {
+            return -1;
+        }
+
+        long end = context.endNanos[context.depth - 1];
+        return end != UNTIMED ? end - context.startNanos[context.depth - 1] : -1;
+    }
+
+    /**
+     * It wraps a task so that it runs with the innermost call of the current thread bound.
+     * @param task the task
+     * @return the wrapped task, or the task itself if no call is bound
+     */
+    static Runnable wrap(Runnable task) {
+        HookInvocation context = current.get();
+        if (context.depth == 0) {
+            return task;
+        }
+
+        int top = context.depth - 1;
+        Object invocation = context.invocations[top];
+        long start = context.startNanos[top];
+        long end = context.endNanos[top];
+        return () -> {
+            HookInvocation worker = current.get();
+            worker.push(invocation, start, end);
+            try {
+                task.run();
+            } finally {
+                worker.exit();
+            }
+        };
+    }
+
+    /**
+     * It wraps the completion of the result of the innermost call of the current thread, so that it runs with the call bound
+     * on the thread which completes the result. If the target method is measured, its elapsed time runs until the completion.
+     * @param action the completion
+     * @param <T> the type of the result
+     * @return the wrapped completion, or the completion itself if no call is bound
+     */
+    static <T> BiConsumer<T, Throwable> wrapCompletion(BiConsumer<T, Throwable> action) {
+        HookInvocation context = current.get();
+        if (context.depth == 0) {
+            return action;
+        }
+
+        int top = context.depth - 1;
+        Object invocation = context.invocations[top];
+        long start = context.startNanos[top];
+        return (value, error) -> {
+            HookInvocation worker = current.get();
+            worker.push(invocation, start, start != UNTIMED ? System.nanoTime() : UNTIMED);
+            try {
+                action.accept(value, error);
+            } finally {
+                worker.exit();
+            }
+        };
+    }
+}
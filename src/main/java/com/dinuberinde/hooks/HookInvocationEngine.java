@@ -0,0 +1,23 @@
+package com.dinuberinde.hooks;
+
+import java.lang.reflect.Method;
+
+/**
+ * Engine which binds hook methods to {@link HookInvoker}s. A hook method is bound once,
+ * when the hooks of a target method are resolved, and the invoker is used on every call of the hook.
+ * <br>
+ * <p>
+ * The default engine is the {@link GeneratedHookInvocationEngine}, which uses the dispatchers generated at compile time
+ * and the {@link LambdaHookInvocationEngine} for the other hook methods. A different engine can be used
+ * by declaring a Spring bean of this type.
+ * </p>
+ */
+public interface HookInvocationEngine {
+
+    /**
+     * It binds a hook method.
+     * @param hookMethod the hook method, either parameterless or with a single parameter
+     * @return the invoker of the hook method
+     */
+    HookInvoker bind(Method hookMethod);
+}
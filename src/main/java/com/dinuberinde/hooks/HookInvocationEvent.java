@@ -0,0 +1,73 @@
+package com.dinuberinde.hooks;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event of an invocation of a hook method. The duration of the event is the duration
+ * of the invocation, so the event can be thresholded through the {@code threshold} setting of a recording.
+ */
+@Name("com.dinuberinde.hooks.HookInvocation")
+@Label("Hook Invocation")
+@Description("Invocation of a hook method")
+@Category("Spring Hooks")
+@StackTrace(false)
+final class HookInvocationEvent extends jdk.jfr.Event {
+
+    /**
+     * The type of the event, looked up once: it tells whether a running recording enables the event.
+     */
+    private static final EventType eventType = EventType.getEventType(HookInvocationEvent.class);
+
+    @Label("Type")
+    String type;
+
+    @Label("Defining Class")
+    String definingClass;
+
+    @Label("Method")
+    String method;
+
+    @Label("Tag")
+    String tag;
+
+    @Label("Outcome")
+    @Description("success or error")
+    String outcome;
+
+    /**
+     * It begins the event of an invocation, if a running recording enables it.
+     * @return the event, or null if the event is disabled, so that the invocations do not allocate it when recording is off
+     */
+    static HookInvocationEvent start() {
+        if (!eventType.isEnabled()) {
+            return null;
+        }
+
+        HookInvocationEvent event = new HookInvocationEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * It ends the event and commits it if it is enabled and above the threshold, filling in its fields only then,
+     * so that the invocation pays no more than the timestamps when the event is below the threshold.
+     * @param hook the invoked hook
+     * @param error true if the hook method threw an exception
+     */
+    void record(ResolvedHook hook, boolean error) {
+        end();
+        if (shouldCommit()) {
+            type = hook.hookName;
+            definingClass = hook.definingClass.getName();
+            method = hook.methodName;
+            tag = hook.tag;
+            outcome = error ? "error" : "success";
+            commit();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.dinuberinde.hooks;
+
+/**
+ * A hook method bound by a {@link HookInvocationEngine}.
+ * A hook method has at most one parameter, so the invoker receives the
+ * object instance of the hook and the argument of the hook method, which is ignored
+ * for parameterless hook methods.
+ */
+@FunctionalInterface
+public interface HookInvoker {
+
+    /**
+     * It invokes the hook method.
+     * @param instance the object instance of the hook
+     * @param argument the argument of the hook method, ignored if the hook method is parameterless
+     * @return the result of the hook method or null if the hook method returns void
+     * @throws Throwable the exception thrown by the hook method
+     */
+    Object invoke(Object instance, Object argument) throws Throwable;
+}
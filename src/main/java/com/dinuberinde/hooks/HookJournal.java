@@ -0,0 +1,523 @@
+package com.dinuberinde.hooks;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.ResolvableType;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.io.*;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Durable outbox of the calls of a hook method: the {@link Hook}s are serialized into an append-only journal
+ * on the local disk and a consumer thread delivers them to the hook method, in order and at least once.
+ * <br>
+ * <p>
+ * The journal is made of memory-mapped segment files of a fixed size, named after the offset of their first record.
+ * A record is the length and the CRC32 of its payload, followed by the payload, so that a record torn by a crash is
+ * detected and overwritten when the journal is reopened. Appending a record copies it into the mapped segment,
+ * which survives a crash of the JVM; the segments are flushed to the disk periodically by {@link #sync()}, or on every
+ * append if the sync interval is 0. The offset of the next record to deliver is checkpointed in a mapped file as well,
+ * and the segments whose records have all been delivered are deleted.
+ * </p>
+ * <p>
+ * A delivery which fails is retried with an exponential backoff, so that the records are never skipped;
+ * only the records which cannot be read back are dropped.
+ * </p>
+ * <p>
+ * The records are read back through an {@link ObjectInputFilter} which accepts only the basic types of
+ * {@code java.lang}, {@code java.time} and {@code java.math}, the common collections of {@code java.util} and the types allowed
+ * by {@link #allow(ResolvableType)}: the data out types of the hook, with the types of their fields, and the exceptions.
+ * </p>
+ * <p>
+ * A record carries the tag, the data out and the exception of the hook only: the target method, its arguments,
+ * its target and its elapsed time are not persisted, so a delivered {@link Hook} reports them as not available.
+ * </p>
+ */
+final class HookJournal implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(HookJournal.class);
+    private static final String SEGMENT_SUFFIX = ".segment";
+    private static final String CHECKPOINT = "checkpoint";
+    private static final String LOCK = "lock";
+
+    /**
+     * The length and the CRC32 of the payload of a record.
+     */
+    private static final int HEADER = 8;
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long MAX_RETRY_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    /**
+     * The packages whose classes are allowed in any record.
+     */
+    private static final Set<String> BASIC_PACKAGES = Set.of("java.lang", "java.time", "java.math");
+
+    /**
+     * The collections and the value types of {@code java.util} allowed in any record, with the serial form
+     * of the immutable collections and the wrappers of {@link java.util.Collections} and {@link java.util.Arrays}.
+     */
+    private static final Set<String> BASIC_TYPES = Set.of(
+            "java.util.ArrayList", "java.util.LinkedList", "java.util.ArrayDeque",
+            "java.util.HashMap", "java.util.LinkedHashMap", "java.util.TreeMap", "java.util.EnumMap",
+            "java.util.HashSet", "java.util.LinkedHashSet", "java.util.TreeSet",
+            "java.util.Date", "java.util.UUID", "java.util.Locale", "java.util.Currency",
+            "java.util.CollSer", "java.util.Arrays$ArrayList",
+            "java.util.Collections$EmptyList", "java.util.Collections$EmptySet", "java.util.Collections$EmptyMap",
+            "java.util.Collections$SingletonList", "java.util.Collections$SingletonSet", "java.util.Collections$SingletonMap",
+            "java.util.Collections$UnmodifiableCollection", "java.util.Collections$UnmodifiableList",
+            "java.util.Collections$UnmodifiableRandomAccessList", "java.util.Collections$UnmodifiableSet",
+            "java.util.Collections$UnmodifiableSortedSet", "java.util.Collections$UnmodifiableMap",
+            "java.util.Collections$UnmodifiableSortedMap");
+
+    /**
+     * The maximum depth of the object graph of a record.
+     */
+    private static final int MAX_DEPTH = 64;
+
+    /**
+     * The delivery of a record to the hook method.
+     */
+    @FunctionalInterface
+    interface Delivery {
+        void deliver(Hook hook) throws Exception;
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean syncOnAppend;
+    private final ClassLoader classLoader;
+
+    /**
+     * The delivery of the records, replaced once the hook of a recovered journal is resolved.
+     */
+    private volatile Delivery delivery;
+
+    /**
+     * The types allowed in the records besides the basic ones, with their subclasses.
+     */
+    private final Set<Class<?>> allowedTypes = ConcurrentHashMap.newKeySet();
+
+    /**
+     * True once the types of the records have been allowed. Until then, a record rejected by the filter is retried
+     * instead of being dropped, since the hook of a recovered journal is resolved after the journal is opened.
+     */
+    private volatile boolean typed;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+    private final MappedByteBuffer checkpoint;
+    private final Thread consumer;
+
+    /**
+     * The segments by offset of their first record, guarded by this journal.
+     */
+    private final TreeMap<Long, MappedByteBuffer> segments = new TreeMap<>();
+
+    /**
+     * The offset of the first record of the segment being written, guarded by this journal.
+     */
+    private long headBase;
+
+    /**
+     * True if records were appended since the last {@link #sync()}, guarded by this journal.
+     */
+    private boolean dirty;
+
+    /**
+     * The offset of the next record to append. It is written after the record, so that the consumer reads the records before it.
+     */
+    private volatile long writeOffset;
+
+    /**
+     * The offset of the next record to deliver, accessed by the consumer thread only.
+     */
+    private long readOffset;
+
+    private volatile boolean closed;
+
+    /**
+     * Opens a journal, recovering the records appended before a restart, and starts its consumer.
+     * @param directory the directory of the segments and of the checkpoint of the journal
+     * @param segmentSize the size in bytes of a segment, which bounds the size of a record
+     * @param syncIntervalMillis the interval in milliseconds between the flushes to the disk, 0 to flush on every append
+     * @param classLoader the class loader of the data carried by the records
+     * @param delivery the delivery of a record to the hook method
+     * @throws IOException if the journal cannot be opened or if it is already open
+     */
+    HookJournal(Path directory, int segmentSize, long syncIntervalMillis, ClassLoader classLoader, Delivery delivery) throws IOException {
+        if (segmentSize <= HEADER) {
+            throw new IllegalArgumentException("The segment size of the outbox must be larger than " + HEADER + " bytes");
+        }
+
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.syncOnAppend = syncIntervalMillis <= 0;
+        this.classLoader = classLoader;
+        this.delivery = delivery;
+
+        Files.createDirectories(directory);
+        this.lockChannel = FileChannel.open(directory.resolve(LOCK), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            this.lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lockChannel.close();
+            throw new IOException("The outbox " + directory + " is already open");
+        }
+
+        if (lock == null) {
+            lockChannel.close();
+            throw new IOException("The outbox " + directory + " is open in another process");
+        }
+
+        try (FileChannel channel = FileChannel.open(directory.resolve(CHECKPOINT), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            this.checkpoint = channel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+        }
+
+        recover();
+        this.consumer = new Thread(this::consume, "spring-hooks-outbox-" + directory.getFileName());
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    /**
+     * It appends a hook to the journal. The hook is delivered to the hook method later, by the consumer thread.
+     * @param hook the hook
+     * @throws IOException if the data or the exception of the hook cannot be serialized
+     */
+    void append(Hook hook) throws IOException {
+        byte[] payload = serialize(hook);
+        if (HEADER + payload.length > segmentSize) {
+            throw new IOException("The hook of " + directory.getFileName() + " takes " + payload.length + " bytes, more than a segment of the outbox");
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        synchronized (this) {
+            if (closed) {
+                throw new IOException("The outbox " + directory + " is closed");
+            }
+
+            int position = (int) (writeOffset - headBase);
+            if (position + HEADER + payload.length > segments.get(headBase).capacity()) {
+                // the rest of the segment stays unused: its last record ends where the next segment starts
+                segments.get(headBase).force();
+                headBase = writeOffset;
+                segments.put(headBase, mapSegment(headBase));
+                position = 0;
+            }
+
+            ByteBuffer segment = segments.get(headBase).duplicate();
+            segment.position(position);
+            segment.putInt(payload.length);
+            segment.putInt((int) crc.getValue());
+            segment.put(payload);
+            writeOffset += HEADER + payload.length;
+            dirty = true;
+
+            if (syncOnAppend) {
+                sync();
+            }
+        }
+
+        LockSupport.unpark(consumer);
+    }
+
+    /**
+     * It allows a type, its generics and the types of its fields in the records read back.
+     * The subclasses of a type are allowed as well, unless it is a JDK type other than {@link Throwable}.
+     * @param type the type
+     */
+    void allow(ResolvableType type) {
+        collectAllowedTypes(type);
+        typed = true;
+    }
+
+    private void collectAllowedTypes(ResolvableType type) {
+        if (type.isArray()) {
+            collectAllowedTypes(type.getComponentType());
+            return;
+        }
+
+        Class<?> resolved = type.resolve();
+        if (resolved != null && !resolved.isPrimitive() && allowedTypes.add(resolved) && !resolved.getName().startsWith("java.")) {
+            ReflectionUtils.doWithFields(resolved, field -> collectAllowedTypes(ResolvableType.forField(field, type)),
+                    field -> !Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers()));
+        }
+
+        for (ResolvableType generic : type.getGenerics()) {
+            collectAllowedTypes(generic);
+        }
+    }
+
+    /**
+     * It replaces the delivery of the records, for the records not delivered yet.
+     * @param delivery the delivery of a record to the hook method
+     */
+    void deliverTo(Delivery delivery) {
+        this.delivery = delivery;
+    }
+
+    /**
+     * It flushes the segment being written and the checkpoint to the disk, if records were appended since the last flush.
+     */
+    synchronized void sync() {
+        if (dirty && !segments.isEmpty()) {
+            segments.get(headBase).force();
+            checkpoint.force();
+            dirty = false;
+        }
+    }
+
+    /**
+     * Stops the consumer, waiting for the delivery in progress if any, and flushes the journal to the disk.
+     * The records not delivered yet are delivered when the journal is reopened.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (this) {
+            dirty = true;
+            sync();
+        }
+
+        lock.release();
+        lockChannel.close();
+    }
+
+    /**
+     * It maps the existing segments, deleting the ones already delivered, and finds the end of the last record
+     * of the last segment, validating the records by their checksum.
+     */
+    private void recover() throws IOException {
+        readOffset = checkpoint.getLong(0);
+
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().collect(Collectors.toList());
+        }
+
+        for (int i = 0; i < files.size(); i++) {
+            String name = files.get(i).getFileName().toString();
+            long base = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+            boolean delivered = i + 1 < files.size() && nextBase(files.get(i + 1)) <= readOffset;
+            if (delivered) {
+                Files.delete(files.get(i));
+            } else {
+                segments.put(base, mapSegment(base));
+            }
+        }
+
+        if (segments.isEmpty()) {
+            headBase = readOffset;
+            segments.put(headBase, mapSegment(headBase));
+            writeOffset = headBase;
+            return;
+        }
+
+        headBase = segments.lastKey();
+        readOffset = Math.max(readOffset, segments.firstKey());
+        ByteBuffer head = segments.get(headBase);
+        int position = 0;
+        while (position + HEADER <= head.capacity()) {
+            int length = head.getInt(position);
+            if (length <= 0 || position + HEADER + length > head.capacity()) {
+                break;
+            }
+
+            ByteBuffer payload = head.duplicate();
+            payload.position(position + HEADER).limit(position + HEADER + length);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != head.getInt(position + 4)) {
+                break;
+            }
+
+            position += HEADER + length;
+        }
+
+        writeOffset = headBase + position;
+        // the checkpoint may have reached the disk before the last records, if the machine crashed
+        readOffset = Math.min(readOffset, writeOffset);
+    }
+
+    private static long nextBase(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private MappedByteBuffer mapSegment(long base) throws IOException {
+        Path file = directory.resolve(String.format("%020d", base) + SEGMENT_SUFFIX);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = Math.max(channel.size(), segmentSize);
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    /**
+     * The loop of the consumer thread, which delivers the records in order until the journal is closed.
+     */
+    private void consume() {
+        long retryNanos = 0;
+        while (!closed) {
+            if (readOffset >= writeOffset) {
+                LockSupport.parkNanos(this, IDLE_NANOS);
+                continue;
+            }
+
+            ByteBuffer segment;
+            long base;
+            synchronized (this) {
+                base = segments.floorKey(readOffset);
+                segment = segments.get(base).duplicate();
+            }
+
+            int position = (int) (readOffset - base);
+            int length = segment.getInt(position);
+            long next = readOffset + HEADER + length;
+            Hook hook;
+            try {
+                byte[] payload = new byte[length];
+                segment.position(position + HEADER);
+                segment.get(payload);
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if ((int) crc.getValue() != segment.getInt(position + 4)) {
+                    throw new IOException("checksum mismatch");
+                }
+
+                hook = deserialize(payload);
+            } catch (InvalidClassException e) {
+                if (!typed) {
+                    retryNanos = retryNanos == 0 ? TimeUnit.MILLISECONDS.toNanos(100) : Math.min(retryNanos * 2, MAX_RETRY_NANOS);
+                    logger.warn("[OUTBOX] the record at offset " + readOffset + " of " + directory + " waits for the resolution of its hook, retrying in " + TimeUnit.NANOSECONDS.toMillis(retryNanos) + " ms", e);
+                    LockSupport.parkNanos(this, retryNanos);
+                    continue;
+                }
+
+                logger.error("[OUTBOX] dropping the record of a type not allowed at offset " + readOffset + " of " + directory, e);
+                advance(next);
+                continue;
+            } catch (Exception e) {
+                logger.error("[OUTBOX] dropping the unreadable record at offset " + readOffset + " of " + directory, e);
+                advance(next);
+                continue;
+            }
+
+            try {
+                delivery.deliver(hook);
+                retryNanos = 0;
+                advance(next);
+            } catch (Exception e) {
+                retryNanos = retryNanos == 0 ? TimeUnit.MILLISECONDS.toNanos(100) : Math.min(retryNanos * 2, MAX_RETRY_NANOS);
+                logger.error("[OUTBOX] delivery of the record at offset " + readOffset + " of " + directory + " failed, retrying in " + TimeUnit.NANOSECONDS.toMillis(retryNanos) + " ms", e);
+                LockSupport.parkNanos(this, retryNanos);
+            }
+        }
+    }
+
+    /**
+     * It checkpoints the offset of the next record to deliver and deletes the segments whose records have all been delivered.
+     * @param next the offset of the next record to deliver
+     */
+    private void advance(long next) {
+        readOffset = next;
+        checkpoint.putLong(0, next);
+
+        synchronized (this) {
+            dirty = true;
+            while (segments.size() > 1 && segments.higherKey(segments.firstKey()) <= readOffset) {
+                long base = segments.pollFirstEntry().getKey();
+                try {
+                    Files.deleteIfExists(directory.resolve(String.format("%020d", base) + SEGMENT_SUFFIX));
+                } catch (IOException e) {
+                    logger.warn("[OUTBOX] cannot delete the delivered segment " + base + " of " + directory, e);
+                }
+            }
+        }
+    }
+
+    private static byte[] serialize(Hook hook) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(hook.getTag());
+            output.writeObject(hook.getDataOut());
+            output.writeObject(hook.getException());
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private Hook deserialize(byte[] payload) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(payload)) {
+
+            @Override
+            protected Class<?> resolveClass(ObjectStreamClass descriptor) throws ClassNotFoundException, IOException {
+                try {
+                    return ClassUtils.forName(descriptor.getName(), classLoader);
+                } catch (ClassNotFoundException e) {
+                    return super.resolveClass(descriptor);
+                }
+            }
+        }) {
+            input.setObjectInputFilter(this::checkInput);
+            return new Hook((String) input.readObject(), input.readObject(), (Exception) input.readObject());
+        }
+    }
+
+    private ObjectInputFilter.Status checkInput(ObjectInputFilter.FilterInfo info) {
+        if (info.depth() > MAX_DEPTH || info.arrayLength() > segmentSize) {
+            return ObjectInputFilter.Status.REJECTED;
+        }
+
+        Class<?> type = info.serialClass();
+        if (type == null) {
+            return ObjectInputFilter.Status.ALLOWED;
+        }
+
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+
+        return type.isPrimitive() || isAllowed(type) ? ObjectInputFilter.Status.ALLOWED : ObjectInputFilter.Status.REJECTED;
+    }
+
+    private boolean isAllowed(Class<?> type) {
+        if (BASIC_PACKAGES.contains(type.getPackageName()) || BASIC_TYPES.contains(type.getName())) {
+            return true;
+        }
+
+        for (Class<?> allowed : allowedTypes) {
+            // the JDK types include Object and the common interfaces, so that their subclasses are not allowed
+            if (allowed == type || allowed.isAssignableFrom(type) && (allowed == Throwable.class || !allowed.getName().startsWith("java."))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,16 @@
+package com.dinuberinde.hooks;
+
+/**
+ * A listener of the hooks of a tag, registered at runtime in the {@link HookRegistry}.
+ * It is notified on the thread which calls the hook, before the hook method is invoked.
+ */
+@FunctionalInterface
+public interface HookListener {
+
+    /**
+     * It receives a call of a hook.
+     * @param type the type of the hook: pre, post, exception, dataIn or dataOut
+     * @param hook the hook, with the tag and the data out or the exception if any
+     */
+    void onHook(String type, Hook hook);
+}
@@ -0,0 +1,165 @@
+package com.dinuberinde.hooks;
+
+import org.springframework.util.ClassUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The memoized results of the hooks of the advised calls of a thread. The context is opened by the outermost
+ * advised call with memoized hooks and cleared when it returns, so that the nested advised calls reuse the results.
+ * The context of a thread is created once and reused by its outermost calls, and the results of a web request
+ * are kept in a request attribute instead. A result is memoized as a future claimed by the first call of the hook method,
+ * so that the concurrent calls of the same hook wait for it instead of calling the hook method again.
+ */
+final class HookMemo {
+    private static final boolean webPresent = ClassUtils.isPresent("org.springframework.web.context.request.RequestContextHolder", HookMemo.class.getClassLoader());
+    private static final ThreadLocal<HookMemo> current = ThreadLocal.withInitial(HookMemo::new);
+
+    /**
+     * The results, keyed by {@link ResolvedHook#memoKey}. The hooks of a fan out may memoize from other threads.
+     */
+    private final Map<String, CompletableFuture<Object>> results = new ConcurrentHashMap<>();
+
+    /**
+     * The number of nested advised calls with memoized hooks in progress on the thread.
+     */
+    private int depth;
+
+    private HookMemo() {}
+
+    /**
+     * It opens the context of the current thread or nests a call in it.
+     * @return the context, to be exited when the advised call returns
+     */
+    static HookMemo enter() {
+        HookMemo memo = current.get();
+        memo.depth++;
+        return memo;
+    }
+
+    /**
+     * It exits an advised call, clearing the results when the outermost call returns.
+     */
+    void exit() {
+        if (--depth == 0) {
+            results.clear();
+        }
+    }
+
+    /**
+     * It returns the memoized results of the current thread for a memoization scope. They must be looked up
+     * on the thread of the advised call, before the hooks run on other threads.
+     * @param memoization the memoization scope
+     * @return the results or null if the results are not memoized or no context is open
+     */
+    static Map<String, CompletableFuture<Object>> results(HookMemoization memoization) {
+        if (memoization == HookMemoization.NONE) {
+            return null;
+        }
+
+        if (memoization == HookMemoization.REQUEST && webPresent) {
+            Map<String, CompletableFuture<Object>> results = RequestResults.get();
+            if (results != null) {
+                return results;
+            }
+        }
+
+        HookMemo memo = current.get();
+        return memo.depth > 0 ? memo.results : null;
+    }
+
+    /**
+     * The call of a hook method whose result is memoized.
+     * @param <E> the checked exception of the call
+     */
+    @FunctionalInterface
+    interface MemoizedCall<E extends Exception> {
+        Object call() throws E;
+    }
+
+    /**
+     * It returns the memoized result of a hook method, calling the hook method if its result is not memoized yet.
+     * The calls of the same hook from other threads wait for the first call and share its result or its failure,
+     * so that the hook method is called at most once per scope. A failed call is not memoized, so that a later call retries it.
+     * @param results the memoized results
+     * @param hook the hook
+     * @param call the call of the hook method
+     * @param <E> the checked exception of the call
+     * @return the result of the hook method, possibly null
+     * @throws E if the call of the hook method failed
+     */
+    @SuppressWarnings("unchecked")
+    static <E extends Exception> Object memoize(Map<String, CompletableFuture<Object>> results, ResolvedHook hook, MemoizedCall<E> call) throws E {
+        CompletableFuture<Object> result = results.get(hook.memoKey);
+        if (result == null) {
+            PendingResult pending = new PendingResult();
+            result = results.putIfAbsent(hook.memoKey, pending);
+            if (result == null) {
+                return complete(results, hook, pending, call);
+            }
+        }
+
+        if (result instanceof PendingResult && ((PendingResult) result).caller == Thread.currentThread() && !result.isDone()) {
+            // the hook method calls itself through a nested advised call, which would wait for itself
+            return call.call();
+        }
+
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+
+            // the failure comes from the same call, so it is either unchecked or an E
+            throw (E) e.getCause();
+        }
+    }
+
+    private static <E extends Exception> Object complete(Map<String, CompletableFuture<Object>> results, ResolvedHook hook, PendingResult pending, MemoizedCall<E> call) throws E {
+        try {
+            Object result = call.call();
+            pending.complete(result);
+            return result;
+        } catch (Exception | Error e) {
+            results.remove(hook.memoKey, pending);
+            pending.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * The result of a hook method claimed by the thread which calls it.
+     */
+    private static final class PendingResult extends CompletableFuture<Object> {
+        private final Thread caller = Thread.currentThread();
+    }
+
+    /**
+     * The results of the current web request, in a separate class so that it is loaded only if Spring Web is present.
+     */
+    private static final class RequestResults {
+        private static final String ATTRIBUTE = HookMemo.class.getName();
+
+        @SuppressWarnings("unchecked")
+        static Map<String, CompletableFuture<Object>> get() {
+            RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+            if (attributes == null) {
+                return null;
+            }
+
+            Object results = attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (results == null) {
+                results = new ConcurrentHashMap<String, CompletableFuture<Object>>();
+                attributes.setAttribute(ATTRIBUTE, results, RequestAttributes.SCOPE_REQUEST);
+            }
+
+            return (Map<String, CompletableFuture<Object>>) results;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.dinuberinde.hooks;
+
+/**
+ * The scope in which the result of a {@link PreHook} or {@link DataInHook} hook method is memoized, so that
+ * the nested advised calls with the same hook class, hook method and tag reuse it instead of calling the hook method again.
+ * <br>
+ *<p>Example:</p>
+ *<pre class="code">
+ *&#064;PreHook(definingClass = JWTHook.class, method = "secure", memoize = HookMemoization.REQUEST)
+ *&#064;GetMapping(value = "orders")
+ *public List&lt;Order&gt; orders() {
+ *  return orderService.orders(); // its own &#064;PreHook of JWTHook.secure does not run again
+ *}
+ *</pre>
+ *
+ * <p>
+ * The results are memoized only for the calls of the hook method which return, not for the failed or skipped ones,
+ * nor for the hook methods of a data in hook which return a {@code Mono}. The nested calls on other threads
+ * do not share the results of the outermost call, unless they belong to the same web request.
+ * </p>
+ */
+public enum HookMemoization {
+
+    /**
+     * The hook method is called on every invocation of the target method.
+     */
+    NONE,
+
+    /**
+     * The result is reused until the outermost advised call with memoized hooks of the thread returns.
+     */
+    INVOCATION,
+
+    /**
+     * The result is reused until the current web request completes, or as for {@link #INVOCATION} outside of a web request.
+     */
+    REQUEST
+}
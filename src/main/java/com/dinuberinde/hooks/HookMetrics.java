@@ -0,0 +1,74 @@
+package com.dinuberinde.hooks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Registry of the {@link HookStats} of the hook methods and of the caches of the {@link DataInHook} hooks.
+ * The statistics of a hook are looked up once, when the hook is resolved, so that recording an invocation
+ * does not access the registry.
+ * <br>
+ * <p>Example:</p>
+ *<pre class="code">
+ *&#064;Autowired
+ *private HookMetrics hookMetrics;
+ *
+ *public void logSlowHooks() {
+ *  hookMetrics.snapshot().stream()
+ *      .filter(stats -&gt; stats.getP99Nanos() &gt; 1_000_000)
+ *      .forEach(stats -&gt; System.out.println(stats.getDefiningClass() + "#" + stats.getMethod()));
+ *}
+ *</pre>
+ */
+public class HookMetrics {
+    private final Map<String, HookStats> stats = new ConcurrentHashMap<>();
+    private final List<DataInCache> caches = new CopyOnWriteArrayList<>();
+
+    /**
+     * It returns the statistics of a hook method, creating them if missing.
+     * @param definingClass the defining class of the hook
+     * @param method the method name of the hook
+     * @param tag the tag of the hook
+     * @return the statistics of the hook method
+     */
+    HookStats stats(Class<?> definingClass, String method, String tag) {
+        return stats.computeIfAbsent(definingClass.getName() + "#" + method + "#" + tag, k -> new HookStats(definingClass.getName(), method, tag));
+    }
+
+    /**
+     * It returns a snapshot of the statistics of all the hook methods invoked so far.
+     * @return the snapshots of the statistics, one for each defining class, method name and tag
+     */
+    public List<HookStats.Snapshot> snapshot() {
+        List<HookStats.Snapshot> snapshots = new ArrayList<>(stats.size());
+        for (HookStats hookStats : stats.values()) {
+            snapshots.add(hookStats.snapshot());
+        }
+
+        return snapshots;
+    }
+
+    /**
+     * It registers the cache of a data in hook.
+     * @param cache the cache
+     */
+    void register(DataInCache cache) {
+        caches.add(cache);
+    }
+
+    /**
+     * It returns a snapshot of the statistics of the caches of the data in hooks.
+     * @return the snapshots of the statistics, one for each cached target method
+     */
+    public List<CacheStats> cacheSnapshot() {
+        List<CacheStats> snapshots = new ArrayList<>(caches.size());
+        for (DataInCache cache : caches) {
+            snapshots.add(cache.stats());
+        }
+
+        return snapshots;
+    }
+}
@@ -0,0 +1,31 @@
+package com.dinuberinde.hooks;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST endpoint exposing the {@link HookMetrics}. It is registered when Spring Web is on the classpath
+ * and the {@code spring.hooks.metrics.endpoint.enabled} property is {@code true}.
+ * The path defaults to {@code /hooks/metrics} and can be changed through the {@code spring.hooks.metrics.endpoint.path} property.
+ * The statistics of the caches of the {@link DataInHook} hooks are exposed under the {@code /caches} sub path.
+ */
+@RestController
+public class HookMetricsEndpoint {
+    private final HookMetrics metrics;
+
+    public HookMetricsEndpoint(HookMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @GetMapping(value = "${spring.hooks.metrics.endpoint.path:/hooks/metrics}", produces = "application/json")
+    public List<HookStats.Snapshot> metrics() {
+        return metrics.snapshot();
+    }
+
+    @GetMapping(value = "${spring.hooks.metrics.endpoint.path:/hooks/metrics}/caches", produces = "application/json")
+    public List<CacheStats> caches() {
+        return metrics.cacheSnapshot();
+    }
+}
@@ -0,0 +1,224 @@
+package com.dinuberinde.hooks;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * The hooks of an advised target method. A plan is resolved once on the first invocation
+ * of the target method, so that the invocation path does not need to look up hook methods and instances.
+ */
+final class HookPlan {
+    private static final ResolvedHook[] NO_HOOKS = new ResolvedHook[0];
+
+    /**
+     * The hooks of the {@link PreHook} annotation.
+     */
+    final ResolvedHook[] preHooks;
+
+    /**
+     * The parallel execution of the {@link PreHook} hooks or null if they run sequentially.
+     */
+    final HookFanOut preFanOut;
+
+    /**
+     * The scope in which the results of the {@link PreHook} hooks are memoized.
+     */
+    final HookMemoization preHooksMemoization;
+
+    /**
+     * The hooks of the {@link PostHook} annotation.
+     */
+    final ResolvedHook[] postHooks;
+
+    /**
+     * The executor of the {@link PostHook} hooks if they are all asynchronous on the same executor, null otherwise.
+     */
+    final Executor postHooksExecutor;
+
+    /**
+     * True if the {@link PostHook} hooks are dispatched one by one, each through the ring buffer of its hook class,
+     * on its executor or on the caller thread, because some of them are dispatched through a ring buffer
+     * or they do not share the same executor.
+     */
+    final boolean postHooksDispatched;
+
+    /**
+     * The parallel execution of the {@link PostHook} hooks or null if they run sequentially or are dispatched one by one.
+     */
+    final HookFanOut postFanOut;
+
+    /**
+     * The hook of the {@link ExceptionHook} annotation or null if the target method is not annotated.
+     */
+    final ResolvedHook exceptionHook;
+
+    /**
+     * The outbox of the {@link ExceptionHook} hook or null if the hook is not durable.
+     */
+    final HookJournal exceptionJournal;
+
+    /**
+     * The hook of the {@link DataInHook} annotation or null if the target method is not annotated.
+     */
+    final ResolvedHook dataInHook;
+
+    /**
+     * The scope in which the results of the {@link DataInHook} hooks are memoized.
+     */
+    final HookMemoization dataInMemoization;
+
+    /**
+     * The cache of the results of the {@link DataInHook} hook or null if they are not cached.
+     */
+    final DataInCache dataInCache;
+
+    /**
+     * The parameters supplied by the data in hooks, in declaration order.
+     */
+    final DataInParameter[] dataInParameters;
+
+    /**
+     * The hook of the {@link DataOutHook} annotation or null if the target method is not annotated.
+     */
+    final ResolvedHook dataOutHook;
+
+    /**
+     * The batcher of the {@link DataOutHook} hook or null if its hook method does not receive the hooks in batches.
+     */
+    final HookBatcher dataOutBatcher;
+
+    /**
+     * The outbox of the {@link DataOutHook} hook or null if the hook is not durable.
+     */
+    final HookJournal dataOutJournal;
+
+    /**
+     * True if the target method returns a publisher, whose post, exception and data out hooks
+     * are attached to its signals by the {@link ReactiveHooksAOP}.
+     */
+    final boolean reactive;
+
+    /**
+     * True if the target method returns a publisher and its {@link DataInHook} hook supplies a {@code Mono},
+     * which is resolved by the {@link ReactiveHooksAOP} before the target method is invoked.
+     */
+    final boolean reactiveDataIn;
+
+    /**
+     * True if the target method returns a {@link java.util.concurrent.CompletionStage}, whose post, exception
+     * and data out hooks are attached to its completion.
+     */
+    final boolean completionStage;
+
+    /**
+     * True if the post, exception and data out hooks do not run when the target method returns,
+     * but when its publisher or its completion stage completes.
+     */
+    final boolean deferred;
+
+    /**
+     * True if the {@link DataOutHook} hook of a target method returning a publisher is called on completion
+     * instead of for each emitted element.
+     */
+    final boolean dataOutOnCompletion;
+
+    /**
+     * True if the results of some hooks are memoized, so that the advised calls must open the context of the {@link HookMemo}.
+     */
+    final boolean memoized;
+
+    /**
+     * True if a hook has a condition, so that the arguments of the target method must be passed to the hook calls.
+     */
+    final boolean conditional;
+
+    HookPlan(ResolvedHook[] preHooks, HookFanOut preFanOut, HookMemoization preHooksMemoization, ResolvedHook[] postHooks, HookFanOut postFanOut, ResolvedHook exceptionHook, HookJournal exceptionJournal, ResolvedHook dataInHook, HookMemoization dataInMemoization, DataInCache dataInCache, DataInParameter[] dataInParameters, ResolvedHook dataOutHook, HookBatcher dataOutBatcher, HookJournal dataOutJournal, boolean reactive, boolean reactiveDataIn, boolean dataOutOnCompletion, boolean completionStage) {
+        this.preHooks = preHooks != null ? preHooks : NO_HOOKS;
+        this.preFanOut = preFanOut;
+        this.preHooksMemoization = preHooksMemoization;
+        this.postHooks = postHooks != null ? postHooks : NO_HOOKS;
+        this.postFanOut = postFanOut;
+        this.postHooksDispatched = !isUniform(this.postHooks);
+        this.postHooksExecutor = this.postHooks.length > 0 && !postHooksDispatched ? this.postHooks[0].executor : null;
+        this.exceptionHook = exceptionHook;
+        this.exceptionJournal = exceptionJournal;
+        this.dataInHook = dataInHook;
+        this.dataInMemoization = dataInMemoization;
+        this.dataInCache = dataInCache;
+        this.dataInParameters = dataInParameters;
+        this.dataOutHook = dataOutHook;
+        this.dataOutBatcher = dataOutBatcher;
+        this.dataOutJournal = dataOutJournal;
+        this.reactive = reactive;
+        this.reactiveDataIn = reactiveDataIn;
+        this.dataOutOnCompletion = dataOutOnCompletion;
+        this.completionStage = completionStage;
+        this.deferred = reactive || completionStage;
+        this.conditional = hasCondition(this.preHooks) || hasCondition(this.postHooks) || hasCondition(exceptionHook) || hasCondition(dataOutHook)
+                || Arrays.stream(dataInParameters).anyMatch(parameter -> hasCondition(parameter.hook));
+        this.memoized = this.preHooks.length > 0 && preHooksMemoization != HookMemoization.NONE
+                || dataInParameters.length > 0 && dataInMemoization != HookMemoization.NONE && !reactiveDataIn;
+    }
+
+    /**
+     * It visits the hooks of the plan, including the hooks and the fallbacks of the data in parameters, once each.
+     * @param visitor the visitor of the hooks
+     */
+    void forEachHook(Consumer<ResolvedHook> visitor) {
+        for (ResolvedHook hook : preHooks) {
+            visitor.accept(hook);
+        }
+
+        for (ResolvedHook hook : postHooks) {
+            visitor.accept(hook);
+        }
+
+        if (dataInHook != null) {
+            visitor.accept(dataInHook);
+        }
+
+        for (DataInParameter parameter : dataInParameters) {
+            if (parameter.hook != dataInHook) {
+                visitor.accept(parameter.hook);
+            }
+
+            if (parameter.fallback != null) {
+                visitor.accept(parameter.fallback);
+            }
+        }
+
+        if (exceptionHook != null) {
+            visitor.accept(exceptionHook);
+        }
+
+        if (dataOutHook != null) {
+            visitor.accept(dataOutHook);
+        }
+    }
+
+    /**
+     * It checks if hooks can run together: none is dispatched through a ring buffer and all run on the same executor, if any.
+     * @param hooks the hooks
+     * @return true if the hooks can run together
+     */
+    private static boolean isUniform(ResolvedHook[] hooks) {
+        for (ResolvedHook hook : hooks) {
+            if (hook.ringBuffer != null || hook.executor != hooks[0].executor) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean hasCondition(ResolvedHook... hooks) {
+        for (ResolvedHook hook : hooks) {
+            if (hook != null && hook.condition != null) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
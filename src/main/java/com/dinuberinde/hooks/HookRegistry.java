@@ -0,0 +1,144 @@
+package com.dinuberinde.hooks;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registry of the {@link HookListener}s of the hook tags. A listener subscribes to a tag or to an Ant-style tag pattern
+ * and it is notified of the calls of the hooks whose tag matches, in addition to their hook methods.
+ * Each tag of a resolved hook has its own array of listeners, rebuilt when a listener is registered or unregistered,
+ * so that notifying the listeners of a hook does not look up the registry nor take locks.
+ * <br>
+ * <p>Example:</p>
+ *<pre class="code">
+ *&#064;Autowired
+ *private HookRegistry hookRegistry;
+ *
+ *public HookRegistry.Registration traceUsers() {
+ *  return hookRegistry.register("/users/**", (type, hook) -&gt; System.out.println(type + " " + hook.getTag()));
+ *}
+ *</pre>
+ */
+public class HookRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(HookRegistry.class);
+    private static final HookListener[] NO_LISTENERS = new HookListener[0];
+
+    private final AntPathMatcher matcher = new AntPathMatcher();
+    private final List<Registration> registrations = new ArrayList<>();
+    private final Map<String, TagListeners> tags = new HashMap<>();
+
+    /**
+     * It registers a listener of the hooks whose tag matches a pattern.
+     * @param tagPattern the tag or the Ant-style pattern of the tags, for instance {@code /users/**}
+     * @param listener the listener
+     * @return the registration, which unregisters the listener
+     */
+    public synchronized Registration register(String tagPattern, HookListener listener) {
+        if (tagPattern == null || tagPattern.isEmpty()) {
+            throw new IllegalArgumentException("The tag pattern of a hook listener must not be empty");
+        }
+
+        Registration registration = new Registration(tagPattern, listener);
+        registrations.add(registration);
+        tags.values().forEach(this::update);
+        return registration;
+    }
+
+    /**
+     * It returns the listeners of a tag, created on the first resolution of a hook with the tag.
+     * @param tag the tag
+     * @return the listeners of the tag or null if the tag is empty
+     */
+    synchronized TagListeners listeners(String tag) {
+        if (tag == null || tag.isEmpty()) {
+            return null;
+        }
+
+        return tags.computeIfAbsent(tag, k -> {
+            TagListeners listeners = new TagListeners(k);
+            update(listeners);
+            return listeners;
+        });
+    }
+
+    private synchronized void unregister(Registration registration) {
+        if (registrations.remove(registration)) {
+            tags.values().forEach(this::update);
+        }
+    }
+
+    private void update(TagListeners listeners) {
+        List<HookListener> matching = new ArrayList<>();
+        for (Registration registration : registrations) {
+            if (matcher.match(registration.tagPattern, listeners.tag)) {
+                matching.add(registration.listener);
+            }
+        }
+
+        listeners.listeners = matching.isEmpty() ? NO_LISTENERS : matching.toArray(NO_LISTENERS);
+    }
+
+    /**
+     * The registration of a listener.
+     */
+    public final class Registration {
+        private final String tagPattern;
+        private final HookListener listener;
+
+        private Registration(String tagPattern, HookListener listener) {
+            this.tagPattern = tagPattern;
+            this.listener = listener;
+        }
+
+        public String getTagPattern() {
+            return tagPattern;
+        }
+
+        /**
+         * It unregisters the listener. Calls of the hooks already in progress may still notify it.
+         */
+        public void unregister() {
+            HookRegistry.this.unregister(this);
+        }
+    }
+
+    /**
+     * The listeners of a tag. The array of the listeners is replaced, never modified, on registration changes.
+     */
+    static final class TagListeners {
+        private final String tag;
+        private volatile HookListener[] listeners = NO_LISTENERS;
+
+        private TagListeners(String tag) {
+            this.tag = tag;
+        }
+
+        /**
+         * It notifies the listeners of a call of a hook with this tag. The errors of the listeners are logged.
+         * @param type the type of the hook
+         * @param dataOut the data out of the hook if any
+         * @param exception the exception of the hook if any
+         */
+        void publish(String type, Object dataOut, Exception exception) {
+            HookListener[] current = listeners;
+            if (current.length == 0) {
+                return;
+            }
+
+            Hook hook = new Hook(tag, dataOut, exception);
+            for (HookListener listener : current) {
+                try {
+                    listener.onHook(type, hook);
+                } catch (Exception e) {
+                    logger.error("[HOOK listener error]", e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.dinuberinde.hooks;
+
+/**
+ * Exception of a call of a hook method which did not complete because of the guard of the hook:
+ * its circuit breaker was open, its bulkhead or the executor of the calls with a timeout was full, or the call timed out.
+ * It fails the call of a {@link PreHook}, so that the target method is not called without the check of the hook.
+ * A {@link DataInHook} call falls back to its fallback method if any, otherwise a timed out call fails the call
+ * of the target method as well, while a call rejected by the breaker or the bulkhead leaves its parameter unchanged.
+ * The other hooks are skipped and the invocation of the target method carries on.
+ */
+public final class HookRejectedException extends RuntimeException {
+
+    /**
+     * The reason why a call was rejected.
+     */
+    public enum Reason {
+        CIRCUIT_OPEN,
+        BULKHEAD_FULL,
+        TIMEOUT
+    }
+
+    private final Reason reason;
+
+    HookRejectedException(String message, Reason reason) {
+        super(message, null, false, false);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
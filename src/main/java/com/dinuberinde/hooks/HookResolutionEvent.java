@@ -0,0 +1,32 @@
+package com.dinuberinde.hooks;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event of the resolution of a hook method, when the hook plan of a target method is resolved.
+ */
+@Name("com.dinuberinde.hooks.HookResolution")
+@Label("Hook Resolution")
+@Description("Resolution of a hook method and of the instances of its class")
+@Category("Spring Hooks")
+final class HookResolutionEvent extends jdk.jfr.Event {
+
+    @Label("Type")
+    String type;
+
+    @Label("Defining Class")
+    String definingClass;
+
+    @Label("Method")
+    String method;
+
+    @Label("Tag")
+    String tag;
+
+    @Label("Failure")
+    @Description("The reason why the hook method could not be resolved, null if it was resolved")
+    String failure;
+}
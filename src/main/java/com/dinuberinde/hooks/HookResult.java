@@ -0,0 +1,63 @@
+package com.dinuberinde.hooks;
+
+/**
+ * The result of a {@link PreHook} hook method which can short-circuit the target method. If a pre hook method
+ * returns a short-circuit result, the target method is not invoked and the value of the result is returned in its place.
+ * The data out hook and the post hooks of the target method still run, with the returned value.
+ * <br>
+ *<p>Example:</p>
+ *<pre class="code">
+ *public class CachedPageHook {
+ *  public HookResult&lt;Page&gt; pre(Hook hook) {
+ *      Page page = cache.get(hook.getTag());
+ *      return page != null ? HookResult.shortCircuit(page) : HookResult.proceed();
+ *  }
+ *}
+ *</pre>
+ *
+ * <p>
+ * The value must be assignable to the return type of the target method. When the pre hooks run one after another,
+ * the first short-circuit result stops the remaining pre hooks.
+ * </p>
+ *
+ * @param <T> the type of the value
+ */
+public final class HookResult<T> {
+    private static final HookResult<?> PROCEED = new HookResult<>(false, null);
+
+    private final boolean shortCircuit;
+    private final T value;
+
+    private HookResult(boolean shortCircuit, T value) {
+        this.shortCircuit = shortCircuit;
+        this.value = value;
+    }
+
+    /**
+     * It returns the result which lets the target method proceed.
+     * @param <T> the type of the value
+     * @return the result
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> HookResult<T> proceed() {
+        return (HookResult<T>) PROCEED;
+    }
+
+    /**
+     * It returns the result which bypasses the target method and returns a value in its place.
+     * @param value the value returned in place of the target method
+     * @param <T> the type of the value
+     * @return the result
+     */
+    public static <T> HookResult<T> shortCircuit(T value) {
+        return new HookResult<>(true, value);
+    }
+
+    public boolean isShortCircuit() {
+        return shortCircuit;
+    }
+
+    public T getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,330 @@
+package com.dinuberinde.hooks;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Preallocated ring buffer of the hook calls of a hook class, consumed by a fixed number of threads.
+ * Producers claim a sequence with a compare-and-set on the cursor, fill the slot of the sequence and publish it
+ * by marking the slot as available for the round of the sequence. The consumers claim the published sequences
+ * with a compare-and-set on the work sequence, so that every hook call is handled by a single consumer.
+ * No lock is taken and the slots are reused, so that publishing a hook call does not allocate.
+ * <br>
+ * <p>
+ * The hook calls of a ring buffer are handled in publication order by a single consumer, and concurrently,
+ * without ordering, by more consumers.
+ * </p>
+ */
+final class HookRingBuffer {
+    private static final Logger logger = LoggerFactory.getLogger(HookRingBuffer.class);
+
+    /**
+     * The number of idle iterations spinning before yielding, and yielding before parking.
+     */
+    private static final int SPIN_TRIES = 100;
+
+    /**
+     * The time a consumer or a blocked producer parks at most, with the {@link HookRingBuffers.WaitStrategy#PARK} strategy.
+     */
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    /**
+     * The handler of the hook calls, invoked by the consumers.
+     */
+    @FunctionalInterface
+    interface Handler {
+        Object handle(ResolvedHook hook, Exception exception, Object dataOut) throws Exception;
+    }
+
+    /**
+     * A reusable slot of the ring buffer. Its fields are written by the producer of a sequence before the sequence
+     * is published and cleared by its consumer before the consumer moves past it.
+     */
+    private static final class Slot {
+        private ResolvedHook hook;
+        private Exception exception;
+        private Object dataOut;
+    }
+
+    private final String name;
+    private final Slot[] slots;
+    private final int mask;
+    private final int indexShift;
+
+    /**
+     * The round of the sequence last published in each slot, -1 if none.
+     */
+    private final AtomicIntegerArray available;
+
+    /**
+     * The last sequence claimed by a producer.
+     */
+    private final AtomicLong cursor = new AtomicLong(-1);
+
+    /**
+     * The last sequence claimed by a consumer.
+     */
+    private final AtomicLong workSequence = new AtomicLong(-1);
+
+    /**
+     * The smallest sequence still in use by a consumer, as last computed by a producer.
+     */
+    private volatile long gatingSequence = -1;
+
+    private final Consumer[] consumers;
+    private final Handler handler;
+    private final HookRingBuffers.WaitStrategy waitStrategy;
+    private final AsyncHookExecutor.OverflowPolicy overflowPolicy;
+    private volatile boolean running = true;
+
+    /**
+     * The number of producers between their check of {@link #running} and the publication of their hook call:
+     * the consumers of a closed ring buffer wait for them before stopping, so that their hook calls are not lost.
+     */
+    private final AtomicInteger publishing = new AtomicInteger();
+
+    /**
+     * True once the drain timeout expired, so that the consumers stop without handling the remaining hook calls.
+     */
+    private volatile boolean abandoned;
+
+    /**
+     * Creates and starts a ring buffer.
+     * @param name the name of the ring buffer, used for the names of the consumer threads
+     * @param bufferSize the number of slots, a power of two
+     * @param consumers the number of consumer threads
+     * @param waitStrategy the strategy of the consumers waiting for hook calls and of the producers waiting for free slots
+     * @param overflowPolicy the policy applied when the ring buffer is full
+     * @param handler the handler of the hook calls
+     */
+    HookRingBuffer(String name, int bufferSize, int consumers, HookRingBuffers.WaitStrategy waitStrategy, AsyncHookExecutor.OverflowPolicy overflowPolicy, Handler handler) {
+        this.name = name;
+        this.slots = new Slot[bufferSize];
+        for (int i = 0; i < bufferSize; i++) {
+            slots[i] = new Slot();
+        }
+
+        this.mask = bufferSize - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(bufferSize);
+        this.available = new AtomicIntegerArray(bufferSize);
+        for (int i = 0; i < bufferSize; i++) {
+            available.set(i, -1);
+        }
+
+        this.handler = handler;
+        this.waitStrategy = waitStrategy;
+        this.overflowPolicy = overflowPolicy;
+        this.consumers = new Consumer[consumers];
+        for (int i = 0; i < consumers; i++) {
+            this.consumers[i] = new Consumer();
+            Thread thread = new Thread(this.consumers[i], "spring-hooks-ring-" + name + "-" + (i + 1));
+            thread.setDaemon(true);
+            this.consumers[i].thread = thread;
+            thread.start();
+        }
+    }
+
+    /**
+     * It publishes a hook call to the consumers. If the ring buffer is full, the overflow policy
+     * decides whether the caller waits, the hook call is dropped or it runs on the caller thread.
+     * @param hook the hook
+     * @param exception the exception of the hook if any
+     * @param dataOut the data out of the hook if any
+     */
+    void publish(ResolvedHook hook, Exception exception, Object dataOut) {
+        publishing.incrementAndGet();
+        try {
+            if (!running) {
+                logger.warn("[RING BUFFER hooks] ring buffer " + name + " closed, hook call dropped");
+                return;
+            }
+
+            if (!claimAndPublish(hook, exception, dataOut)) {
+                return;
+            }
+        } finally {
+            publishing.decrementAndGet();
+        }
+
+        if (abandoned) {
+            // the consumers stopped without waiting for this producer
+            logger.warn("[RING BUFFER hooks] drain timeout expired, hook call dropped from ring buffer " + name);
+        }
+    }
+
+    /**
+     * It claims a sequence and publishes the hook call in its slot, applying the overflow policy if the ring buffer is full.
+     * @return true if the hook call was published, false if it was dropped or handled by the caller
+     */
+    private boolean claimAndPublish(ResolvedHook hook, Exception exception, Object dataOut) {
+        long sequence = tryClaim();
+        for (int idle = 0; sequence < 0; idle = Math.min(idle + 1, 2 * SPIN_TRIES)) {
+            switch (overflowPolicy) {
+                case DROP:
+                    logger.warn("[RING BUFFER hooks] ring buffer " + name + " full, hook call dropped");
+                    return false;
+                case CALLER_RUNS:
+                    handle(hook, exception, dataOut);
+                    return false;
+                default:
+                    if (!running) {
+                        logger.warn("[RING BUFFER hooks] ring buffer " + name + " closed, hook call dropped");
+                        return false;
+                    }
+
+                    idle(idle);
+                    sequence = tryClaim();
+            }
+        }
+
+        Slot slot = slots[(int) sequence & mask];
+        slot.hook = hook;
+        slot.exception = exception;
+        slot.dataOut = dataOut;
+        available.lazySet((int) sequence & mask, (int) (sequence >>> indexShift));
+        return true;
+    }
+
+    /**
+     * It claims the next sequence, unless its slot is still in use by a consumer.
+     * @return the claimed sequence or -1 if the ring buffer is full
+     */
+    private long tryClaim() {
+        long current;
+        long next;
+        do {
+            current = cursor.get();
+            next = current + 1;
+            long wrapPoint = next - slots.length;
+            if (wrapPoint > gatingSequence) {
+                long gating = minimumConsumerSequence(current);
+                gatingSequence = gating;
+                if (wrapPoint > gating) {
+                    return -1;
+                }
+            }
+        } while (!cursor.compareAndSet(current, next));
+
+        return next;
+    }
+
+    private long minimumConsumerSequence(long minimum) {
+        for (Consumer consumer : consumers) {
+            minimum = Math.min(minimum, consumer.sequence);
+        }
+
+        return minimum;
+    }
+
+    private boolean isAvailable(long sequence) {
+        return available.get((int) sequence & mask) == (int) (sequence >>> indexShift);
+    }
+
+    private void handle(ResolvedHook hook, Exception exception, Object dataOut) {
+        try {
+            handler.handle(hook, exception, dataOut);
+        } catch (Exception e) {
+            logger.error("[" + hook.hookName.toUpperCase() + " hook error]", e);
+        }
+    }
+
+    private void idle(int idle) {
+        switch (waitStrategy) {
+            case BUSY_SPIN:
+                Thread.onSpinWait();
+                break;
+            case YIELD:
+                if (idle < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+                break;
+            default:
+                if (idle < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                } else if (idle < 2 * SPIN_TRIES) {
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(this, PARK_NANOS);
+                }
+        }
+    }
+
+    /**
+     * It stops accepting new hook calls and waits for the published ones to be handled within the drain timeout.
+     * The hook calls still pending after the timeout are dropped.
+     * @param drainTimeoutMillis the maximum time to wait for the published hook calls
+     */
+    void close(long drainTimeoutMillis) {
+        running = false;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(drainTimeoutMillis);
+        try {
+            for (Consumer consumer : consumers) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining > 0) {
+                    consumer.thread.join(remaining);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        long pending = cursor.get() - minimumConsumerSequence(cursor.get());
+        if (pending > 0) {
+            abandoned = true;
+            logger.warn("[RING BUFFER hooks] drain timeout expired, " + pending + " hook calls dropped from ring buffer " + name);
+        }
+    }
+
+    /**
+     * A consumer thread. Its sequence is the last sequence it moved past, so that the producers do not reuse
+     * the slots it may still read.
+     */
+    private final class Consumer implements Runnable {
+        private volatile long sequence = -1;
+        private Thread thread;
+
+        @Override
+        public void run() {
+            boolean processed = true;
+            long next = -1;
+            int idle = 0;
+            while (!abandoned) {
+                if (processed) {
+                    processed = false;
+                    do {
+                        next = workSequence.get() + 1;
+                        sequence = next - 1;
+                    } while (!workSequence.compareAndSet(next - 1, next));
+                }
+
+                if (isAvailable(next)) {
+                    Slot slot = slots[(int) next & mask];
+                    ResolvedHook hook = slot.hook;
+                    Exception exception = slot.exception;
+                    Object dataOut = slot.dataOut;
+                    slot.hook = null;
+                    slot.exception = null;
+                    slot.dataOut = null;
+                    handle(hook, exception, dataOut);
+                    processed = true;
+                    idle = 0;
+                } else if (!running && publishing.get() == 0 && cursor.get() < next) {
+                    // closed and drained: no producer claimed the sequence, nor is about to
+                    sequence = next;
+                    return;
+                } else {
+                    idle(idle);
+                    idle = Math.min(idle + 1, 2 * SPIN_TRIES);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.dinuberinde.hooks;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dispatcher of the hooks marked as {@code ringBuffer}. Each hook class has its own preallocated,
+ * lock-free ring buffer of hook calls, consumed by a fixed number of threads: publishing a hook call
+ * neither takes a lock nor allocates, unlike queueing it on the {@link AsyncHookExecutor}.
+ * The {@link WaitStrategy} trades the latency of the hook calls for the CPU used by idle consumers.
+ * When a ring buffer is full, the {@link AsyncHookExecutor.OverflowPolicy} decides what happens to a new hook call.
+ * On close, the published hook calls are drained within the drain timeout.
+ * <br>
+ * <p>
+ * A default dispatcher is created if no Spring bean of this type is declared:
+ * </p>
+ *<pre class="code">
+ *&#064;Bean
+ *public HookRingBuffers hookRingBuffers() {
+ *  return new HookRingBuffers(16_384, 2, HookRingBuffers.WaitStrategy.YIELD, AsyncHookExecutor.OverflowPolicy.BLOCK, Duration.ofSeconds(10));
+ *}
+ *</pre>
+ */
+public class HookRingBuffers implements AutoCloseable {
+
+    /**
+     * How the consumers wait for new hook calls, and the producers for free slots with the {@link AsyncHookExecutor.OverflowPolicy#BLOCK} policy.
+     */
+    public enum WaitStrategy {
+
+        /**
+         * Spin on the CPU: the lowest latency, at the cost of a busy core for each consumer.
+         */
+        BUSY_SPIN,
+
+        /**
+         * Spin for a while, then yield the CPU to other threads.
+         */
+        YIELD,
+
+        /**
+         * Spin, then yield, then park for up to 100 microseconds: idle consumers use almost no CPU.
+         */
+        PARK
+    }
+
+    private final int bufferSize;
+    private final int consumers;
+    private final WaitStrategy waitStrategy;
+    private final AsyncHookExecutor.OverflowPolicy overflowPolicy;
+    private final Duration drainTimeout;
+
+    /**
+     * The ring buffers, keyed by hook class.
+     */
+    private final Map<Class<?>, HookRingBuffer> ringBuffers = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a dispatcher with ring buffers of 4096 hook calls, a consumer thread for each hook class,
+     * the {@link WaitStrategy#PARK} strategy, the {@link AsyncHookExecutor.OverflowPolicy#CALLER_RUNS} policy
+     * and a drain timeout of 10 seconds.
+     */
+    public HookRingBuffers() {
+        this(4096, 1, WaitStrategy.PARK, AsyncHookExecutor.OverflowPolicy.CALLER_RUNS, Duration.ofSeconds(10));
+    }
+
+    /**
+     * Creates a dispatcher.
+     * @param bufferSize the number of hook calls of the ring buffer of each hook class, a power of two
+     * @param consumers the number of consumer threads of each hook class
+     * @param waitStrategy the strategy of the threads waiting for hook calls or free slots
+     * @param overflowPolicy the policy applied when a ring buffer is full, other than {@link AsyncHookExecutor.OverflowPolicy#REJECT}
+     * @param drainTimeout the maximum time to wait for the published hook calls on close
+     */
+    public HookRingBuffers(int bufferSize, int consumers, WaitStrategy waitStrategy, AsyncHookExecutor.OverflowPolicy overflowPolicy, Duration drainTimeout) {
+        if (bufferSize < 1 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("The buffer size must be a power of two");
+        }
+
+        if (consumers < 1) {
+            throw new IllegalArgumentException("The number of consumers must be positive");
+        }
+
+        if (overflowPolicy == AsyncHookExecutor.OverflowPolicy.REJECT) {
+            throw new IllegalArgumentException("The ring buffers do not support the REJECT overflow policy");
+        }
+
+        this.bufferSize = bufferSize;
+        this.consumers = consumers;
+        this.waitStrategy = waitStrategy;
+        this.overflowPolicy = overflowPolicy;
+        this.drainTimeout = drainTimeout;
+    }
+
+    /**
+     * It returns the ring buffer of a hook class, creating and starting it on the first request.
+     * @param definingClass the hook class
+     * @param handler the handler of the hook calls
+     * @return the ring buffer of the hook class
+     */
+    HookRingBuffer ringBuffer(Class<?> definingClass, HookRingBuffer.Handler handler) {
+        return ringBuffers.computeIfAbsent(definingClass, type -> new HookRingBuffer(type.getSimpleName(), bufferSize, consumers, waitStrategy, overflowPolicy, handler));
+    }
+
+    /**
+     * It stops accepting new hook calls and waits for the published ones to complete within the drain timeout,
+     * shared by all the ring buffers. The hook calls still pending after the timeout are dropped.
+     */
+    @Override
+    public void close() {
+        long deadline = System.currentTimeMillis() + drainTimeout.toMillis();
+        for (HookRingBuffer ringBuffer : ringBuffers.values()) {
+            ringBuffer.close(Math.max(0, deadline - System.currentTimeMillis()));
+        }
+    }
+}
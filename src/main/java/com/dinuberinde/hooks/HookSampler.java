@@ -0,0 +1,83 @@
+package com.dinuberinde.hooks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The admission of the calls of a hook, which keeps a random sample of the calls and limits them to
+ * a maximum rate. The sample is drawn from the random generator of the current thread and the rate is enforced
+ * by a token bucket holding up to one second of calls, whose state is a single timestamp updated without locks.
+ * A skipped call does not reach the hook: no {@link Hook} is created and no instance is looked up.
+ */
+final class HookSampler {
+    private static final long SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * The share of the calls which are kept.
+     */
+    private final double sampleRate;
+
+    /**
+     * The time in nanoseconds a token takes to refill, 0 if the rate is not limited.
+     */
+    private final long intervalNanos;
+
+    /**
+     * The time when the bucket is full again if no token is taken.
+     */
+    private final AtomicLong fullAt;
+
+    private HookSampler(double sampleRate, int maxPerSecond) {
+        this.sampleRate = sampleRate;
+        this.intervalNanos = maxPerSecond > 0 ? Math.max(1, SECOND_NANOS / maxPerSecond) : 0;
+        this.fullAt = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * It creates the admission of the calls of a hook.
+     * @param target the description of the hook, reported if the arguments are invalid
+     * @param sampleRate the share of the calls which are kept, between 0 and 1
+     * @param maxPerSecond the maximum number of calls per second, 0 for no limit
+     * @return the admission or null if every call is admitted
+     */
+    static HookSampler of(String target, double sampleRate, int maxPerSecond) {
+        if (!(sampleRate >= 0.0 && sampleRate <= 1.0)) {
+            throw new IllegalArgumentException("The sample rate of " + target + " must be between 0 and 1");
+        }
+
+        if (maxPerSecond < 0) {
+            throw new IllegalArgumentException("The maximum calls per second of " + target + " must not be negative");
+        }
+
+        return sampleRate < 1.0 || maxPerSecond > 0 ? new HookSampler(sampleRate, maxPerSecond) : null;
+    }
+
+    /**
+     * It decides if a call of the hook is admitted.
+     * @return true if the call is admitted, false if it is skipped
+     */
+    boolean admit() {
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return false;
+        }
+
+        if (intervalNanos == 0) {
+            return true;
+        }
+
+        long now = System.nanoTime();
+        while (true) {
+            long current = fullAt.get();
+            // taking a token moves the time when the bucket is full again by one interval
+            long next = (current - now < 0 ? now : current) + intervalNanos;
+            if (next - now > SECOND_NANOS) {
+                return false;
+            }
+
+            if (fullAt.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.dinuberinde.hooks;
+
+import java.lang.annotation.*;
+
+/**
+ * Annotation which declares, on a hook class, how the instances its hook methods are invoked on are shared.
+ * By default a single instance of a hook class is shared by all the hooks and all the threads, so a hook class
+ * with mutable state must be thread safe. With {@link Scope#POOLED} or {@link Scope#THREAD_LOCAL}, an instance is used
+ * by one thread at a time, so that a stateful hook, such as a buffered writer, needs no synchronization.
+ * The scope of a hook class can also be set through the {@code spring.hooks.scope.<class name>} property,
+ * which takes precedence over the annotation.
+ * <br>
+ *<p>Example:</p>
+ *<pre class="code">
+ *&#064;HookScope(value = HookScope.Scope.POOLED, poolSize = 4)
+ *public class AuditWriterHook {
+ *  private final StringBuilder buffer = new StringBuilder();
+ *
+ *  public void post(Hook hook) {
+ *      // uses the buffer without synchronization
+ *  }
+ *}
+ *</pre>
+ *
+ * <p>
+ * A hook class declared as a Spring bean follows the scope of the bean: a singleton bean is shared,
+ * a prototype bean is looked up on every call, unless it is pooled or thread local, and a bean of any other scope,
+ * such as a request scoped bean, is looked up on every call in the current scope.
+ * </p>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface HookScope {
+
+    /**
+     * The scope of the instances of the hook class
+     */
+    Scope value() default Scope.SINGLETON;
+
+    /**
+     * The maximum number of instances of a pooled hook class
+     */
+    int poolSize() default 8;
+
+    /**
+     * The maximum time in milliseconds a call waits for an instance of an exhausted pool, after which the call fails
+     */
+    long borrowTimeoutMillis() default 1000;
+
+    /**
+     * The scopes of the instances of a hook class.
+     */
+    enum Scope {
+
+        /**
+         * A single instance is shared by all the hooks of the class and all the threads.
+         */
+        SINGLETON,
+
+        /**
+         * An instance is borrowed from a bounded pool for each call of a hook method and returned afterwards.
+         */
+        POOLED,
+
+        /**
+         * Each thread uses its own instance.
+         */
+        THREAD_LOCAL
+    }
+}
@@ -0,0 +1,151 @@
+package com.dinuberinde.hooks;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Invocation statistics of a hook method, per defining class, method name and tag.
+ * The counters are striped, so that recording an invocation does not take locks
+ * and does not contend between threads. Latencies are recorded in a histogram
+ * with power of two buckets, hence percentiles are approximated by the upper bound of their bucket.
+ */
+public final class HookStats {
+    private static final int BUCKETS = 64;
+
+    private final String definingClass;
+    private final String method;
+    private final String tag;
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+    private final LongAdder[] histogram = new LongAdder[BUCKETS];
+
+    HookStats(String definingClass, String method, String tag) {
+        this.definingClass = definingClass;
+        this.method = method;
+        this.tag = tag;
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * It records an invocation of the hook method.
+     * @param nanos the duration of the invocation in nanoseconds
+     * @param error true if the hook method threw an exception
+     */
+    void record(long nanos, boolean error) {
+        invocations.increment();
+        if (error) {
+            errors.increment();
+        }
+
+        long duration = Math.max(0L, nanos);
+        totalNanos.add(duration);
+        maxNanos.accumulate(duration);
+        histogram[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(duration))].increment();
+    }
+
+    /**
+     * It returns a snapshot of the statistics. The counters are read one by one,
+     * so invocations recorded concurrently may be partially included.
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        long[] buckets = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = histogram[i].sum();
+            count += buckets[i];
+        }
+
+        long total = totalNanos.sum();
+        return new Snapshot(definingClass, method, tag, invocations.sum(), errors.sum(),
+                count > 0 ? total / count : 0L, maxNanos.get(),
+                percentile(buckets, count, 0.5), percentile(buckets, count, 0.9), percentile(buckets, count, 0.99));
+    }
+
+    private static long percentile(long[] buckets, long count, double percentile) {
+        long rank = (long) Math.ceil(count * percentile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets[i];
+            if (seen >= rank && seen > 0) {
+                // upper bound of the bucket
+                return i == 0 ? 0L : (i >= 63 ? Long.MAX_VALUE : (1L << i) - 1);
+            }
+        }
+
+        return 0L;
+    }
+
+    /**
+     * Immutable snapshot of the statistics of a hook method.
+     */
+    public static final class Snapshot {
+        private final String definingClass;
+        private final String method;
+        private final String tag;
+        private final long invocations;
+        private final long errors;
+        private final long meanNanos;
+        private final long maxNanos;
+        private final long p50Nanos;
+        private final long p90Nanos;
+        private final long p99Nanos;
+
+        Snapshot(String definingClass, String method, String tag, long invocations, long errors, long meanNanos, long maxNanos, long p50Nanos, long p90Nanos, long p99Nanos) {
+            this.definingClass = definingClass;
+            this.method = method;
+            this.tag = tag;
+            this.invocations = invocations;
+            this.errors = errors;
+            this.meanNanos = meanNanos;
+            this.maxNanos = maxNanos;
+            this.p50Nanos = p50Nanos;
+            this.p90Nanos = p90Nanos;
+            this.p99Nanos = p99Nanos;
+        }
+
+        public String getDefiningClass() {
+            return definingClass;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+
+        public long getInvocations() {
+            return invocations;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public long getMeanNanos() {
+            return meanNanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        public long getP50Nanos() {
+            return p50Nanos;
+        }
+
+        public long getP90Nanos() {
+            return p90Nanos;
+        }
+
+        public long getP99Nanos() {
+            return p99Nanos;
+        }
+    }
+}
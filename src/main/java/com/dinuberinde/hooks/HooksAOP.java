@@ -1,221 +1,1543 @@
 package com.dinuberinde.hooks;
 
-import org.aspectj.lang.ProceedingJoinPoint;
-import org.aspectj.lang.annotation.*;
+import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.env.Environment;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.ReflectionUtils;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-@Aspect
 @Configuration
-public class HooksAOP {
+public class HooksAOP implements SmartInitializingSingleton, DisposableBean {
 
     @Autowired
     private ApplicationContext context;
 
+    /**
+     * The engine used to bind the hook methods, if declared as a Spring bean.
+     */
+    @Autowired(required = false)
+    private HookInvocationEngine invocationEngine;
+
+    /**
+     * The executor of the asynchronous hooks, if declared as a Spring bean.
+     * Otherwise, a default executor is created on the first resolution of an asynchronous hook.
+     */
+    @Autowired(required = false)
+    private AsyncHookExecutor asyncExecutor;
+
+    /**
+     * True if the executor of the asynchronous hooks was created by this class and must be closed by it.
+     */
+    private boolean ownsAsyncExecutor;
+
+    /**
+     * The ring buffers of the hooks dispatched through ring buffers, if declared as a Spring bean.
+     * Otherwise, a default dispatcher is created on the first resolution of such a hook.
+     */
+    @Autowired(required = false)
+    private HookRingBuffers ringBuffers;
+
+    /**
+     * True if the ring buffers were created by this class and must be closed by it.
+     */
+    private boolean ownsRingBuffers;
+
+    /**
+     * The invocation statistics of the hook methods.
+     */
+    private final HookMetrics metrics = new HookMetrics();
+
+    /**
+     * The listeners of the hook tags registered at runtime.
+     */
+    private final HookRegistry registry = new HookRegistry();
+
+    /**
+     * The executor of the hooks which run in parallel, created on the first resolution of such hooks.
+     * It is read without the lock of this class by the data in hooks supplying several parameters.
+     */
+    private volatile AsyncHookExecutor parallelExecutor;
+
+    /**
+     * The executor of the hook calls guarded by a timeout, created on the first resolution of such a hook.
+     */
+    private AsyncHookExecutor timeoutExecutor;
+
+    /**
+     * The call of a hook of a parallel fan out without conditions, which carries only the tag.
+     */
+    private final HookFanOut.HookCall fanOutHookCall = hook -> {
+        if (hook.admit(null, null, null)) {
+            callHook(hook, null, null);
+        }
+    };
+
+    /**
+     * The batchers of the data out hooks which receive the hooks in batches, keyed by hook method, tag, batch size,
+     * maximum delay and asynchronous mode, so that the target methods share a batcher only if they share its settings.
+     */
+    private final Map<String, HookBatcher> hookBatchers = new ConcurrentHashMap<>();
+
+    /**
+     * The durable outboxes of the data out and exception hooks, keyed by hook type and hook method.
+     */
+    private final Map<String, HookJournal> hookJournals = new ConcurrentHashMap<>();
+
+    /**
+     * The names of the outboxes reopened on startup whose hook was not resolved yet, guarded by this class.
+     * Their records are delivered to a plain hook method until the hook plan of a target method resolves the hook.
+     */
+    private final Set<String> recoveredJournals = new HashSet<>();
+
+    /**
+     * The scheduler which delivers the expired batches, created on the first resolution of a batching hook.
+     */
+    private ScheduledExecutorService batchScheduler;
+
+    /**
+     * The aspect which handles the hooks of the target methods returning a publisher, null if Reactor is not available.
+     */
+    private ReactiveHooksAOP reactiveHooks;
+
     private static final Logger logger = LoggerFactory.getLogger(HooksAOP.class);
     private static final Map<Class<?>, String> annotations = new HashMap<>();
 
     /**
-     * The cache map of the hook classes. Objects get created and recycled.
+     * The return types handled by the {@link ReactiveHooksAOP}, by name since Reactor is optional.
+     */
+    private static final Set<String> reactiveTypes = Set.of("reactor.core.publisher.Mono", "reactor.core.publisher.Flux", "org.reactivestreams.Publisher");
+
+    /**
+     * The engine used to bind the hook methods if no engine was declared: the dispatchers generated at compile time
+     * by the annotation processor, if any, otherwise the {@link LambdaHookInvocationEngine}.
+     */
+    private final GeneratedHookInvocationEngine defaultInvocationEngine = new GeneratedHookInvocationEngine(new LambdaHookInvocationEngine());
+
+    /**
+     * The instances of the hook classes, according to their scope, keyed by hook class.
+     * They are shared by all the hook methods of a class.
+     */
+    private final Map<Class<?>, Optional<HookInstances>> hookInstancesCache = new ConcurrentHashMap<>();
+
+    /**
+     * The hook plans of the advised target methods, keyed by method identity.
+     * The map is copied on write, so that lookups do not need any locking.
+     */
+    private volatile Map<Method, HookPlan> hookPlans = new IdentityHashMap<>();
+
+    /**
+     * The hook plans of the target methods, keyed by method equality, so that the plans resolved at startup are shared
+     * by the method instances of the proxies. Guarded by this object.
+     */
+    private final Map<Method, HookPlan> resolvedPlans = new HashMap<>();
+
+    static {
+        annotations.put(PreHook.class, "pre");
+        annotations.put(PostHook.class, "post");
+        annotations.put(ExceptionHook.class, "exception");
+        annotations.put(DataOutHook.class, "dataOut");
+        annotations.put(DataInHook.class, "dataIn");
+    }
+
+    /**
+     * The invocation statistics of the hook methods.
+     *
+     * @return the hook metrics
+     */
+    @Bean
+    public HookMetrics hookMetrics() {
+        return metrics;
+    }
+
+    /**
+     * The registry of the listeners of the hook tags.
+     *
+     * @return the hook registry
+     */
+    @Bean
+    public HookRegistry hookRegistry() {
+        return registry;
+    }
+
+    /**
+     * It supplies the results of the data in hooks to the arguments annotated with {@link DataIn}.
+     * The hooks of different arguments run concurrently, the last one on the caller thread.
+     * If a hook fails, the other arguments are supplied anyway and its argument is left unchanged.
+     * The results of the hooks memoized in the current scope are reused.
+     * @param method the target method
+     * @param plan the hook plan of the target method
+     * @param args the arguments of the target method, modified in place
+     * @throws HookRejectedException if a hook timed out without a fallback, which fails the call
+     * @throws Exception the failure of the first argument which cannot be supplied, in declaration order
+     */
+    void supplyDataIn(Method method, HookPlan plan, Object[] args) throws Exception {
+        DataInParameter[] parameters = plan.dataInParameters;
+        if (parameters.length == 0) {
+            throw new IllegalArgumentException("Method " + method.getName() + " of " + method.getDeclaringClass().getName() + " has no @Data annotated parameter");
+        }
+
+        Map<String, CompletableFuture<Object>> memo = HookMemo.results(plan.dataInMemoization);
+        if (parameters.length == 1) {
+            args[parameters[0].index] = supplyDataIn(parameters[0], args, memo);
+            return;
+        }
+
+        // the arguments are supplied once all the hooks completed, since a cache key may depend on them
+        Object[] supplied = new Object[parameters.length];
+        Exception[] failures = new Exception[parameters.length];
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[parameters.length - 1];
+        for (int i = 0; i < futures.length; i++) {
+            int parameter = i;
+            futures[i] = CompletableFuture.runAsync(ContextPropagation.wrap(() -> {
+                try {
+                    supplied[parameter] = supplyDataIn(parameters[parameter], args, memo);
+                } catch (Exception e) {
+                    failures[parameter] = e;
+                }
+            }), getParallelExecutor());
+        }
+
+        int last = parameters.length - 1;
+        try {
+            supplied[last] = supplyDataIn(parameters[last], args, memo);
+        } catch (Exception e) {
+            failures[last] = e;
+        }
+
+        CompletableFuture.allOf(futures).join();
+
+        Exception failure = null;
+        for (int i = 0; i < parameters.length; i++) {
+            if (failures[i] == null) {
+                args[parameters[i].index] = supplied[i];
+            } else if (failure == null) {
+                failure = failures[i];
+            } else if (failures[i] instanceof HookRejectedException && !(failure instanceof HookRejectedException)) {
+                // a timed out hook fails the call, so it is thrown ahead of the other failures, which are logged
+                logger.error("[DATA-IN hook error]", failure);
+                failure = failures[i];
+            } else if (failure instanceof HookRejectedException) {
+                logger.error("[DATA-IN hook error]", failures[i]);
+            } else {
+                failure.addSuppressed(failures[i]);
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private Object supplyDataIn(DataInParameter parameter, Object[] args, Map<String, CompletableFuture<Object>> memo) throws Exception {
+        if (!parameter.hook.admit(args, null, null)) {
+            return args[parameter.index];
+        }
+
+        if (parameter.failure != null) {
+            throw new IllegalArgumentException(parameter.failure);
+        }
+
+        try {
+            return memo != null ? HookMemo.memoize(memo, parameter.hook, () -> supplyDataIn(parameter, args)) : supplyDataIn(parameter, args);
+        } catch (HookRejectedException e) {
+            if (parameter.fallback != null) {
+                return callHook(parameter.fallback, null, null);
+            }
+
+            if (e.getReason() == HookRejectedException.Reason.TIMEOUT) {
+                throw e;
+            }
+
+            // skipped by the bulkhead or the circuit breaker: the parameter is left unchanged
+            return args[parameter.index];
+        } catch (Exception e) {
+            if (parameter.fallback == null) {
+                throw e;
+            }
+
+            logger.warn("[DATA-IN hook error] falling back to [" + parameter.fallback.methodName + "] of [" + parameter.fallback.definingClass.getName() + "]", e);
+            return callHook(parameter.fallback, null, null);
+        }
+    }
+
+    private Object supplyDataIn(DataInParameter parameter, Object[] args) throws Exception {
+        return parameter.cache != null ? parameter.cache.get(args) : callHook(parameter.hook, null, null);
+    }
+
+    /**
+     * It attaches the post, exception and data out hooks of a plan to the completion of the stage returned by the target method.
+     * The hooks run on the thread which completes the stage, or on the executor of the asynchronous hooks if they are asynchronous.
+     * The advised call bound to the current thread is bound again around the hooks, so that their {@link Hook} exposes it
+     * whatever thread completes the stage.
+     * @param plan the hook plan
+     * @param args the arguments of the target method, null if the hooks have no conditions
+     * @param result the completion stage returned by the target method, null if the target method returned null
+     */
+    void attachCompletionHooks(HookPlan plan, Object[] args, CompletionStage<?> result) {
+        BiConsumer<Object, Throwable> hooks = HookInvocation.wrapCompletion((value, error) -> callCompletionHooks(plan, args, value, error));
+        if (result != null) {
+            result.whenComplete(hooks);
+        } else {
+            hooks.accept(null, null);
+        }
+    }
+
+    /**
+     * It calls the hooks of a completed target method: the exception hook if it failed, otherwise the data out hook,
+     * then the post hooks.
+     * @param plan the hook plan
+     * @param args the arguments of the target method, null if the hooks have no conditions
+     * @param result the result of the target method
+     * @param error the failure of the target method, null if it succeeded
+     */
+    void callCompletionHooks(HookPlan plan, Object[] args, Object result, Throwable error) {
+        try {
+            if (error == null) {
+                if (plan.dataOutHook != null) {
+                    callDataOutHook(plan, args, result);
+                }
+            } else if (plan.exceptionHook != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                if (cause instanceof Exception) {
+                    callExceptionHook(plan, args, (Exception) cause);
+                }
+            }
+        } finally {
+            if (plan.postHooks.length > 0) {
+                callPostHooks(plan, args);
+            }
+        }
+    }
+
+    /**
+     * It calls the post hooks of a plan, through the ring buffers of their hook classes or on the executor
+     * of the asynchronous hooks if they are asynchronous. The hooks which do not share the same dispatch are called
+     * one by one, each with its own, and those which run on the caller thread run one after another.
+     * The errors of the hooks are logged.
+     * @param plan the hook plan
+     * @param args the arguments of the target method, null if the hooks have no conditions
+     */
+    void callPostHooks(HookPlan plan, Object[] args) {
+        if (plan.postHooksDispatched) {
+            for (ResolvedHook hook : plan.postHooks) {
+                callPostHook(hook, args);
+            }
+            return;
+        }
+
+        if (plan.postHooksExecutor != null) {
+            callAsync(plan.postHooksExecutor, "[POST hook error]", () -> {
+                callHooks(plan.postHooks, plan.postFanOut, args);
+                return null;
+            });
+            return;
+        }
+
+        try {
+            callHooks(plan.postHooks, plan.postFanOut, args);
+        } catch (Exception e) {
+            logger.error("[POST hook error]", e);
+        }
+    }
+
+    private void callPostHook(ResolvedHook hook, Object[] args) {
+        try {
+            if (!hook.admit(args, null, null)) {
+                return;
+            }
+
+            if (hook.ringBuffer != null) {
+                hook.ringBuffer.publish(hook, null, null);
+                return;
+            }
+
+            if (hook.executor != null) {
+                callAsync(hook.executor, "[POST hook error]", () -> callHook(hook, null, null));
+                return;
+            }
+
+            callHook(hook, null, null);
+        } catch (Exception e) {
+            logger.error("[POST hook error]", e);
+        }
+    }
+
+    /**
+     * It calls the exception hook of a plan, through the ring buffer of its hook class or on the executor
+     * of the asynchronous hooks if it is asynchronous.
+     * The errors of the hook are logged. A call skipped by the condition, the sample rate or the maximum rate
+     * of the hook returns right away.
+     * @param plan the hook plan
+     * @param args the arguments of the target method, null if the hooks have no conditions
+     * @param exception the exception of the target method
+     */
+    void callExceptionHook(HookPlan plan, Object[] args, Exception exception) {
+        ResolvedHook hook = plan.exceptionHook;
+        try {
+            if (!hook.admit(args, null, exception)) {
+                return;
+            }
+
+            if (plan.exceptionJournal != null) {
+                appendToJournal(plan.exceptionJournal, hook, null, exception);
+                return;
+            }
+
+            if (hook.ringBuffer != null) {
+                hook.ringBuffer.publish(hook, exception, null);
+                return;
+            }
+
+            if (hook.executor != null) {
+                callAsync(hook.executor, "[EXCEPTION hook error]", () -> callHook(hook, exception, null));
+                return;
+            }
+
+            callHook(hook, exception, null);
+        } catch (Exception e) {
+            logger.error("[EXCEPTION hook error]", e);
+        }
+    }
+
+    /**
+     * It calls the data out hook of a plan, through its batcher, through the ring buffer of its hook class
+     * or on the executor of the asynchronous hooks if it is asynchronous. The errors of the hook are logged. A call skipped by the condition, the sample rate
+     * or the maximum rate of the hook returns right away.
+     * @param plan the hook plan
+     * @param args the arguments of the target method, null if the hooks have no conditions
+     * @param result the result of the target method
+     */
+    void callDataOutHook(HookPlan plan, Object[] args, Object result) {
+        ResolvedHook hook = plan.dataOutHook;
+        try {
+            if (!hook.admit(args, result, null)) {
+                return;
+            }
+
+            if (plan.dataOutJournal != null) {
+                appendToJournal(plan.dataOutJournal, hook, result, null);
+                return;
+            }
+
+            if (plan.dataOutBatcher != null) {
+                if (hook.listeners != null) {
+                    hook.listeners.publish(hook.hookName, result, null);
+                }
+
+                plan.dataOutBatcher.add(new Hook(hook.tag, result, null));
+                return;
+            }
+
+            if (hook.ringBuffer != null) {
+                hook.ringBuffer.publish(hook, null, result);
+                return;
+            }
+
+            if (hook.executor != null) {
+                callAsync(hook.executor, "[DATA-OUT hook error]", () -> callHook(hook, null, result));
+                return;
+            }
+
+            callHook(hook, null, result);
+        } catch (Exception e) {
+            logger.error("[DATA-OUT hook error]", e);
+        }
+    }
+
+    /**
+     * It appends a call of a durable hook to its outbox, after notifying the listeners of the tag of the hook.
+     * @param journal the outbox of the hook
+     * @param hook the durable hook
+     * @param dataOut the data out of the hook if any
+     * @param exception the exception of the hook if any
+     * @throws IOException if the data out or the exception cannot be serialized
+     */
+    private static void appendToJournal(HookJournal journal, ResolvedHook hook, Object dataOut, Exception exception) throws IOException {
+        if (hook.listeners != null) {
+            hook.listeners.publish(hook.hookName, dataOut, exception);
+        }
+
+        journal.append(new Hook(hook.tag, dataOut, exception));
+    }
+
+    /**
+     * It resolves the hook plans of the annotated methods of the Spring beans, so that an invalid hook annotation
+     * fails the startup of the context instead of the calls of its target method, then it reopens the outboxes
+     * found in the outbox directory. It runs once all the singleton beans are created, since the hook classes may be Spring beans.
+     * @throws IllegalStateException if a hook annotation is invalid
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        resolveHookPlans();
+        recoverHookJournals();
+    }
+
+    /**
+     * It resolves the hook plans of the annotated methods of the Spring beans.
+     * @throws IllegalStateException if a hook annotation is invalid
+     */
+    private synchronized void resolveHookPlans() {
+        List<String> failures = new ArrayList<>();
+        for (String beanName : context.getBeanDefinitionNames()) {
+            Class<?> type = context.getType(beanName, false);
+            if (type == null) {
+                continue;
+            }
+
+            for (Method method : ReflectionUtils.getUniqueDeclaredMethods(ClassUtils.getUserClass(type))) {
+                if (annotations.keySet().stream().anyMatch(annotation -> method.isAnnotationPresent(annotation.asSubclass(Annotation.class)))) {
+                    HookPlan plan = resolvedPlans.computeIfAbsent(method, this::newHookPlan);
+                    plan.forEachHook(hook -> {
+                        if (hook.invalid != null) {
+                            failures.add(method + ": " + hook.invalid);
+                        }
+                    });
+                }
+            }
+        }
+
+        if (!failures.isEmpty()) {
+            throw new IllegalStateException("Invalid hook annotations:\n" + String.join("\n", failures));
+        }
+    }
+
+    /**
+     * It reopens the outboxes found in the outbox directory and not opened yet by the hook plans resolved on startup,
+     * so that the hooks appended before a restart are delivered without waiting for the hook plans of their target methods.
+     * Their records are delivered through a plain hook, with the statistics of the empty tag, until a hook plan resolves the hook.
+     */
+    private void recoverHookJournals() {
+        Path directory = getOutboxDirectory();
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+
+        try (Stream<Path> journals = Files.list(directory)) {
+            journals.filter(Files::isDirectory).forEach(this::recoverHookJournal);
+        } catch (IOException e) {
+            logger.error("[OUTBOX] the outbox directory " + directory + " cannot be listed", e);
+        }
+    }
+
+    private void recoverHookJournal(Path journal) {
+        // the name of an outbox is <hook type>-<defining class>@<hook method>
+        String name = journal.getFileName().toString();
+        int type = name.indexOf('-');
+        int method = name.lastIndexOf('@');
+        if (type < 0 || method < type) {
+            return;
+        }
+
+        try {
+            Class<?> definingClass = ClassUtils.forName(name.substring(type + 1, method), context.getClassLoader());
+            synchronized (this) {
+                if (hookJournals.containsKey(name)) {
+                    // already opened by the hook plan of a target method
+                    return;
+                }
+
+                ResolvedHook hook = resolvePlainHook(name.substring(0, type), definingClass, name.substring(method + 1), "");
+                hookJournals.put(name, openHookJournal(name, hook));
+                recoveredJournals.add(name);
+            }
+        } catch (Exception e) {
+            logger.warn("[OUTBOX] the outbox " + journal + " cannot be recovered", e);
+        }
+    }
+
+    /**
+     * Delivers the pending batches, closes the outboxes and the executors of the parallel and timed hooks, and closes the executor
+     * of the asynchronous hooks and the ring buffers if they were created by this class, draining the queued hook calls.
+     */
+    @Override
+    public void destroy() {
+        synchronized (this) {
+            if (batchScheduler != null) {
+                batchScheduler.shutdownNow();
+            }
+        }
+
+        hookBatchers.values().forEach(HookBatcher::flush);
+
+        for (HookJournal journal : hookJournals.values()) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                logger.error("[OUTBOX] the outbox cannot be closed", e);
+            }
+        }
+
+        if (ownsAsyncExecutor) {
+            asyncExecutor.close();
+        }
+
+        if (parallelExecutor != null) {
+            parallelExecutor.close();
+        }
+
+        synchronized (this) {
+            if (timeoutExecutor != null) {
+                timeoutExecutor.close();
+            }
+        }
+
+        if (ownsRingBuffers) {
+            ringBuffers.close();
+        }
+    }
+
+    /**
+     * It calls hooks on an executor, logging their errors.
+     * @param executor the executor
+     * @param errorMessage the message logged if the hooks fail
+     * @param hooks the call of the hooks
+     */
+    private static void callAsync(Executor executor, String errorMessage, Callable<?> hooks) {
+        executor.execute(() -> {
+            try {
+                hooks.call();
+            } catch (Exception e) {
+                logger.error(errorMessage, e);
+            }
+        });
+    }
+
+    /**
+     * It calls the pre hooks of a plan, one after another or in parallel. A pre hook method can return a {@link HookResult}
+     * which short-circuits the target method: the remaining pre hooks which run one after another are skipped.
+     * @param plan the hook plan
+     * @param args the arguments of the target method, null if the hooks have no conditions
+     * @return the short-circuit result of a pre hook or null if the target method must proceed
+     * @throws NoSuchMethodException if no suitable hook method was found for a hook
+     */
+    HookResult<?> callPreHooks(HookPlan plan, Object[] args) throws NoSuchMethodException {
+        Map<String, CompletableFuture<Object>> memo = HookMemo.results(plan.preHooksMemoization);
+        if (plan.preFanOut == null) {
+            for (ResolvedHook hook : plan.preHooks) {
+                if (hook.admit(args, null, null)) {
+                    Object result = callHook(hook, memo);
+                    if (result instanceof HookResult && ((HookResult<?>) result).isShortCircuit()) {
+                        return (HookResult<?>) result;
+                    }
+                }
+            }
+
+            return null;
+        }
+
+        AtomicReference<HookResult<?>> shortCircuit = new AtomicReference<>();
+        try {
+            plan.preFanOut.run(hook -> {
+                if (hook.admit(args, null, null)) {
+                    Object result = callHook(hook, memo);
+                    if (result instanceof HookResult && ((HookResult<?>) result).isShortCircuit()) {
+                        shortCircuit.compareAndSet(null, (HookResult<?>) result);
+                    }
+                }
+            });
+        } catch (NoSuchMethodException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            ReflectionUtils.rethrowRuntimeException(e);
+        }
+
+        return shortCircuit.get();
+    }
+
+    /**
+     * It completes an invocation short-circuited by a pre hook: it runs the data out hook and the post hooks with the value
+     * returned in place of the target method, or attaches them to the value if it is a publisher or a completion stage.
+     * @param plan the hook plan
+     * @param args the arguments of the target method, null if the hooks have no conditions
+     * @param value the value returned in place of the target method
+     * @return the value to return, with the hooks attached if it is a publisher
+     */
+    Object completeShortCircuit(HookPlan plan, Object[] args, Object value) {
+        if (plan.reactive) {
+            return reactiveHooks.attachHooks(plan, args, value);
+        }
+
+        if (plan.completionStage) {
+            attachCompletionHooks(plan, args, (CompletionStage<?>) value);
+            return value;
+        }
+
+        try {
+            if (plan.dataOutHook != null) {
+                callDataOutHook(plan, args, value);
+            }
+        } finally {
+            if (plan.postHooks.length > 0) {
+                callPostHooks(plan, args);
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * It calls the hooks of a {@link PreHook} or {@link PostHook}, one after another or in parallel.
+     * @param hooks the hooks
+     * @param fanOut the parallel execution of the hooks or null if they run one after another
+     * @param args the arguments of the target method, null if the hooks have no conditions
+     * @throws NoSuchMethodException if no suitable hook method was found for a hook
+     */
+    void callHooks(ResolvedHook[] hooks, HookFanOut fanOut, Object[] args) throws NoSuchMethodException {
+        if (fanOut == null) {
+            for (ResolvedHook hook : hooks) {
+                if (hook.admit(args, null, null)) {
+                    callHook(hook, null, null);
+                }
+            }
+
+            return;
+        }
+
+        try {
+            fanOut.run(args == null ? fanOutHookCall : hook -> {
+                if (hook.admit(args, null, null)) {
+                    callHook(hook, null, null);
+                }
+            });
+        } catch (NoSuchMethodException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            ReflectionUtils.rethrowRuntimeException(e);
+        }
+    }
+
+    /**
+     * It calls the hook method of a hook which carries only the tag, unless its result is memoized.
+     * The concurrent calls of a memoized hook wait for the first one.
+     * @param hook the resolved hook
+     * @param memo the memoized results or null if the results of the hook are not memoized
+     * @return the result of the hook method or null if the hook method returns void
+     * @throws NoSuchMethodException if no suitable hook method was found for the hook
      */
-    private final Map<String, Optional<Object>> hookObjectsCache = new ConcurrentHashMap<>();
+    private Object callHook(ResolvedHook hook, Map<String, CompletableFuture<Object>> memo) throws NoSuchMethodException {
+        if (memo == null) {
+            return callHook(hook, null, null);
+        }
 
-    static {
-        annotations.put(PreHook.class, "pre");
-        annotations.put(PostHook.class, "post");
-        annotations.put(ExceptionHook.class, "exception");
-        annotations.put(DataOutHook.class, "dataIn");
-        annotations.put(DataInHook.class, "dataOut");
+        return HookMemo.memoize(memo, hook, () -> callHook(hook, null, null));
     }
 
     /**
-     * Handler of {@link PreHook} annotation.
-     *
-     * @param preHook the annotation
+     * It notifies the listeners of the tag of the hook, then it calls the hook method.
+     * @param hook the resolved hook
+     * @param exception the exception of the hook if any
+     * @param dataOut the data out of the hook if any
+     * @return the result of the hook method or null if the hook method returns void
+     * @throws NoSuchMethodException if no suitable hook method was found for the hook
      */
-    @Before("@annotation(preHook)")
-    public void preHook(PreHook preHook) throws NoSuchMethodException {
-        callHooks(preHook, preHook.definingClass(), preHook.method(), preHook.tag());
+    Object callHook(ResolvedHook hook, Exception exception, Object dataOut) throws NoSuchMethodException {
+        if (hook.listeners != null) {
+            hook.listeners.publish(hook.hookName, dataOut, exception);
+        }
+
+        Method hookMethod = hook.method();
+        if (logger.isDebugEnabled()) {
+            logger.debug("[" + hook.hookName.toUpperCase() + " hook] calling method [" + hookMethod + "] of [" + hook.definingClass.getName() + "]");
+        }
+
+        if (hook.instances == null) {
+            return null;
+        }
+
+        if (hook.guard != null) {
+            // the call may run on another thread, so the hook is not recycled
+            Hook argument = !hook.hookParameter ? null : dataOut == null && exception == null ? hook.tagHook : new Hook(hook.tag, dataOut, exception);
+            return hook.guard.call(() -> invokeHook(hook, argument));
+        }
+
+        if (!hook.hookParameter) {
+            return invokeHook(hook, null);
+        }
+
+        if (dataOut == null && exception == null) {
+            return invokeHook(hook, hook.tagHook);
+        }
+
+        ReusableHook reusableHook = hook.acquireReusableHook(dataOut, exception);
+        if (reusableHook == null) {
+            return invokeHook(hook, new Hook(hook.tag, dataOut, exception));
+        }
+
+        try {
+            return invokeHook(hook, reusableHook);
+        } finally {
+            reusableHook.release();
+        }
     }
 
-    /**
-     * Handler of the {@link PostHook} annotation.
-     *
-     * @param postHook the annotation
-     */
-    @After("@annotation(postHook)")
-    public void postHook(PostHook postHook) {
+    private static Object invokeHook(ResolvedHook hook, Hook argument) {
+        long start = System.nanoTime();
+        HookInvocationEvent event = HookInvocationEvent.start();
+        Object instance = null;
         try {
-            callHooks(postHook, postHook.definingClass(), postHook.method(), postHook.tag());
-        } catch (Exception e) {
-            logger.error("[POST hook error]", e);
+            instance = hook.instances.acquire();
+            Object result = hook.invoker.invoke(instance, argument);
+            hook.stats.record(System.nanoTime() - start, false);
+            if (event != null) {
+                event.record(hook, false);
+            }
+
+            return result;
+        } catch (Throwable e) {
+            hook.stats.record(System.nanoTime() - start, true);
+            if (event != null) {
+                event.record(hook, true);
+            }
+
+            ReflectionUtils.rethrowRuntimeException(e);
+            return null;
+        } finally {
+            if (instance != null) {
+                hook.instances.release(instance);
+            }
         }
     }
 
+    HookPlan getHookPlan(JoinPoint joinPoint) {
+        return getHookPlan(((MethodSignature) joinPoint.getSignature()).getMethod());
+    }
+
     /**
-     * Handler of the {@link ExceptionHook} annotation.
-     *
-     * @param exceptionHook the annotation
-     * @param exception the exception
+     * It returns the hook plan of an advised target method. The plan gets resolved
+     * on the first invocation of the target method and it is recycled afterwards.
+     * @param method the target method
+     * @return the hook plan of the target method
      */
-    @AfterThrowing(pointcut = "@annotation(exceptionHook)", throwing = "exception")
-    public void exceptionHook(ExceptionHook exceptionHook, Exception exception) {
-        try {
-            callHook(exceptionHook, exceptionHook.definingClass(), exceptionHook.method(), exceptionHook.tag(), exception, null);
-        } catch (Exception e) {
-            logger.error("[EXCEPTION hook error]", e);
+    HookPlan getHookPlan(Method method) {
+        HookPlan plan = hookPlans.get(method);
+        return plan != null ? plan : resolveHookPlan(method);
+    }
+
+    private synchronized HookPlan resolveHookPlan(Method method) {
+        HookPlan plan = hookPlans.get(method);
+        if (plan == null) {
+            plan = resolvedPlans.computeIfAbsent(method, this::newHookPlan);
+            Map<Method, HookPlan> plans = new IdentityHashMap<>(hookPlans);
+            plans.put(method, plan);
+            hookPlans = plans;
         }
+
+        return plan;
     }
 
     /**
-     * Handler of the {@link DataInHook} annotation.
-     *
-     * @param joinPoint the proceeding join point
-     * @param dataInHook the annotation
-     * @return the result of the target annotated method
-     * @throws Throwable if errors occur
+     * It resolves the hook methods and the hook object instances of all the hook annotations of a target method.
+     * @param method the target method
+     * @return the hook plan of the target method
      */
-    @Around("@annotation(dataInHook)")
-    public Object dataInHook(ProceedingJoinPoint joinPoint, DataInHook dataInHook) throws Throwable {
-        Object[] args = joinPoint.getArgs();
+    private HookPlan newHookPlan(Method method) {
+        PreHook preHook = method.getAnnotation(PreHook.class);
+        PostHook postHook = method.getAnnotation(PostHook.class);
+        ExceptionHook exceptionHook = method.getAnnotation(ExceptionHook.class);
+        DataInHook dataInHook = method.getAnnotation(DataInHook.class);
+        DataOutHook dataOutHook = method.getAnnotation(DataOutHook.class);
 
-        try {
-            Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
-            Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+        ResolvedHook resolvedDataOutHook = dataOutHook != null ? resolveHook(dataOutHook, dataOutHook.definingClass(), dataOutHook.method(), dataOutHook.tag(), dataOutHook.reuseHook(), dataOutHook.async()) : null;
+        HookJournal dataOutJournal = null;
+        HookBatcher dataOutBatcher = null;
+        if (resolvedDataOutHook != null) {
+            try {
+                dataOutJournal = dataOutHook.durable() ? getHookJournal(resolvedDataOutHook, ResolvableType.forMethodReturnType(method)) : null;
+                dataOutBatcher = resolvedDataOutHook.batchParameter && dataOutJournal == null ? getHookBatcher(resolvedDataOutHook, dataOutHook) : null;
+            } catch (RuntimeException e) {
+                resolvedDataOutHook = invalidHook(resolvedDataOutHook, e);
+            }
+        }
 
-            boolean dataAnnotationFound = false;
-            for (int i = 0; i < args.length; i++) {
-                for (Annotation paramAnnotation : parameterAnnotations[i]) {
+        ResolvedHook resolvedExceptionHook = exceptionHook != null ? resolveHook(exceptionHook, exceptionHook.definingClass(), exceptionHook.method(), exceptionHook.tag(), exceptionHook.reuseHook(), exceptionHook.async()) : null;
+        HookJournal exceptionJournal = null;
+        if (resolvedExceptionHook != null && exceptionHook.durable()) {
+            try {
+                exceptionJournal = getHookJournal(resolvedExceptionHook, ResolvableType.forClass(Throwable.class));
+            } catch (RuntimeException e) {
+                resolvedExceptionHook = invalidHook(resolvedExceptionHook, e);
+            }
+        }
 
-                    if (paramAnnotation instanceof DataIn) {
+        boolean reactive = reactiveHooks != null && reactiveTypes.contains(method.getReturnType().getName());
 
-                        if (dataAnnotationFound) {
-                            throw new IllegalArgumentException("Method [" + method + "]  can contain at most one @DataIn annotation");
-                        }
+        ResolvedHook resolvedDataInHook = dataInHook != null ? resolveHook(dataInHook, dataInHook.definingClass(), dataInHook.method(), dataInHook.tag(), false, false) : null;
+        DataInCache dataInCache = null;
+        if (resolvedDataInHook != null && dataInHook.cacheTtlMillis() > 0) {
+            try {
+                dataInCache = newDataInCache(method, resolvedDataInHook, dataInHook);
+            } catch (RuntimeException e) {
+                resolvedDataInHook = invalidHook(resolvedDataInHook, e);
+            }
+        }
 
-                        Method hookMethod = findHookMethod(dataInHook.definingClass(), dataInHook.method());
-                        if (!hookMethod.getReturnType().equals(args[i].getClass())) {
-                            throw new IllegalArgumentException("Return type of method [" + dataInHook.method() + "] of [" + dataInHook.definingClass().getName() + "]" +
-                                    " must have type " + args[i].getClass().getName() +  ", parameter annotated with @DataIn of method [" + method + "]");
-                        }
+        DataInParameter[] dataInParameters = dataInHook != null ? resolveDataInParameters(method, dataInHook, resolvedDataInHook, dataInCache, reactive) : new DataInParameter[0];
+
+        ResolvedHook[] resolvedPreHooks = preHook != null ? resolveHooks(preHook, preHook.definingClass(), preHook.method(), preHook.tag(), false) : null;
+        ResolvedHook[] resolvedPostHooks = postHook != null ? resolveHooks(postHook, postHook.definingClass(), postHook.method(), postHook.tag(), postHook.async()) : null;
+
+        boolean reactiveDataIn = reactive && dataInParameters.length == 1 && dataInParameters[0].hook.returnsMono();
 
-                        // we supply the result of the hook method to the argument annotated with Data
-                        args[i] = callHook(dataInHook, dataInHook.definingClass(), dataInHook.method(), dataInHook.tag());
-                        dataAnnotationFound = true;
+        return new HookPlan(
+                resolvedPreHooks,
+                preHook != null && preHook.parallel() ? new HookFanOut(resolvedPreHooks, getParallelExecutor()) : null,
+                preHook != null ? preHook.memoize() : HookMemoization.NONE,
+                resolvedPostHooks,
+                postHook != null && postHook.parallel() ? new HookFanOut(resolvedPostHooks, getParallelExecutor()) : null,
+                resolvedExceptionHook,
+                exceptionJournal,
+                resolvedDataInHook,
+                dataInHook != null ? dataInHook.memoize() : HookMemoization.NONE,
+                dataInCache,
+                dataInParameters,
+                resolvedDataOutHook,
+                dataOutBatcher,
+                dataOutJournal,
+                reactive,
+                reactiveDataIn,
+                dataOutHook != null && dataOutHook.onCompletion(),
+                CompletionStage.class.isAssignableFrom(method.getReturnType())
+        );
+    }
+
+    /**
+     * It resolves the parameters of a target method annotated with {@link DataIn} and the hooks which supply them.
+     * The parameters which do not name their own hook share the hook of the {@link DataInHook} annotation and its cache.
+     * If the return type of a hook does not match the type of its parameter, the parameter records the failure.
+     * @param method the target method
+     * @param dataInHook the data in hook annotation of the target method
+     * @param hook the resolved hook of the data in hook annotation
+     * @param cache the cache of the hook of the data in hook annotation, null if its results are not cached
+     * @param reactive true if the target method returns a publisher, so that the hooks can supply a {@code Mono}
+     * @return the parameters, in declaration order
+     */
+    private DataInParameter[] resolveDataInParameters(Method method, DataInHook dataInHook, ResolvedHook hook, DataInCache cache, boolean reactive) {
+        Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        List<DataInParameter> parameters = new ArrayList<>();
+        for (int i = 0; i < parameterAnnotations.length; i++) {
+            for (Annotation parameterAnnotation : parameterAnnotations[i]) {
+                if (parameterAnnotation instanceof DataIn) {
+                    DataIn dataIn = (DataIn) parameterAnnotation;
+                    boolean ownHook = dataIn.definingClass() != void.class;
+                    String tag = ownHook && !dataIn.tag().isEmpty() ? dataIn.tag() : dataInHook.tag();
+                    ResolvedHook parameterHook = ownHook ? resolveHook(dataInHook, dataIn.definingClass(), dataIn.method(), tag, false, false) : hook;
+                    String fallbackMethod = ownHook || !dataIn.fallback().isEmpty() ? dataIn.fallback() : dataInHook.fallback();
+                    ResolvedHook fallback = fallbackMethod.isEmpty() ? null : resolvePlainHook(annotations.get(DataInHook.class), parameterHook.definingClass, fallbackMethod, tag);
+
+                    String failure = checkDataInType(method, parameterTypes[i], parameterHook, reactive);
+                    if (failure == null && fallback != null) {
+                        failure = checkDataInType(method, parameterTypes[i], fallback, false);
                     }
+
+                    parameters.add(new DataInParameter(i, parameterHook, ownHook ? null : cache, fallback, failure));
                 }
             }
+        }
+
+        return parameters.toArray(new DataInParameter[0]);
+    }
 
-            if (!dataAnnotationFound) {
-                throw new IllegalArgumentException("Method " + method.getName() + " of " + method.getDeclaringClass().getName() + " has no @Data annotated parameter");
+    /**
+     * It checks that the return type of a data in hook method matches the type of its parameter.
+     * @param method the target method
+     * @param parameterType the type of the parameter annotated with {@link DataIn}
+     * @param hook the hook which supplies the parameter
+     * @param reactive true if the hook method can return a {@code Mono}
+     * @return the reason why the hook cannot supply the parameter, null if it can or if the hook method is missing
+     */
+    private static String checkDataInType(Method method, Class<?> parameterType, ResolvedHook hook, boolean reactive) {
+        try {
+            Method hookMethod = hook.method();
+            if (!ClassUtils.resolvePrimitiveIfNecessary(hookMethod.getReturnType()).equals(ClassUtils.resolvePrimitiveIfNecessary(parameterType)) && !(reactive && hook.returnsMono())) {
+                return "Return type of method [" + hook.methodName + "] of [" + hook.definingClass.getName() + "]" +
+                        " must have type " + parameterType.getName() + ", parameter annotated with @DataIn of method [" + method + "]";
             }
+        } catch (NoSuchMethodException e) {
+            // the missing hook method is reported by the hook on every call
+        }
 
-        } catch (Exception e) {
-            logger.error("[DATA-IN hook error]", e);
+        return null;
+    }
+
+    /**
+     * It creates the cache of the results of a data in hook of a target method and registers it in the metrics.
+     * Results close to their expiration are reloaded on the executor of the asynchronous hooks.
+     * @param method the target method
+     * @param hook the resolved data in hook
+     * @param dataInHook the annotation which defines the key, the time to live and the size of the cache
+     * @return the cache
+     */
+    private DataInCache newDataInCache(Method method, ResolvedHook hook, DataInHook dataInHook) {
+        String target = method.getDeclaringClass().getName() + "#" + method.getName();
+        for (int index : dataInHook.cacheKeyArgs()) {
+            if (index < 0 || index >= method.getParameterCount()) {
+                throw new IllegalArgumentException("Cache key argument " + index + " of the @DataInHook of [" + target + "] is out of range");
+            }
         }
 
-        return joinPoint.proceed(args);
+        DataInCache cache = new DataInCache(target, hook, dataInHook.cacheKeyArgs(),
+                dataInHook.cacheKey().isEmpty() ? null : new SpelExpressionParser().parseExpression(dataInHook.cacheKey()),
+                () -> callHook(hook, null, null), dataInHook.cacheTtlMillis(), dataInHook.cacheRefreshAheadMillis(), dataInHook.cacheMaxSize(),
+                dataInHook.cacheRefreshAheadMillis() > 0 ? getAsyncExecutor() : null);
+
+        metrics.register(cache);
+        return cache;
     }
 
     /**
-     * Handler of the {@link DataOutHook} annotation.
-     *
-     * @param dataOutHook the annotation
-     * @param result the result of the target annotated method
+     * It hands the hooks of the target methods returning a publisher over to the {@link ReactiveHooksAOP}.
+     * It is called when the reactive aspect is created, before any hook plan is resolved.
+     * @param reactiveHooks the reactive aspect
+     */
+    synchronized void enableReactiveHooks(ReactiveHooksAOP reactiveHooks) {
+        this.reactiveHooks = reactiveHooks;
+    }
+
+    /**
+     * It returns the batcher of a data out hook method with the settings of an annotation, creating it on the first resolution
+     * of the hook method with these settings. The expired batches of the batcher are delivered periodically by the batch scheduler.
+     * @param hook the resolved data out hook
+     * @param dataOutHook the annotation which defines the batch size and the maximum delay of the batcher
+     * @return the batcher of the hook method
+     */
+    private HookBatcher getHookBatcher(ResolvedHook hook, DataOutHook dataOutHook) {
+        String key = getHookObjectKey(hook.definingClass, hook.methodName) + '#' + hook.tag + '#' + dataOutHook.batchSize() + '#' + dataOutHook.batchMaxDelayMillis() + '#' + (hook.executor != null);
+        return hookBatchers.computeIfAbsent(key, k -> {
+            HookBatcher batcher = new HookBatcher(hook, dataOutHook.batchSize(), dataOutHook.batchMaxDelayMillis());
+            long period = batcher.flushPeriodMillis();
+            getBatchScheduler().scheduleAtFixedRate(batcher::flushExpired, period, period, TimeUnit.MILLISECONDS);
+            return batcher;
+        });
+    }
+
+    /**
+     * It returns the durable outbox of a data out or exception hook method, opening it on the first resolution of the hook method.
+     * An outbox reopened on startup before the resolution of its hook delivers its records to the resolved hook from now on.
+     * The outbox is flushed to the disk periodically by the batch scheduler.
+     * @param hook the resolved durable hook
+     * @param type the type of the data out or the exception of the hook, allowed in the records read back from the outbox
+     * @return the outbox of the hook method or null if the hook method was not found, so that the failure is reported on every call
+     */
+    private HookJournal getHookJournal(ResolvedHook hook, ResolvableType type) {
+        if (hook.invoker == null) {
+            return null;
+        }
+
+        if (hook.batchParameter) {
+            throw new IllegalArgumentException("The durable hook [" + hook.methodName + "] of [" + hook.definingClass.getName() + "] cannot receive the hooks in batches");
+        }
+
+        String name = hook.hookName + "-" + getHookObjectKey(hook.definingClass, hook.methodName);
+        HookJournal journal = hookJournals.computeIfAbsent(name, k -> openHookJournal(k, hook));
+        if (recoveredJournals.remove(name)) {
+            journal.deliverTo(payload -> deliver(hook, payload));
+        }
+
+        journal.allow(type);
+        return journal;
+    }
+
+    private HookJournal openHookJournal(String name, ResolvedHook hook) {
+        Environment environment = context.getEnvironment();
+        int segmentSize = environment.getProperty("spring.hooks.outbox.segment-size", Integer.class, 16 * 1024 * 1024);
+        long syncIntervalMillis = environment.getProperty("spring.hooks.outbox.sync-interval-millis", Long.class, 100L);
+        try {
+            HookJournal journal = new HookJournal(getOutboxDirectory().resolve(name), segmentSize, syncIntervalMillis, hook.definingClass.getClassLoader(), payload -> deliver(hook, payload));
+            if (syncIntervalMillis > 0) {
+                getBatchScheduler().scheduleAtFixedRate(journal::sync, syncIntervalMillis, syncIntervalMillis, TimeUnit.MILLISECONDS);
+            }
+
+            return journal;
+        } catch (IOException e) {
+            throw new UncheckedIOException("The outbox of the hook [" + hook.methodName + "] of [" + hook.definingClass.getName() + "] cannot be opened", e);
+        }
+    }
+
+    /**
+     * It delivers a hook read from an outbox to the hook method. The failures are retried by the outbox.
+     * The advised call is not persisted in the outbox, so the calls of the delivering thread are hidden from the hook.
+     * @param hook the durable hook
+     * @param payload the hook read from the outbox
+     * @throws NoSuchMethodException if no suitable hook method was found for the hook
      */
-    @AfterReturning(value = "@annotation(dataOutHook)", returning = "result")
-    public void dataOutHook(DataOutHook dataOutHook, Object result) {
+    private static void deliver(ResolvedHook hook, Hook payload) throws NoSuchMethodException {
+        hook.method();
+        if (hook.instances == null) {
+            throw new IllegalStateException("No instance of [" + hook.definingClass.getName() + "] is available");
+        }
+
+        HookInvocation invocation = HookInvocation.enter(null);
         try {
-            callHook(dataOutHook, dataOutHook.definingClass(), dataOutHook.method(), dataOutHook.tag(), null, result);
-        } catch (Exception e) {
-            logger.error("[DATA-OUT hook error]", e);
+            invokeHook(hook, hook.hookParameter ? payload : null);
+        } finally {
+            invocation.exit();
+        }
+    }
+
+    /**
+     * It returns the directory of the outboxes of the durable hooks, set by the {@code spring.hooks.outbox.dir} property.
+     * @return the directory of the outboxes, {@code hooks-outbox} in the working directory by default
+     */
+    private Path getOutboxDirectory() {
+        return Path.of(context.getEnvironment().getProperty("spring.hooks.outbox.dir", "hooks-outbox"));
+    }
+
+    /**
+     * It returns the executor of the hooks which run in parallel: a bounded {@link AsyncHookExecutor} of its own,
+     * on virtual threads if the JDK supports them, whose hook calls run on the caller thread once its queue is full,
+     * so that a burst of calls neither grows without bound nor drops a hook. It is configured by the
+     * {@code spring.hooks.parallel.threads} and {@code spring.hooks.parallel.queue-capacity} properties.
+     * @return the executor of the hooks which run in parallel
+     */
+    private Executor getParallelExecutor() {
+        AsyncHookExecutor executor = parallelExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                if (parallelExecutor == null) {
+                    parallelExecutor = newBoundedExecutor("parallel", AsyncHookExecutor.OverflowPolicy.CALLER_RUNS);
+                }
+
+                executor = parallelExecutor;
+            }
+        }
+
+        return executor;
+    }
+
+    /**
+     * It returns the executor of the hook calls guarded by a timeout: a bounded {@link AsyncHookExecutor} of its own,
+     * on virtual threads if the JDK supports them, which rejects the hook calls once its queue is full, so that they fail fast
+     * instead of running on the caller thread without their timeout, and the parallel hooks cannot hold all its threads.
+     * It is configured by the {@code spring.hooks.timeout.threads} and {@code spring.hooks.timeout.queue-capacity} properties.
+     * It is called while resolving a hook plan, hence under the lock of the plans.
+     * @return the executor of the hook calls guarded by a timeout
+     */
+    private Executor getTimeoutExecutor() {
+        if (timeoutExecutor == null) {
+            timeoutExecutor = newBoundedExecutor("timeout", AsyncHookExecutor.OverflowPolicy.REJECT);
+        }
+
+        return timeoutExecutor;
+    }
+
+    /**
+     * It creates a bounded executor configured by the {@code spring.hooks.<name>.threads} and {@code spring.hooks.<name>.queue-capacity}
+     * properties, twice the available processors and at least 4 threads, and a queue of 256 hook calls by default.
+     * @param name the name of the executor in its properties and in the names of its threads
+     * @param overflowPolicy the policy applied when the queue is full
+     * @return the executor
+     */
+    private AsyncHookExecutor newBoundedExecutor(String name, AsyncHookExecutor.OverflowPolicy overflowPolicy) {
+        Environment environment = context.getEnvironment();
+        int threads = environment.getProperty("spring.hooks." + name + ".threads", Integer.class, Math.max(4, 2 * Runtime.getRuntime().availableProcessors()));
+        int queueCapacity = environment.getProperty("spring.hooks." + name + ".queue-capacity", Integer.class, 256);
+        return new AsyncHookExecutor(threads, queueCapacity, overflowPolicy, true, Duration.ofSeconds(10), "spring-hooks-" + name + "-");
+    }
+
+    private ScheduledExecutorService getBatchScheduler() {
+        if (batchScheduler == null) {
+            batchScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "spring-hooks-batch");
+                thread.setDaemon(true);
+                return thread;
+            });
         }
+
+        return batchScheduler;
     }
 
-    private void callHooks(Annotation annotation, Class<?>[] definingClasses, String[] hookMethods, String tag) throws NoSuchMethodException {
+    private ResolvedHook[] resolveHooks(Annotation annotation, Class<?>[] definingClasses, String[] hookMethods, String tag, boolean async) {
+        ResolvedHook[] hooks = new ResolvedHook[definingClasses.length];
         for (int i = 0; i < definingClasses.length; i++) {
-            callHook(annotation, definingClasses[i], getSafeHookMethodName(hookMethods, i, annotation), tag);
+            hooks[i] = resolveHook(annotation, definingClasses[i], getSafeHookMethodName(hookMethods, i, annotation), tag, false, async);
         }
+
+        return hooks;
     }
 
     /**
-     * It calls the hook method.
+     * It resolves the hook method and the hook object instance of a hook.
+     * If the hook method cannot be found, the returned hook records the failure
+     * and reports it each time the hook gets called.
      * @param annotation the hook annotation
      * @param definingClass the defining class of the hook
      * @param methodName the method name of the hook
-     * @param tag the tag of the hook if present
-     * @param exception the exception of the hook if any
-     * @param dataOut the data out of the hook if any
-     * @return the result of the hook method or null if the hook method returns void
+     * @param tag the tag of the hook
+     * @param reuseHook true if the {@link Hook} passed to the hook method can be recycled
+     * @param async true if the hook runs on the executor of the asynchronous hooks
+     * @return the resolved hook
      */
-    private Object callHook(Annotation annotation, Class<?> definingClass, String methodName, String tag, Exception exception, Object dataOut) throws NoSuchMethodException {
-        Method hookMethod = findHookMethod(definingClass, methodName);
-        Object[] args = hookMethod.getParameterTypes().length == 0 ? new Object[]{} : new Object[]{new Hook(tag, dataOut, exception)};
+    private ResolvedHook resolveHook(Annotation annotation, Class<?> definingClass, String methodName, String tag, boolean reuseHook, boolean async) {
         String hookName = annotations.get(annotation.annotationType());
-        logger.debug("[" + hookName.toUpperCase() + " hook] calling method [" + hookMethod + "] of [" + definingClass.getName() + "]");
-        Optional<Object> hookObject = hookObjectsCache.computeIfAbsent(getHookObjectKey(definingClass, methodName), k -> getHookObject(definingClass));
-        return hookObject.map(instance -> ReflectionUtils.invokeMethod(hookMethod, instance, args)).orElse(null);
+        HookSampler sampler;
+        HookCondition condition;
+        HookGuard guard;
+        try {
+            sampler = newHookSampler(annotation, definingClass, methodName);
+            condition = HookCondition.of(getCondition(annotation), tag);
+            guard = newHookGuard(annotation, definingClass, methodName);
+        } catch (RuntimeException e) {
+            return invalidHook(hookName, definingClass, methodName, tag, e);
+        }
+
+        HookRingBuffer ringBuffer = isRingBuffered(annotation) ? getRingBuffers().ringBuffer(definingClass, this::callHook) : null;
+        Executor executor = async && ringBuffer == null ? getAsyncExecutor() : null;
+        return resolveHook(hookName, definingClass, methodName, tag, annotation instanceof DataOutHook, reuseHook, executor, ringBuffer, sampler, condition, guard, registry.listeners(tag));
+    }
+
+    /**
+     * It creates a hook whose annotation is invalid: the failure is logged once here and reported each time the hook gets called,
+     * as for a missing hook method, instead of failing the target method.
+     * @param hookName the name of the hook type
+     * @param definingClass the defining class of the hook
+     * @param methodName the method name of the hook
+     * @param tag the tag of the hook
+     * @param failure the reason why the hook annotation is invalid
+     * @return the invalid hook
+     */
+    private ResolvedHook invalidHook(String hookName, Class<?> definingClass, String methodName, String tag, Exception failure) {
+        String reason = failure.getCause() != null ? failure.getMessage() + ": " + failure.getCause().getMessage() : failure.getMessage();
+        logger.error("[" + hookName.toUpperCase() + " hook] the hook [" + methodName + "] of [" + definingClass.getName() + "] is invalid", failure);
+        return new ResolvedHook(hookName, definingClass, methodName, tag, null, null, null, null, null, registry.listeners(tag), reason, true);
+    }
+
+    private ResolvedHook invalidHook(ResolvedHook hook, Exception failure) {
+        return invalidHook(hook.hookName, hook.definingClass, hook.methodName, hook.tag, failure);
+    }
+
+    /**
+     * It resolves a hook method whose calls are neither conditioned, sampled nor guarded, and do not notify
+     * the listeners of the tag: the fallback method of a data in hook or a durable hook recovered from its outbox.
+     * @param hookName the name of the hook type
+     * @param definingClass the defining class of the hook
+     * @param methodName the method name of the hook
+     * @param tag the tag of the hook
+     * @return the resolved hook
+     */
+    private ResolvedHook resolvePlainHook(String hookName, Class<?> definingClass, String methodName, String tag) {
+        return resolveHook(hookName, definingClass, methodName, tag, false, false, null, null, null, null, null, null);
+    }
+
+    private ResolvedHook resolveHook(String hookName, Class<?> definingClass, String methodName, String tag, boolean batch, boolean reuseHook, Executor executor,
+                                     HookRingBuffer ringBuffer, HookSampler sampler, HookCondition condition, HookGuard guard, HookRegistry.TagListeners listeners) {
+        HookResolutionEvent event = new HookResolutionEvent();
+        event.begin();
+        try {
+            Method hookMethod = findHookMethod(definingClass, methodName, batch);
+            Optional<HookInstances> hookInstances = hookInstancesCache.computeIfAbsent(definingClass, this::newHookInstances);
+            HookInvocationEngine engine = invocationEngine != null ? invocationEngine : defaultInvocationEngine;
+            ResolvedHook hook = new ResolvedHook(hookName, definingClass, methodName, tag, hookMethod, engine.bind(hookMethod), hookInstances.orElse(null), reuseHook, executor, ringBuffer, sampler, condition, guard, listeners, metrics.stats(definingClass, methodName, tag));
+            commit(event, hook, null);
+            return hook;
+        } catch (NoSuchMethodException e) {
+            ResolvedHook hook = new ResolvedHook(hookName, definingClass, methodName, tag, executor, ringBuffer, sampler, condition, guard, listeners, e.getMessage(), false);
+            commit(event, hook, e.getMessage());
+            return hook;
+        } catch (RuntimeException e) {
+            // the scope of the hook class or the binding of the hook method is invalid
+            ResolvedHook hook = invalidHook(hookName, definingClass, methodName, tag, e);
+            commit(event, hook, hook.invalid);
+            return hook;
+        }
+    }
+
+    private static void commit(HookResolutionEvent event, ResolvedHook hook, String failure) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.type = hook.hookName;
+            event.definingClass = hook.definingClass.getName();
+            event.method = hook.methodName;
+            event.tag = hook.tag;
+            event.failure = failure;
+            event.commit();
+        }
     }
 
-    private Object callHook(Annotation annotation, Class<?> definingClass, String methodName, String tag) throws NoSuchMethodException {
-        return callHook(annotation, definingClass, methodName, tag, null, null);
+    /**
+     * It creates the admission of the calls of a hook from the sample rate and the maximum rate of its annotation.
+     * @param annotation the hook annotation
+     * @param definingClass the defining class of the hook
+     * @param methodName the method name of the hook
+     * @return the admission or null if every call of the hook is admitted
+     */
+    private static HookSampler newHookSampler(Annotation annotation, Class<?> definingClass, String methodName) {
+        String target = "the hook [" + methodName + "] of [" + definingClass.getName() + "]";
+        if (annotation instanceof PreHook) {
+            return HookSampler.of(target, ((PreHook) annotation).sampleRate(), ((PreHook) annotation).maxPerSecond());
+        } else if (annotation instanceof PostHook) {
+            return HookSampler.of(target, ((PostHook) annotation).sampleRate(), ((PostHook) annotation).maxPerSecond());
+        } else if (annotation instanceof ExceptionHook) {
+            return HookSampler.of(target, ((ExceptionHook) annotation).sampleRate(), ((ExceptionHook) annotation).maxPerSecond());
+        } else if (annotation instanceof DataInHook) {
+            return HookSampler.of(target, ((DataInHook) annotation).sampleRate(), ((DataInHook) annotation).maxPerSecond());
+        } else if (annotation instanceof DataOutHook) {
+            return HookSampler.of(target, ((DataOutHook) annotation).sampleRate(), ((DataOutHook) annotation).maxPerSecond());
+        }
+
+        return null;
     }
 
     /**
-     * It returns the hook object instance to be invoked.
-     * First it looks for a Spring bean and if no bean is found then
-     * a new instance of the class will be created.
-     * The objects are recycled using a cache.
-     * @param type the type class of the hook
-     * @return the optional object instance of the hook
+     * It creates the guard of the calls of a hook from the timeout, the maximum concurrent calls and the circuit breaker
+     * of its annotation. The calls with a timeout run on the executor of the timed hook calls.
+     * @param annotation the hook annotation
+     * @param definingClass the defining class of the hook
+     * @param methodName the method name of the hook
+     * @return the guard or null if the calls of the hook are not guarded
      */
-    private Optional<Object> getHookObject(Class<?> type) {
-        Optional<Object> springBean = getSpringBean(type);
-        if (springBean.isPresent()) {
-            return springBean;
+    private HookGuard newHookGuard(Annotation annotation, Class<?> definingClass, String methodName) {
+        String target = "the hook [" + methodName + "] of [" + definingClass.getName() + "]";
+        long timeoutMillis;
+        int maxConcurrent;
+        int breakerThreshold;
+        long breakerOpenMillis;
+        Class<? extends Throwable>[] breakerIgnore;
+        if (annotation instanceof PreHook) {
+            PreHook preHook = (PreHook) annotation;
+            timeoutMillis = preHook.timeoutMillis();
+            maxConcurrent = preHook.maxConcurrent();
+            breakerThreshold = preHook.breakerThreshold();
+            breakerOpenMillis = preHook.breakerOpenMillis();
+            breakerIgnore = preHook.breakerIgnore();
+        } else if (annotation instanceof PostHook) {
+            PostHook postHook = (PostHook) annotation;
+            timeoutMillis = postHook.timeoutMillis();
+            maxConcurrent = postHook.maxConcurrent();
+            breakerThreshold = postHook.breakerThreshold();
+            breakerOpenMillis = postHook.breakerOpenMillis();
+            breakerIgnore = postHook.breakerIgnore();
+        } else if (annotation instanceof ExceptionHook) {
+            ExceptionHook exceptionHook = (ExceptionHook) annotation;
+            timeoutMillis = exceptionHook.timeoutMillis();
+            maxConcurrent = exceptionHook.maxConcurrent();
+            breakerThreshold = exceptionHook.breakerThreshold();
+            breakerOpenMillis = exceptionHook.breakerOpenMillis();
+            breakerIgnore = exceptionHook.breakerIgnore();
+        } else if (annotation instanceof DataInHook) {
+            DataInHook dataInHook = (DataInHook) annotation;
+            timeoutMillis = dataInHook.timeoutMillis();
+            maxConcurrent = dataInHook.maxConcurrent();
+            breakerThreshold = dataInHook.breakerThreshold();
+            breakerOpenMillis = dataInHook.breakerOpenMillis();
+            breakerIgnore = dataInHook.breakerIgnore();
+        } else if (annotation instanceof DataOutHook) {
+            DataOutHook dataOutHook = (DataOutHook) annotation;
+            timeoutMillis = dataOutHook.timeoutMillis();
+            maxConcurrent = dataOutHook.maxConcurrent();
+            breakerThreshold = dataOutHook.breakerThreshold();
+            breakerOpenMillis = dataOutHook.breakerOpenMillis();
+            breakerIgnore = dataOutHook.breakerIgnore();
         } else {
-            return newConstructorInstance(type);
+            return null;
+        }
+
+        // the rejected pre hooks fail closed, so that the target method is not called without their checks, and the rejected
+        // data in hooks are reported, so that they can fall back or leave their parameters unchanged
+        boolean skipRejected = !(annotation instanceof PreHook || annotation instanceof DataInHook);
+        return HookGuard.of(target, timeoutMillis, timeoutMillis > 0 ? getTimeoutExecutor() : null, maxConcurrent, breakerThreshold, breakerOpenMillis, breakerIgnore, skipRejected);
+    }
+
+    private static String getCondition(Annotation annotation) {
+        if (annotation instanceof PreHook) {
+            return ((PreHook) annotation).condition();
+        } else if (annotation instanceof PostHook) {
+            return ((PostHook) annotation).condition();
+        } else if (annotation instanceof ExceptionHook) {
+            return ((ExceptionHook) annotation).condition();
+        } else if (annotation instanceof DataInHook) {
+            return ((DataInHook) annotation).condition();
+        } else if (annotation instanceof DataOutHook) {
+            return ((DataOutHook) annotation).condition();
+        }
+
+        return "";
+    }
+
+    private static boolean isRingBuffered(Annotation annotation) {
+        if (annotation instanceof PostHook) {
+            return ((PostHook) annotation).ringBuffer();
+        } else if (annotation instanceof ExceptionHook) {
+            return ((ExceptionHook) annotation).ringBuffer();
+        } else if (annotation instanceof DataOutHook) {
+            return ((DataOutHook) annotation).ringBuffer();
         }
+
+        return false;
     }
 
     /**
-     * Returns a Spring bean from the application context.
-     * @param type the type of the bean to return
-     * @return the Spring bean or null if the bean does not exist
+     * It returns the ring buffers of the hooks, creating the default dispatcher if none was declared.
+     * It is called while resolving a hook plan, hence under the lock of the plans.
+     * @return the ring buffers of the hooks
      */
-    private Optional<Object> getSpringBean(Class<?> type) {
-        try {
-            return Optional.of(context.getBean(type));
-        } catch (Exception e) {
-            return Optional.empty();
+    private HookRingBuffers getRingBuffers() {
+        if (ringBuffers == null) {
+            ringBuffers = new HookRingBuffers();
+            ownsRingBuffers = true;
         }
+
+        return ringBuffers;
     }
 
     /**
-     * It creates a new object instance of a type.
-     * @param type the type
-     * @return an optional Object created
+     * It returns the executor of the asynchronous hooks, creating the default one if no executor was declared.
+     * It is called while resolving a hook plan, hence under the lock of the plans.
+     * @return the executor of the asynchronous hooks
      */
-    private Optional<Object> newConstructorInstance(Class<?> type) {
+    private Executor getAsyncExecutor() {
+        if (asyncExecutor == null) {
+            asyncExecutor = new AsyncHookExecutor();
+            ownsAsyncExecutor = true;
+        }
+
+        return asyncExecutor;
+    }
+
+    /**
+     * It creates the instances of a hook class according to its scope. A Spring bean of the hook class follows
+     * the scope of the bean, otherwise the instances are created through the constructor of the class.
+     * @param type the hook class
+     * @return the optional instances of the hook class, empty if they cannot be created
+     */
+    private Optional<HookInstances> newHookInstances(Class<?> type) {
+        HookScope hookScope = type.getAnnotation(HookScope.class);
+        HookScope.Scope scope = getHookScope(type, hookScope);
+        int poolSize = hookScope != null ? hookScope.poolSize() : 8;
+        long borrowTimeoutMillis = hookScope != null ? hookScope.borrowTimeoutMillis() : 1000;
+
+        String beanName = getSpringBeanName(type);
+        if (beanName != null) {
+            if (context.isSingleton(beanName)) {
+                return Optional.of(HookInstances.singleton(context.getBean(beanName)));
+            }
+
+            Callable<Object> lookup = () -> context.getBean(beanName);
+            if (context.isPrototype(beanName)) {
+                // every lookup of a prototype bean creates an instance
+                lookup = recordCreation(type, scope, true, lookup);
+            }
+
+            if (scope == HookScope.Scope.SINGLETON || !context.isPrototype(beanName)) {
+                // a prototype bean is created on every call, a bean of any other scope is resolved in the current scope
+                return Optional.of(HookInstances.lookup(lookup));
+            }
+
+            return Optional.of(scope == HookScope.Scope.POOLED ? HookInstances.pooled(lookup, poolSize, borrowTimeoutMillis) : HookInstances.threadLocal(lookup));
+        }
+
+        Callable<Object> factory = recordCreation(type, scope, false, () -> newConstructorInstance(type));
         try {
-            return Optional.of(type.getDeclaredConstructor().newInstance());
+            switch (scope) {
+                case POOLED:
+                    HookInstances pooled = HookInstances.pooled(factory, poolSize, borrowTimeoutMillis);
+                    // the first instance checks that the class can be instantiated
+                    pooled.release(pooled.acquire());
+                    return Optional.of(pooled);
+                case THREAD_LOCAL:
+                    return Optional.of(HookInstances.threadLocal(factory));
+                default:
+                    return Optional.of(HookInstances.singleton(factory.call()));
+            }
         } catch (Exception e) {
             logger.error("An error occurred while creating an instance of " + type.getName(), e);
             return Optional.empty();
         }
     }
 
+    /**
+     * It wraps the creation of the instances of a hook class, so that each creation emits a {@link HookInstanceEvent}.
+     * @param type the hook class
+     * @param scope the scope of the hook class
+     * @param bean true if the instances are Spring beans
+     * @param factory the creation of an instance
+     * @return the recorded creation of an instance
+     */
+    private static Callable<Object> recordCreation(Class<?> type, HookScope.Scope scope, boolean bean, Callable<Object> factory) {
+        return () -> {
+            HookInstanceEvent event = new HookInstanceEvent();
+            event.begin();
+            Object instance = factory.call();
+            event.end();
+            if (event.shouldCommit()) {
+                event.definingClass = type.getName();
+                event.scope = scope.name();
+                event.bean = bean;
+                event.commit();
+            }
+
+            return instance;
+        };
+    }
+
+    /**
+     * It returns the scope of a hook class: the value of the {@code spring.hooks.scope.<class name>} property if set,
+     * otherwise the value of its {@link HookScope} annotation, {@link HookScope.Scope#SINGLETON} by default.
+     */
+    private HookScope.Scope getHookScope(Class<?> type, HookScope hookScope) {
+        String property = context.getEnvironment().getProperty("spring.hooks.scope." + type.getName());
+        if (property != null) {
+            return HookScope.Scope.valueOf(property.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        }
+
+        return hookScope != null ? hookScope.value() : HookScope.Scope.SINGLETON;
+    }
+
+    /**
+     * Returns the name of the Spring bean of a type.
+     * @param type the type of the bean
+     * @return the name of the bean or null if there is no single bean of the type
+     */
+    private String getSpringBeanName(Class<?> type) {
+        String[] names = context.getBeanNamesForType(type);
+        return names.length == 1 ? names[0] : null;
+    }
+
+    /**
+     * It creates a new object instance of a type, through a generated dispatcher if available.
+     * @param type the type
+     * @return the Object created
+     * @throws Exception if the type cannot be instantiated
+     */
+    private Object newConstructorInstance(Class<?> type) throws Exception {
+        Object instance = defaultInvocationEngine.newInstance(type);
+        return instance != null ? instance : type.getDeclaredConstructor().newInstance();
+    }
+
     private static String getSafeHookMethodName(String[] methods, int index, Annotation annotation) {
         if (index < methods.length) {
             return methods[index];
@@ -229,27 +1551,37 @@ public class HooksAOP {
     }
 
     /**
-     * It looks for the hook method. First it looks for a method definition with the {@link Hook} parameter
+     * It looks for the hook method. First it looks for a method definition with the {@link Hook} parameter,
+     * then, if allowed, for a method definition with the {@code List<Hook>} parameter
      * and if such a method does not exist then it looks for parameterless method definition.
      * @param definingClass the defining class of the hook
      * @param methodName the name of the hook method
+     * @param batch true if the hook method can receive the hooks in batches
      * @return the hook method
      * @throws NoSuchMethodException if no method was found for the given methodName
      */
-    private static Method findHookMethod(Class<?> definingClass, String methodName) throws NoSuchMethodException {
+    private static Method findHookMethod(Class<?> definingClass, String methodName, boolean batch) throws NoSuchMethodException {
         List<Method> methods = Arrays.stream(definingClass.getMethods()).filter(m -> m.getName().equals(methodName)).collect(Collectors.toList());
         if (methods.isEmpty()) {
             throw new NoSuchMethodException("No method [" + methodName + "] definition found on [" + definingClass.getName() + "]");
         }
 
         // find method with Hook param definition
-        Method method = findMethodWithParams(methods, new Class[]{Hook.class});
+        Method method = findMethodWithParams(methods, new Class<?>[]{Hook.class});
         if (method != null) {
             return method;
         }
 
+        // find method with List<Hook> param definition
+        if (batch) {
+            method = findMethodWithParams(methods, new Class<?>[]{List.class});
+            if (method != null) {
+                return method;
+            }
+        }
+
         // find method with no param definition
-        method = findMethodWithParams(methods, new Class[]{});
+        method = findMethodWithParams(methods, new Class<?>[]{});
         if (method != null) {
             return method;
         }
@@ -263,4 +1595,59 @@ public class HooksAOP {
                 .findAny()
                 .orElse(null);
     }
+
+    /**
+     * Registers the {@link HooksAspect}, which triggers the hooks through a separate advice for each hook annotation.
+     * This is the default.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(name = "spring.hooks.interceptor.enabled", havingValue = "false", matchIfMissing = true)
+    static class AspectConfiguration {
+
+        @Bean
+        public HooksAspect hooksAspect(HooksAOP hooksAOP) {
+            return new HooksAspect(hooksAOP);
+        }
+    }
+
+    /**
+     * Registers the {@link HooksAdvisor}, which triggers all the hooks of a target method through a single interceptor,
+     * when the {@code spring.hooks.interceptor.enabled} property is {@code true}.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(name = "spring.hooks.interceptor.enabled", havingValue = "true")
+    static class InterceptorConfiguration {
+
+        @Bean
+        public HooksAdvisor hooksAdvisor(HooksAOP hooksAOP) {
+            return new HooksAdvisor(hooksAOP);
+        }
+    }
+
+    /**
+     * Registers the {@link ReactiveHooksAOP} when Reactor is on the classpath.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "reactor.core.publisher.Mono")
+    static class ReactiveConfiguration {
+
+        @Bean
+        public ReactiveHooksAOP reactiveHooksAOP(HooksAOP hooksAOP) {
+            return new ReactiveHooksAOP(hooksAOP);
+        }
+    }
+
+    /**
+     * Registers the {@link HookMetricsEndpoint} when Spring Web is on the classpath and the endpoint is enabled.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.springframework.web.bind.annotation.RestController")
+    @ConditionalOnProperty(name = "spring.hooks.metrics.endpoint.enabled", havingValue = "true")
+    static class MetricsEndpointConfiguration {
+
+        @Bean
+        public HookMetricsEndpoint hookMetricsEndpoint(HookMetrics hookMetrics) {
+            return new HookMetricsEndpoint(hookMetrics);
+        }
+    }
 }
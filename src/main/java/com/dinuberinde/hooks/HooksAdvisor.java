@@ -0,0 +1,44 @@
+package com.dinuberinde.hooks;
+
+import org.aopalliance.aop.Advice;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.support.AbstractPointcutAdvisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.core.Ordered;
+
+/**
+ * Advisor which triggers all the hooks of a target method through a single {@link HooksInterceptor},
+ * instead of a separate advice for each hook annotation as the {@link HooksAspect} does. The hooks run in the same order:
+ * the data in hook, the pre hooks, the target method, the data out or the exception hook and finally the post hooks.
+ * <br>
+ * <p>
+ * It is registered by the {@link HooksAOP}, in place of the {@link HooksAspect}, when the
+ * {@code spring.hooks.interceptor.enabled} property is {@code true}.
+ * </p>
+ */
+public class HooksAdvisor extends AbstractPointcutAdvisor {
+    private final Pointcut pointcut = new ComposablePointcut(AnnotationMatchingPointcut.forMethodAnnotation(PreHook.class))
+            .union(AnnotationMatchingPointcut.forMethodAnnotation(PostHook.class))
+            .union(AnnotationMatchingPointcut.forMethodAnnotation(ExceptionHook.class))
+            .union(AnnotationMatchingPointcut.forMethodAnnotation(DataInHook.class))
+            .union(AnnotationMatchingPointcut.forMethodAnnotation(DataOutHook.class));
+
+    private final HooksInterceptor interceptor;
+
+    HooksAdvisor(HooksAOP hooks) {
+        this.interceptor = new HooksInterceptor(hooks);
+        // like the HooksAspect, it precedes the ReactiveHooksAOP
+        setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+    }
+
+    @Override
+    public Pointcut getPointcut() {
+        return pointcut;
+    }
+
+    @Override
+    public Advice getAdvice() {
+        return interceptor;
+    }
+}
@@ -0,0 +1,204 @@
+package com.dinuberinde.hooks;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.*;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Aspect which triggers the hooks through a separate advice for each hook annotation of a target method.
+ * The hooks are resolved and called by the {@link HooksAOP}, which registers this aspect unless the
+ * {@code spring.hooks.interceptor.enabled} property is {@code true}, in which case the {@link HooksAdvisor} is registered instead.
+ * The aspect precedes the {@link ReactiveHooksAOP}, which may proceed with the target method on another thread.
+ * Spring nests the around advices of an aspect in the alphabetical order of their names, so the advice of the hooks
+ * which run after the target method, {@code returnHooks}, is nested in the advices of the data in and pre hooks:
+ * a pre hook which fails or short-circuits the target method skips it, whatever the return type of the target method.
+ */
+@Aspect
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class HooksAspect {
+    private static final Logger logger = LoggerFactory.getLogger(HooksAspect.class);
+
+    private final HooksAOP hooks;
+
+    HooksAspect(HooksAOP hooks) {
+        this.hooks = hooks;
+    }
+
+    /**
+     * Handler of {@link PreHook} annotation. If a pre hook short-circuits the target method, its value is returned
+     * in place of the target method and the data out and post hooks run with it. If the results of the pre hooks
+     * are memoized, the nested advised calls reuse them until this call returns.
+     *
+     * @param joinPoint the proceeding join point
+     * @param preHook the annotation
+     * @return the result of the target annotated method or the value of the short-circuit result of a pre hook
+     * @throws Throwable if errors occur
+     */
+    @Around("@annotation(preHook)")
+    public Object preHook(ProceedingJoinPoint joinPoint, PreHook preHook) throws Throwable {
+        HookPlan plan = hooks.getHookPlan(joinPoint);
+        if (!plan.memoized) {
+            return preHook(joinPoint, plan);
+        }
+
+        HookMemo memo = HookMemo.enter();
+        try {
+            return preHook(joinPoint, plan);
+        } finally {
+            memo.exit();
+        }
+    }
+
+    private Object preHook(ProceedingJoinPoint joinPoint, HookPlan plan) throws Throwable {
+        Object[] args = getArgs(joinPoint, plan);
+        HookInvocation invocation = HookInvocation.enter(joinPoint);
+        try {
+            HookResult<?> shortCircuit = hooks.callPreHooks(plan, args);
+            if (shortCircuit != null) {
+                // the advice of the post, data out and exception hooks is nested in this advice, so it does not run
+                return hooks.completeShortCircuit(plan, args, shortCircuit.getValue());
+            }
+        } finally {
+            invocation.exit();
+        }
+
+        return joinPoint.proceed();
+    }
+
+    /**
+     * Handler of the {@link DataInHook} annotation. If the results of the data in hooks are memoized,
+     * the nested advised calls reuse them until this call returns. A data in hook which fails leaves its argument unchanged,
+     * while a data in hook which times out without a fallback fails the call, as a pre hook, with a {@link HookRejectedException}.
+     *
+     * @param joinPoint the proceeding join point
+     * @param dataInHook the annotation
+     * @return the result of the target annotated method
+     * @throws Throwable if errors occur
+     */
+    @Around("@annotation(dataInHook)")
+    public Object dataInHook(ProceedingJoinPoint joinPoint, DataInHook dataInHook) throws Throwable {
+        Object[] args = joinPoint.getArgs();
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        HookPlan plan = hooks.getHookPlan(method);
+        HookMemo memo = plan.memoized ? HookMemo.enter() : null;
+        HookInvocation invocation = HookInvocation.enter(joinPoint);
+        try {
+            // a supplied publisher is resolved by the ReactiveHooksAOP
+            if (!plan.reactiveDataIn) {
+                hooks.supplyDataIn(method, plan, args);
+            }
+        } catch (HookRejectedException e) {
+            if (memo != null) {
+                memo.exit();
+            }
+
+            throw e;
+        } catch (Exception e) {
+            logger.error("[DATA-IN hook error]", e);
+        } finally {
+            invocation.exit();
+        }
+
+        try {
+            return joinPoint.proceed(args);
+        } finally {
+            if (memo != null) {
+                memo.exit();
+            }
+        }
+    }
+
+    /**
+     * Handler of the {@link PostHook}, {@link ExceptionHook} and {@link DataOutHook} annotations. The data out hook
+     * runs with the result of the target method, the exception hook with its exception, and the post hooks in any case.
+     * The hooks of the target methods returning a publisher or a completion stage are attached to their result instead.
+     * The target method is timed, so that the hooks can read its elapsed time.
+     *
+     * @param joinPoint the proceeding join point
+     * @return the result of the target annotated method
+     * @throws Throwable if errors occur
+     */
+    @Around("@annotation(com.dinuberinde.hooks.PostHook) || @annotation(com.dinuberinde.hooks.ExceptionHook) || @annotation(com.dinuberinde.hooks.DataOutHook)")
+    public Object returnHooks(ProceedingJoinPoint joinPoint) throws Throwable {
+        HookPlan plan = hooks.getHookPlan(joinPoint);
+        if (plan.completionStage) {
+            return completionStageHooks(joinPoint, plan);
+        }
+
+        if (plan.deferred) {
+            return joinPoint.proceed();
+        }
+
+        Object[] args = getArgs(joinPoint, plan);
+        HookInvocation invocation = HookInvocation.enter(joinPoint);
+        try {
+            Object result;
+            invocation.start();
+            try {
+                result = joinPoint.proceed();
+            } catch (Exception e) {
+                invocation.end();
+                if (plan.exceptionHook != null) {
+                    hooks.callExceptionHook(plan, args, e);
+                }
+
+                throw e;
+            }
+
+            invocation.end();
+            if (plan.dataOutHook != null) {
+                hooks.callDataOutHook(plan, args, result);
+            }
+
+            return result;
+        } finally {
+            if (plan.postHooks.length > 0) {
+                hooks.callPostHooks(plan, args);
+            }
+
+            invocation.exit();
+        }
+    }
+
+    /**
+     * It attaches the post, exception and data out hooks of a target method returning a {@link CompletionStage} to the
+     * completion of the returned stage. They run on the thread which completes it, or on the executor of the asynchronous
+     * hooks if they are asynchronous. If the target method throws instead of returning a stage, the hooks run right away.
+     * The target method is timed until the completion of the stage.
+     */
+    private Object completionStageHooks(ProceedingJoinPoint joinPoint, HookPlan plan) throws Throwable {
+        Object[] args = getArgs(joinPoint, plan);
+        HookInvocation invocation = HookInvocation.enter(joinPoint);
+        try {
+            Object result;
+            invocation.start();
+            try {
+                result = joinPoint.proceed();
+            } catch (Exception e) {
+                invocation.end();
+                hooks.callCompletionHooks(plan, args, null, e);
+                throw e;
+            }
+
+            hooks.attachCompletionHooks(plan, args, (CompletionStage<?>) result);
+            return result;
+        } finally {
+            invocation.exit();
+        }
+    }
+
+    /**
+     * It returns the arguments of the target method if the hooks have conditions, since they are copied on every call.
+     */
+    private static Object[] getArgs(JoinPoint joinPoint, HookPlan plan) {
+        return plan.conditional ? joinPoint.getArgs() : null;
+    }
+}
@@ -0,0 +1,116 @@
+package com.dinuberinde.hooks;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Interceptor which runs all the hooks of a target method from its hook plan, in the order of the separate
+ * advices of the {@link HooksAspect}: the data in hook, the pre hooks, the target method, the data out
+ * or the exception hook and finally the post hooks. A pre hook can short-circuit the target method through a {@link HookResult}. The hooks of the target methods returning a publisher
+ * are left to the {@link ReactiveHooksAOP}.
+ */
+final class HooksInterceptor implements MethodInterceptor {
+    private static final Logger logger = LoggerFactory.getLogger(HooksInterceptor.class);
+
+    private final HooksAOP hooks;
+
+    HooksInterceptor(HooksAOP hooks) {
+        this.hooks = hooks;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        HookPlan plan = hooks.getHookPlan(method);
+        if (!plan.memoized) {
+            return invoke(invocation, method, plan);
+        }
+
+        // the nested advised calls reuse the memoized results of the hooks until this call returns
+        HookMemo memo = HookMemo.enter();
+        try {
+            return invoke(invocation, method, plan);
+        } finally {
+            memo.exit();
+        }
+    }
+
+    private Object invoke(MethodInvocation invocation, Method method, HookPlan plan) throws Throwable {
+        // the hooks which run on this thread expose the invocation through their Hook
+        HookInvocation context = HookInvocation.enter(invocation);
+        try {
+            return invoke(invocation, method, plan, context);
+        } finally {
+            context.exit();
+        }
+    }
+
+    private Object invoke(MethodInvocation invocation, Method method, HookPlan plan, HookInvocation context) throws Throwable {
+        Object[] args = plan.conditional ? invocation.getArguments() : null;
+
+        if (plan.dataInHook != null && !plan.reactiveDataIn) {
+            try {
+                // the arguments of the invocation are supplied in place
+                hooks.supplyDataIn(method, plan, invocation.getArguments());
+            } catch (HookRejectedException e) {
+                // a data in hook which timed out without a fallback fails the call, as a pre hook
+                throw e;
+            } catch (Exception e) {
+                logger.error("[DATA-IN hook error]", e);
+            }
+        }
+
+        HookResult<?> shortCircuit = plan.preHooks.length > 0 ? hooks.callPreHooks(plan, args) : null;
+
+        if (shortCircuit != null) {
+            return hooks.completeShortCircuit(plan, args, shortCircuit.getValue());
+        }
+
+        if (plan.completionStage) {
+            // the target method is timed until the completion of its stage
+            Object result;
+            context.start();
+            try {
+                result = invocation.proceed();
+            } catch (Exception e) {
+                context.end();
+                hooks.callCompletionHooks(plan, args, null, e);
+                throw e;
+            }
+
+            hooks.attachCompletionHooks(plan, args, (CompletionStage<?>) result);
+            return result;
+        }
+
+        if (plan.deferred) {
+            return invocation.proceed();
+        }
+
+        try {
+            context.start();
+            Object result = invocation.proceed();
+            context.end();
+            if (plan.dataOutHook != null) {
+                hooks.callDataOutHook(plan, args, result);
+            }
+
+            return result;
+        } catch (Exception e) {
+            context.end();
+            if (plan.exceptionHook != null) {
+                hooks.callExceptionHook(plan, args, e);
+            }
+
+            throw e;
+        } finally {
+            if (plan.postHooks.length > 0) {
+                hooks.callPostHooks(plan, args);
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.dinuberinde.hooks;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * Engine which binds hook methods to functional interfaces generated through the {@link LambdaMetafactory},
+ * so that a hook call is a plain interface call the JIT compiler can inline.
+ * If the functional interface cannot be generated, for example because the defining class of the hook
+ * is not accessible, the hook method is bound through the {@link MethodHandleHookInvocationEngine}.
+ */
+public class LambdaHookInvocationEngine implements HookInvocationEngine {
+    private static final Logger logger = LoggerFactory.getLogger(LambdaHookInvocationEngine.class);
+
+    private final HookInvocationEngine fallback = new MethodHandleHookInvocationEngine();
+
+    @Override
+    public HookInvoker bind(Method hookMethod) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(hookMethod.getDeclaringClass(), MethodHandles.lookup());
+            MethodHandle handle = lookup.unreflect(hookMethod);
+            boolean returnsVoid = hookMethod.getReturnType() == void.class;
+
+            if (hookMethod.getParameterCount() == 0) {
+                if (returnsVoid) {
+                    VoidCall call = generate(lookup, handle, VoidCall.class, MethodType.methodType(void.class, Object.class));
+                    return (instance, argument) -> {
+                        call.call(instance);
+                        return null;
+                    };
+                }
+
+                Call call = generate(lookup, handle, Call.class, MethodType.methodType(Object.class, Object.class));
+                return (instance, argument) -> call.call(instance);
+            }
+
+            if (returnsVoid) {
+                VoidArgumentCall call = generate(lookup, handle, VoidArgumentCall.class, MethodType.methodType(void.class, Object.class, Object.class));
+                return (instance, argument) -> {
+                    call.call(instance, argument);
+                    return null;
+                };
+            }
+
+            ArgumentCall call = generate(lookup, handle, ArgumentCall.class, MethodType.methodType(Object.class, Object.class, Object.class));
+            return call::call;
+        } catch (Throwable e) {
+            logger.debug("Cannot generate a functional interface for [" + hookMethod + "], falling back to a method handle", e);
+            return fallback.bind(hookMethod);
+        }
+    }
+
+    /**
+     * It generates an implementation of a functional interface which calls the hook method.
+     * @param lookup the lookup of the defining class of the hook
+     * @param handle the direct method handle of the hook method
+     * @param type the functional interface
+     * @param erasedType the erased type of the method of the functional interface
+     * @return the implementation of the functional interface
+     * @throws Throwable if the implementation cannot be generated
+     */
+    private static <T> T generate(MethodHandles.Lookup lookup, MethodHandle handle, Class<T> type, MethodType erasedType) throws Throwable {
+        CallSite site = LambdaMetafactory.metafactory(lookup, "call", MethodType.methodType(type), erasedType, handle, handle.type());
+        return type.cast(site.getTarget().invoke());
+    }
+
+    /**
+     * Shape of a parameterless hook method which returns void. It is public since it is implemented
+     * by classes generated in the package of the hook.
+     */
+    @FunctionalInterface
+    public interface VoidCall {
+        void call(Object instance);
+    }
+
+    /**
+     * Shape of a parameterless hook method which returns a value.
+     */
+    @FunctionalInterface
+    public interface Call {
+        Object call(Object instance);
+    }
+
+    /**
+     * Shape of a hook method with a parameter which returns void.
+     */
+    @FunctionalInterface
+    public interface VoidArgumentCall {
+        void call(Object instance, Object argument);
+    }
+
+    /**
+     * Shape of a hook method with a parameter which returns a value.
+     */
+    @FunctionalInterface
+    public interface ArgumentCall {
+        Object call(Object instance, Object argument);
+    }
+}
@@ -0,0 +1,39 @@
+package com.dinuberinde.hooks;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * Engine which invokes hook methods through a {@link MethodHandle} adapted to the
+ * {@code (Object, Object)Object} shape of the {@link HookInvoker}.
+ * If a method handle cannot be obtained, the hook method is invoked through reflection.
+ */
+public class MethodHandleHookInvocationEngine implements HookInvocationEngine {
+    private static final Logger logger = LoggerFactory.getLogger(MethodHandleHookInvocationEngine.class);
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object.class);
+
+    private final HookInvocationEngine fallback = new ReflectiveHookInvocationEngine();
+
+    @Override
+    public HookInvoker bind(Method hookMethod) {
+        try {
+            ReflectionUtils.makeAccessible(hookMethod);
+            MethodHandle handle = MethodHandles.lookup().unreflect(hookMethod);
+            if (hookMethod.getParameterCount() == 0) {
+                handle = MethodHandles.dropArguments(handle, 1, Object.class);
+            }
+
+            MethodHandle invoker = handle.asType(INVOKER_TYPE);
+            return (instance, argument) -> (Object) invoker.invokeExact(instance, argument);
+        } catch (IllegalAccessException | RuntimeException e) {
+            logger.warn("Cannot bind a method handle to [" + hookMethod + "], falling back to reflection", e);
+            return fallback.bind(hookMethod);
+        }
+    }
+}
@@ -24,6 +24,11 @@ import java.lang.annotation.*;
  * The hook method must be {@code public} and accepts {@link Hook} as an optional parameter.
  * The default name of the hook method is <strong>pre</strong>
  * </p>
+ *
+ * <p>
+ * A hook method which returns a short-circuit {@link HookResult} bypasses the target method:
+ * the value of the result is returned in its place and the data out and post hooks still run.
+ * </p>
  */
 @Documented
 @Retention(RetentionPolicy.RUNTIME)
@@ -44,4 +49,67 @@ public @interface PreHook {
      * The tag of the hook
      */
     String tag() default "";
+
+    /**
+     * If true, the hook methods of the defining classes run concurrently instead of one after another.
+     * A hook class can declare, through {@link HookDependsOn}, the hook classes that must complete before its hook method.
+     * The target method proceeds once all the hooks have completed and fails with the exception of the first failed hook.
+     */
+    boolean parallel() default false;
+
+    /**
+     * The share of the invocations of the target method which call each hook method, between 0 and 1.
+     * The skipped invocations do not create a {@link Hook} nor look up the hook instance
+     */
+    double sampleRate() default 1.0;
+
+    /**
+     * The maximum number of calls per second of each hook method, 0 for no limit. The calls over the limit are skipped
+     */
+    int maxPerSecond() default 0;
+
+    /**
+     * The scope in which the result of each hook method is memoized, so that the nested advised calls with a hook of the same
+     * hook class, hook method and tag reuse it, by default none
+     */
+    HookMemoization memoize() default HookMemoization.NONE;
+
+    /**
+     * The SpEL condition which must be true for the hook method to be called, empty to always call it.
+     * The arguments of the target method are available as {@code args} and the tag as {@code tag}.
+     * The expression is parsed once and, when SpEL supports it, compiled to bytecode after its first evaluations
+     */
+    String condition() default "";
+
+    /**
+     * The maximum time in milliseconds the caller waits for each hook method, 0 to wait until it returns.
+     * With a timeout the hook method runs on a separate thread, and a call over the timeout counts as a failure
+     * whose result is not waited for. Since the pre hooks fail closed, the timed out call fails
+     * with a {@link HookRejectedException} and the target method is not called
+     */
+    long timeoutMillis() default 0;
+
+    /**
+     * The maximum number of concurrent calls of each hook method, 0 for no limit. The calls over the limit fail
+     * with a {@link HookRejectedException} and the target method is not called
+     */
+    int maxConcurrent() default 0;
+
+    /**
+     * The number of consecutive failures of each hook method which opens its circuit breaker, 0 for no breaker.
+     * While the breaker is open the calls fail with a {@link HookRejectedException} and the target method is not called,
+     * until a probe call succeeds after {@link #breakerOpenMillis()}
+     */
+    int breakerThreshold() default 0;
+
+    /**
+     * The time in milliseconds a circuit breaker stays open before a probe call is let through
+     */
+    long breakerOpenMillis() default 5000;
+
+    /**
+     * The exceptions of the hook method which do not count as failures of its circuit breaker, such as the exception
+     * which denies the call of the target method: they still fail the call
+     */
+    Class<? extends Throwable>[] breakerIgnore() default {};
 }
@@ -0,0 +1,239 @@
+package com.dinuberinde.hooks;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Aspect which attaches the hooks of the target methods returning a Reactor {@code Mono} or {@code Flux}
+ * to the signals of the returned publisher, instead of to the invocation of the target method:
+ * the {@link DataOutHook} receives the emitted elements, the {@link ExceptionHook} the error signal
+ * and the {@link PostHook} runs on termination, cancellation included.
+ * A {@link DataInHook} hook method may return a {@code Mono}, which is resolved before the target method is invoked.
+ * <br>
+ * <p>
+ * The hook methods of a subscription run in signal order on a worker of the bounded elastic scheduler,
+ * so that they never block the event loop. The aspect is registered by the {@link HooksAOP} when Reactor is on the classpath.
+ * </p>
+ */
+@Aspect
+public class ReactiveHooksAOP {
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveHooksAOP.class);
+
+    private final HooksAOP hooks;
+
+    ReactiveHooksAOP(HooksAOP hooks) {
+        this.hooks = hooks;
+        hooks.enableReactiveHooks(this);
+    }
+
+    /**
+     * Handler of the {@link PostHook}, {@link ExceptionHook} and {@link DataOutHook} annotations of the target methods returning a publisher.
+     *
+     * @param joinPoint the proceeding join point
+     * @return the result of the target annotated method, with the hooks attached if it is a publisher
+     * @throws Throwable if errors occur
+     */
+    @Around("@annotation(com.dinuberinde.hooks.PostHook) || @annotation(com.dinuberinde.hooks.ExceptionHook) || @annotation(com.dinuberinde.hooks.DataOutHook)")
+    public Object reactiveHooks(ProceedingJoinPoint joinPoint) throws Throwable {
+        HookPlan plan = hooks.getHookPlan(((MethodSignature) joinPoint.getSignature()).getMethod());
+        if (!plan.reactive) {
+            return joinPoint.proceed();
+        }
+
+        Object[] args = plan.conditional ? joinPoint.getArgs() : null;
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Exception e) {
+            // the target method failed before returning a publisher
+            HookSignals signals = new HookSignals(plan, args, false);
+            signals.error(e);
+            signals.terminate();
+            throw e;
+        }
+
+        return attachHooks(plan, args, result);
+    }
+
+    /**
+     * It attaches the post, exception and data out hooks of a plan to the signals of a publisher.
+     * @param plan the hook plan
+     * @param args the arguments of the target method, null if the hooks have no conditions
+     * @param result the publisher returned by the target method or in its place, possibly null
+     * @return the publisher with the hooks attached, null if the result is null
+     */
+    Object attachHooks(HookPlan plan, Object[] args, Object result) {
+        if (result instanceof Mono) {
+            Mono<?> mono = (Mono<?>) result;
+            return Mono.defer(() -> {
+                HookSignals signals = new HookSignals(plan, args, true);
+                return mono.doOnNext(signals::next)
+                        .doOnSuccess(value -> signals.complete())
+                        .doOnError(signals::error)
+                        .doFinally(signal -> signals.terminate());
+            });
+        }
+
+        if (result != null) {
+            Publisher<?> publisher = (Publisher<?>) result;
+            return Flux.defer(() -> {
+                HookSignals signals = new HookSignals(plan, args, false);
+                return Flux.from(publisher)
+                        .doOnNext(signals::next)
+                        .doOnComplete(signals::complete)
+                        .doOnError(signals::error)
+                        .doFinally(signal -> signals.terminate());
+            });
+        }
+
+        new HookSignals(plan, args, false).terminate();
+        return null;
+    }
+
+    /**
+     * Handler of the {@link DataInHook} annotation of the target methods returning a publisher, with a single
+     * {@link DataIn} parameter whose hook method returns a {@code Mono}. The target method is invoked with the supplied element once the {@code Mono} emits it,
+     * or with its original arguments if the {@code Mono} is empty or fails. A hook call which times out fails the call,
+     * as in {@link HooksAspect}, while a hook call skipped by its breaker or its bulkhead leaves the arguments unchanged.
+     *
+     * @param joinPoint the proceeding join point
+     * @param dataInHook the annotation
+     * @return the result of the target annotated method, invoked once the supplied element is available
+     * @throws Throwable if errors occur
+     */
+    @Around("@annotation(dataInHook)")
+    public Object reactiveDataInHook(ProceedingJoinPoint joinPoint, DataInHook dataInHook) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        HookPlan plan = hooks.getHookPlan(method);
+        if (!plan.reactiveDataIn) {
+            return joinPoint.proceed();
+        }
+
+        Object[] args = joinPoint.getArgs();
+        DataInParameter parameter = plan.dataInParameters[0];
+        if (!parameter.hook.admit(args, null, null)) {
+            return joinPoint.proceed(args);
+        }
+
+        Mono<Object[]> suppliedArgs;
+        try {
+            int index = parameter.index;
+            Mono<?> supplied = (Mono<?>) hooks.callHook(parameter.hook, null, null);
+            suppliedArgs = supplied
+                    .map(element -> {
+                        Object[] copy = args.clone();
+                        copy[index] = element;
+                        return copy;
+                    })
+                    .onErrorResume(e -> {
+                        logger.error("[DATA-IN hook error]", e);
+                        return Mono.empty();
+                    })
+                    .defaultIfEmpty(args);
+        } catch (HookRejectedException e) {
+            if (e.getReason() == HookRejectedException.Reason.TIMEOUT) {
+                throw e;
+            }
+
+            logger.debug("[DATA-IN hook] {}", e.getMessage());
+            return joinPoint.proceed(args);
+        } catch (Exception e) {
+            logger.error("[DATA-IN hook error]", e);
+            return joinPoint.proceed(args);
+        }
+
+        if (Mono.class.equals(method.getReturnType())) {
+            return suppliedArgs.flatMap(suppliedArguments -> Mono.from(proceed(joinPoint, suppliedArguments)));
+        }
+
+        return suppliedArgs.flatMapMany(suppliedArguments -> proceed(joinPoint, suppliedArguments));
+    }
+
+    private static Publisher<?> proceed(ProceedingJoinPoint joinPoint, Object[] args) {
+        try {
+            Publisher<?> result = (Publisher<?>) joinPoint.proceed(args);
+            return result != null ? result : Mono.empty();
+        } catch (Throwable e) {
+            return Mono.error(e);
+        }
+    }
+
+    /**
+     * The hook calls of a subscription to the publisher returned by a target method. The calls are scheduled,
+     * in signal order, on a dedicated worker which is disposed after the post hooks.
+     */
+    private final class HookSignals {
+        private final HookPlan plan;
+        private final Object[] args;
+        private final boolean mono;
+        private final Scheduler.Worker worker = Schedulers.boundedElastic().createWorker();
+
+        /**
+         * The emitted elements, if the data out hook is called on completion. The signals
+         * of a subscription are serialized, so no synchronization is needed.
+         */
+        private final List<Object> elements;
+
+        private HookSignals(HookPlan plan, Object[] args, boolean mono) {
+            this.plan = plan;
+            this.args = args;
+            this.mono = mono;
+            this.elements = plan.dataOutHook != null && plan.dataOutOnCompletion ? new ArrayList<>() : null;
+        }
+
+        private void next(Object element) {
+            if (elements != null) {
+                elements.add(element);
+            } else if (plan.dataOutHook != null) {
+                schedule(() -> hooks.callDataOutHook(plan, args, element));
+            }
+        }
+
+        private void complete() {
+            if (elements != null) {
+                Object dataOut = mono ? (elements.isEmpty() ? null : elements.get(0)) : List.copyOf(elements);
+                schedule(() -> hooks.callDataOutHook(plan, args, dataOut));
+            }
+        }
+
+        private void error(Throwable error) {
+            if (plan.exceptionHook != null && error instanceof Exception) {
+                schedule(() -> hooks.callExceptionHook(plan, args, (Exception) error));
+            }
+        }
+
+        private void terminate() {
+            schedule(() -> {
+                try {
+                    if (plan.postHooks.length > 0) {
+                        hooks.callPostHooks(plan, args);
+                    }
+                } finally {
+                    worker.dispose();
+                }
+            });
+        }
+
+        private void schedule(Runnable task) {
+            try {
+                worker.schedule(task);
+            } catch (RejectedExecutionException e) {
+                logger.warn("[REACTIVE hooks] scheduler unavailable, hook call dropped");
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.dinuberinde.hooks;
+
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+
+/**
+ * Engine which invokes hook methods through Java reflection.
+ * It is the fallback of the other engines when a hook method cannot be bound otherwise.
+ */
+public class ReflectiveHookInvocationEngine implements HookInvocationEngine {
+    private static final Object[] NO_ARGS = new Object[0];
+
+    @Override
+    public HookInvoker bind(Method hookMethod) {
+        if (hookMethod.getParameterCount() == 0) {
+            return (instance, argument) -> ReflectionUtils.invokeMethod(hookMethod, instance, NO_ARGS);
+        }
+
+        return (instance, argument) -> ReflectionUtils.invokeMethod(hookMethod, instance, argument);
+    }
+}
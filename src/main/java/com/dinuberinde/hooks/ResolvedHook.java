@@ -0,0 +1,224 @@
+package com.dinuberinde.hooks;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * A hook method resolved once for an advised target method, together with
+ * the object instances on which the hook method gets invoked.
+ */
+final class ResolvedHook {
+
+    /**
+     * The name of the hook type, used for logging.
+     */
+    final String hookName;
+
+    /**
+     * The defining class of the hook.
+     */
+    final Class<?> definingClass;
+
+    /**
+     * The name of the hook method.
+     */
+    final String methodName;
+
+    /**
+     * The tag of the hook.
+     */
+    final String tag;
+
+    /**
+     * The hook method or null if no suitable method was found.
+     */
+    private final Method method;
+
+    /**
+     * The invoker bound to the hook method or null if no suitable method was found.
+     */
+    final HookInvoker invoker;
+
+    /**
+     * The instances of the hook class, acquired for each call, or null if no instance could be created.
+     */
+    final HookInstances instances;
+
+    /**
+     * The executor of the hook if it is asynchronous, null if the hook runs on the caller thread.
+     */
+    final Executor executor;
+
+    /**
+     * The ring buffer of the hook class if the hook is dispatched through a ring buffer, null otherwise.
+     */
+    final HookRingBuffer ringBuffer;
+
+    /**
+     * True if the hook method accepts the {@link Hook} parameter, false if it is parameterless.
+     */
+    final boolean hookParameter;
+
+    /**
+     * True if the hook method accepts a {@code List<Hook>} parameter, receiving the hooks in batches.
+     */
+    final boolean batchParameter;
+
+    /**
+     * The {@link Hook} passed to the hook method when the hook carries only the tag, shared by all the calls.
+     */
+    final Hook tagHook;
+
+    /**
+     * The {@link Hook}s recycled per thread when the hook carries data, null if the hook did not opt in.
+     */
+    private final ThreadLocal<ReusableHook> reusableHooks;
+
+    /**
+     * The invocation statistics of the hook method.
+     */
+    final HookStats stats;
+
+    /**
+     * The admission of the calls of the hook or null if every call is admitted.
+     */
+    final HookSampler sampler;
+
+    /**
+     * The condition of the calls of the hook or null if the hook is called unconditionally.
+     */
+    final HookCondition condition;
+
+    /**
+     * The timeout, bulkhead and circuit breaker of the calls of the hook or null if the calls are not guarded.
+     */
+    final HookGuard guard;
+
+    /**
+     * The listeners registered in the {@link HookRegistry} for the tag of the hook, null if the hook has no tag.
+     */
+    final HookRegistry.TagListeners listeners;
+
+    /**
+     * The key of the results of the hook method memoized by the {@link HookMemo}, shared by the hooks with the same
+     * hook class, hook method and tag.
+     */
+    final String memoKey;
+
+    /**
+     * The reason why the hook method could not be resolved, null if it was resolved.
+     */
+    private final String failure;
+
+    /**
+     * The reason why the hook annotation is invalid, null if it is valid.
+     */
+    final String invalid;
+
+    ResolvedHook(String hookName, Class<?> definingClass, String methodName, String tag, Method method, HookInvoker invoker, HookInstances instances, boolean reuseHook, Executor executor, HookRingBuffer ringBuffer, HookSampler sampler, HookCondition condition, HookGuard guard, HookRegistry.TagListeners listeners, HookStats stats) {
+        this.hookName = hookName;
+        this.definingClass = definingClass;
+        this.methodName = methodName;
+        this.tag = tag;
+        this.memoKey = definingClass.getName() + '#' + methodName + '#' + tag;
+        this.method = method;
+        this.invoker = invoker;
+        this.instances = instances;
+        this.executor = executor;
+        this.ringBuffer = ringBuffer;
+        this.hookParameter = method.getParameterCount() == 1 && method.getParameterTypes()[0] == Hook.class;
+        this.batchParameter = method.getParameterCount() == 1 && method.getParameterTypes()[0] == List.class;
+        this.tagHook = new Hook(tag);
+        this.reusableHooks = reuseHook && hookParameter ? ThreadLocal.withInitial(() -> new ReusableHook(tag)) : null;
+        this.sampler = sampler;
+        this.condition = condition;
+        this.guard = guard;
+        this.listeners = listeners;
+        this.stats = stats;
+        this.failure = null;
+        this.invalid = null;
+    }
+
+    /**
+     * Creates a hook whose calls fail, since its hook method could not be resolved or its annotation is invalid.
+     * @param failure the reason why the hook method could not be resolved or why the hook annotation is invalid
+     * @param invalid true if the hook annotation is invalid, false if the hook method could not be resolved
+     */
+    ResolvedHook(String hookName, Class<?> definingClass, String methodName, String tag, Executor executor, HookRingBuffer ringBuffer, HookSampler sampler, HookCondition condition, HookGuard guard, HookRegistry.TagListeners listeners, String failure, boolean invalid) {
+        this.hookName = hookName;
+        this.definingClass = definingClass;
+        this.methodName = methodName;
+        this.tag = tag;
+        this.memoKey = definingClass.getName() + '#' + methodName + '#' + tag;
+        this.method = null;
+        this.invoker = null;
+        this.instances = null;
+        this.executor = executor;
+        this.ringBuffer = ringBuffer;
+        this.hookParameter = false;
+        this.batchParameter = false;
+        this.tagHook = null;
+        this.reusableHooks = null;
+        this.sampler = sampler;
+        this.condition = condition;
+        this.guard = guard;
+        this.listeners = listeners;
+        this.stats = null;
+        this.failure = failure;
+        this.invalid = invalid ? failure : null;
+    }
+
+    /**
+     * It decides if a call of the hook is admitted by its condition, then by its sample rate and maximum rate.
+     * @param args the arguments of the target method, null if the hook has no condition
+     * @param result the result of the target method if any
+     * @param exception the exception of the target method if any
+     * @return true if the hook must be called, false if the call is skipped
+     */
+    boolean admit(Object[] args, Object result, Exception exception) {
+        return (condition == null || condition.test(args, result, exception)) && (sampler == null || sampler.admit());
+    }
+
+    /**
+     * It returns the hook method.
+     * @return the hook method
+     * @throws NoSuchMethodException if no suitable hook method was found for this hook
+     * @throws IllegalStateException if the hook annotation is invalid
+     */
+    Method method() throws NoSuchMethodException {
+        if (invalid != null) {
+            throw new IllegalStateException(invalid);
+        }
+
+        if (method == null) {
+            throw new NoSuchMethodException(failure);
+        }
+
+        return method;
+    }
+
+    /**
+     * It checks if the hook method returns a Reactor {@code Mono}.
+     * @return true if the hook method was found and returns a {@code Mono}
+     */
+    boolean returnsMono() {
+        return method != null && method.getReturnType().getName().equals("reactor.core.publisher.Mono");
+    }
+
+    /**
+     * It acquires the {@link Hook} of the current thread for a call of the hook method.
+     * The hook must be released after the call.
+     * @param dataOut the data out of the hook if any
+     * @param exception the exception of the hook if any
+     * @return the acquired hook or null if the hook did not opt in or if the hook is in use by a reentrant call
+     */
+    ReusableHook acquireReusableHook(Object dataOut, Exception exception) {
+        if (reusableHooks == null) {
+            return null;
+        }
+
+        ReusableHook hook = reusableHooks.get();
+        return hook.acquire(dataOut, exception) ? hook : null;
+    }
+}
@@ -0,0 +1,53 @@
+package com.dinuberinde.hooks;
+
+/**
+ * A {@link Hook} which is recycled across the calls of a hook on the same thread,
+ * so that the data of the hook can be passed without allocating a new {@link Hook}.
+ * It is used only for synchronous hooks that opted in, since the hook method
+ * must not retain the {@link Hook} after it returns.
+ */
+final class ReusableHook extends Hook {
+    private Object dataOut;
+    private Exception exception;
+    private boolean inUse;
+
+    ReusableHook(String tag) {
+        super(tag);
+    }
+
+    @Override
+    public Object getDataOut() {
+        return dataOut;
+    }
+
+    @Override
+    public Exception getException() {
+        return exception;
+    }
+
+    /**
+     * It acquires this hook for a call of the hook method.
+     * @param dataOut the data out of the hook if any
+     * @param exception the exception of the hook if any
+     * @return true if the hook was acquired, false if it is already in use by a reentrant call
+     */
+    boolean acquire(Object dataOut, Exception exception) {
+        if (inUse) {
+            return false;
+        }
+
+        this.inUse = true;
+        this.dataOut = dataOut;
+        this.exception = exception;
+        return true;
+    }
+
+    /**
+     * It releases this hook after the call of the hook method, dropping the references to its data.
+     */
+    void release() {
+        this.dataOut = null;
+        this.exception = null;
+        this.inUse = false;
+    }
+}
@@ -0,0 +1,96 @@
+import com.dinuberinde.hooks.HooksAOP;
+import com.dinuberinde.hooks.HooksAdvisor;
+import controller.Controller;
+import controller.OrderService;
+import hooks.EdgeCacheHook;
+import hooks.GuardedHook;
+import hooks.InvocationHook;
+import hooks.LogHookComponent;
+import hooks.SequenceHook;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AspectJPrecedenceInformation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.aspectj.annotation.AnnotationAwareAspectJAutoProxyCreator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = {Controller.class, OrderService.class, HooksAOP.class, LogHookComponent.class}, properties = {"spring.hooks.interceptor.enabled=true", "spring.hooks.outbox.dir=target/hooks-outbox-interceptor"})
+@AutoConfigureMockMvc
+@Import(AnnotationAwareAspectJAutoProxyCreator.class)
+@EnableWebMvc
+public class HookInterceptorTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private Controller controller;
+
+    @Test
+    public void shouldTriggerHooksThroughSingleInterceptor() throws Exception {
+        Advisor[] advisors = ((Advised) controller).getAdvisors();
+        assertEquals(1, Arrays.stream(advisors).filter(advisor -> advisor instanceof HooksAdvisor).count());
+        assertTrue(Arrays.stream(advisors).noneMatch(advisor -> advisor instanceof AspectJPrecedenceInformation
+                && "hooksAspect".equals(((AspectJPrecedenceInformation) advisor).getAspectName())));
+
+        SequenceHook.events.clear();
+        String content = mockMvc.perform(get("/sequence").contentType("application/json"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("supplied", content);
+        assertEquals(List.of("dataIn", "pre", "target:supplied", "dataOut:supplied", "post"), SequenceHook.events);
+
+        SequenceHook.events.clear();
+        try {
+            mockMvc.perform(get("/sequence?fail=true").contentType("application/json"));
+        } catch (Exception e) {
+            // the exception of the target method is rethrown
+        }
+        assertEquals(List.of("dataIn", "pre", "target:supplied", "exception:sequence error", "post"), SequenceHook.events);
+    }
+
+    @Test
+    public void shouldShortCircuitTargetMethod() throws Exception {
+        EdgeCacheHook.events.clear();
+        String content = mockMvc.perform(get("/edge-cache?page=home").contentType("application/json"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("cached:home", content);
+        assertEquals(List.of("dataOut:cached:home", "post"), EdgeCacheHook.events);
+    }
+
+    @Test
+    public void shouldFailTimedOutDataInHooks() throws Exception {
+        GuardedHook.slow = true;
+        try {
+            mockMvc.perform(get("/guarded-supplier").contentType("application/json"))
+                    .andExpect(status().isForbidden())
+                    .andExpect(result -> assertEquals("TIMEOUT", result.getResponse().getContentAsString()));
+        } finally {
+            GuardedHook.slow = false;
+        }
+    }
+
+    @Test
+    public void shouldExposeInvocationToHooks() throws Exception {
+        String content = mockMvc.perform(get("/invocation?query=abc").contentType("application/json"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("abc", content);
+        assertEquals(List.of("invocationExample", "Controller", List.of("abc"), -1L), InvocationHook.map.get("pre"));
+        assertTrue((long) InvocationHook.map.get("post").get(3) > 0);
+    }
+}
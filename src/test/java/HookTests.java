@@ -1,9 +1,21 @@
+import com.dinuberinde.hooks.DataOutHook;
+import com.dinuberinde.hooks.Hook;
+import com.dinuberinde.hooks.HookMetrics;
+import com.dinuberinde.hooks.HookRegistry;
+import com.dinuberinde.hooks.HookRejectedException;
+import com.dinuberinde.hooks.HookStats;
 import com.dinuberinde.hooks.HooksAOP;
+import com.dinuberinde.hooks.PostHook;
+import com.dinuberinde.hooks.PreHook;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import controller.Controller;
+import controller.OrderService;
 import helper.DataHolder;
 import helper.Person;
+import helper.Timeline;
 import hooks.*;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
@@ -12,20 +24,52 @@ import org.springframework.aop.aspectj.annotation.AnnotationAwareAspectJAutoProx
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Scope;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.util.FileSystemUtils;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 
+import java.io.Serializable;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
-@SpringBootTest(classes = {Controller.class, HooksAOP.class, LogHookComponent.class})
+@SpringBootTest(classes = {Controller.class, OrderService.class, HooksAOP.class, LogHookComponent.class, PrototypeHookComponent.class}, properties = "spring.hooks.outbox.dir=target/hooks-outbox")
 @AutoConfigureMockMvc
 @Import(AnnotationAwareAspectJAutoProxyCreator.class)
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
@@ -35,6 +79,15 @@ public class HookTests {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private HookMetrics hookMetrics;
+
+    @Autowired
+    private HookRegistry hookRegistry;
+
+    @Autowired
+    private OrderService orderService;
+
     @Test
     @Order(1)
     public void shouldTriggerPreAndPostHooks() throws Exception {
@@ -139,6 +192,780 @@ public class HookTests {
         assertEquals("rest api called test", result);
     }
 
+    @Test
+    @Order(7)
+    public void shouldTriggerAsyncHooks() throws Exception {
+        String result = mockMvc.perform(get("/async").contentType("application/json"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals("async result", result);
+        assertTrue(AsyncLogHook.latch.await(5, TimeUnit.SECONDS));
+
+        // testing that the hooks ran on the async executor
+        assertEquals("/async", AsyncLogHook.map.get("post").tag);
+        assertTrue(AsyncLogHook.map.get("post").value.startsWith("spring-hooks-async-"));
+        assertEquals("/async", AsyncLogHook.map.get("dataOut").tag);
+        assertTrue(AsyncLogHook.map.get("dataOut").value.startsWith("async result@spring-hooks-async-"));
+    }
+
+    @Test
+    @Order(8)
+    public void shouldTriggerBatchDataOutHook() throws Exception {
+        for (int i = 1; i <= 4; i++) {
+            mockMvc.perform(get("/batch?query=" + i).contentType("application/json"))
+                    .andExpect(status().isOk());
+        }
+
+        // the first batch is full, the second one is delivered after the maximum delay
+        assertTrue(BatchDataOutHook.latch.await(5, TimeUnit.SECONDS));
+        assertEquals("/batch:1,/batch:2,/batch:3", BatchDataOutHook.batches.poll());
+        assertEquals("/batch:4", BatchDataOutHook.batches.poll());
+
+        // testing that a target method with another batch size does not share the batches of the hook method
+        mockMvc.perform(get("/batch-single?query=single").contentType("application/json"))
+                .andExpect(status().isOk());
+        assertEquals("/batch:single", BatchDataOutHook.batches.poll());
+    }
+
+    @Test
+    @Order(9)
+    public void shouldRecordHookMetrics() throws Exception {
+        // testing the programmatic snapshot
+        HookStats.Snapshot preHello = hookMetrics.snapshot().stream()
+                .filter(stats -> stats.getDefiningClass().equals(LogHook.class.getName()) && stats.getMethod().equals("pre") && stats.getTag().equals("/hello"))
+                .findAny().orElseThrow();
+        assertEquals(1, preHello.getInvocations());
+        assertEquals(0, preHello.getErrors());
+        assertTrue(preHello.getP99Nanos() >= preHello.getP50Nanos());
+
+        // testing the failures of the security hook
+        String result = mockMvc.perform(get("/hooks/metrics").contentType("application/json"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        SnapshotJson secure = Arrays.stream(fromJson(result, SnapshotJson[].class))
+                .filter(stats -> stats.definingClass.equals(JWTHook.class.getName()) && stats.tag.isEmpty())
+                .findAny().orElseThrow();
+        assertEquals(2, secure.invocations);
+        assertEquals(1, secure.errors);
+    }
+
+
+    @Test
+    @Order(10)
+    public void shouldTriggerParallelPreHooks() throws Exception {
+        mockMvc.perform(get("/parallel?query=flags").contentType("application/json"))
+                .andExpect(status().isOk());
+
+        Timeline.Entry auth = Timeline.entries.get(ParallelAuthHook.class.getName());
+        Timeline.Entry quota = Timeline.entries.get(ParallelQuotaHook.class.getName());
+        Timeline.Entry flags = Timeline.entries.get(ParallelFlagsHook.class.getName());
+
+        // testing the dependency of the quota hook on the auth hook
+        assertEquals("/parallel", auth.value);
+        assertEquals("/parallel", quota.value);
+        assertTrue(quota.start >= auth.end);
+
+        // testing the flags hook, which runs concurrently with the auth hook, with the propagated http request
+        assertEquals("flags", flags.value);
+        assertTrue(flags.concurrent && auth.concurrent);
+        assertTrue(!flags.thread.equals(Thread.currentThread().getName()));
+    }
+
+    @Test
+    @Order(11)
+    public void shouldCacheDataInHookResults() throws Exception {
+        assertEquals("EUR:rate-1", getContent("/cached-rate?currency=EUR"));
+        assertEquals("EUR:rate-1", getContent("/cached-rate?currency=EUR"));
+        assertEquals("USD:rate-2", getContent("/cached-rate?currency=USD"));
+
+        // testing that concurrent misses of the same key share a single call of the hook method
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(executor.submit(() -> getContent("/cached-rate?currency=GBP")));
+        }
+
+        for (Future<String> result : results) {
+            assertEquals("GBP:rate-3", result.get(5, TimeUnit.SECONDS));
+        }
+
+        executor.shutdown();
+        assertEquals(3, CachedRateHook.calls.get());
+
+        // testing the statistics of the cache
+        String result = getContent("/hooks/metrics/caches");
+        CacheStatsJson stats = Arrays.stream(fromJson(result, CacheStatsJson[].class))
+                .filter(cache -> cache.definingClass.equals(CachedRateHook.class.getName()))
+                .findAny().orElseThrow();
+        assertEquals(3, stats.size);
+        assertEquals(3, stats.misses);
+        assertEquals(4, stats.hits);
+    }
+
+    @Test
+    @Order(12)
+    public void shouldTriggerReactiveHooks() throws Exception {
+        MvcResult result = mockMvc.perform(get("/reactive?query=a,b,c").contentType("application/json"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String content = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("item-aitem-bitem-c", content);
+
+        MvcResult errorResult = mockMvc.perform(get("/reactive-error").contentType("application/json"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        try {
+            mockMvc.perform(asyncDispatch(errorResult));
+        } catch (Exception e) {
+            // the error signal of the target method
+        }
+
+        assertTrue(ReactiveHook.latch.await(5, TimeUnit.SECONDS));
+
+        // testing the data out hook for each element, followed by the post hook on termination
+        List<String> events = new ArrayList<>(ReactiveHook.events);
+        List<String> reactiveEvents = events.stream().filter(event -> event.startsWith("/reactive:")).collect(Collectors.toList());
+        assertEquals(List.of("/reactive:item-a", "/reactive:item-b", "/reactive:item-c", "/reactive:post"), reactiveEvents);
+
+        // testing the exception hook on the error signal
+        List<String> errorEvents = events.stream().filter(event -> event.startsWith("/reactive-error:")).collect(Collectors.toList());
+        assertEquals(List.of("/reactive-error:reactive error", "/reactive-error:post"), errorEvents);
+        assertTrue(ReactiveHook.threads.get("/reactive").startsWith("boundedElastic"));
+    }
+
+    @Test
+    @Order(13)
+    public void shouldTriggerCompletionStageHooks() throws Exception {
+        MvcResult result = mockMvc.perform(get("/completion?query=completed").contentType("application/json"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+
+        MvcResult errorResult = mockMvc.perform(get("/completion-error").contentType("application/json"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        try {
+            mockMvc.perform(asyncDispatch(errorResult));
+        } catch (Exception e) {
+            // the exceptional completion of the target method
+        }
+
+        assertTrue(CompletionHook.latch.await(5, TimeUnit.SECONDS));
+
+        // testing the data out hook with the value of the future, followed by the post hook
+        List<String> events = new ArrayList<>(CompletionHook.events);
+        assertEquals(List.of("/completion:completed", "/completion:post"),
+                events.stream().filter(event -> event.startsWith("/completion:")).collect(Collectors.toList()));
+
+        // testing the exception hook on the exceptional completion
+        assertEquals(List.of("/completion-error:completion error", "/completion-error:post"),
+                events.stream().filter(event -> event.startsWith("/completion-error:")).collect(Collectors.toList()));
+        assertTrue(!CompletionHook.threads.get("/completion").equals(Thread.currentThread().getName()));
+    }
+
+    @Test
+    @Order(14)
+    public void shouldTriggerHooksInOrder() throws Exception {
+        SequenceHook.events.clear();
+        assertEquals("supplied", getContent("/sequence"));
+        assertEquals(List.of("dataIn", "pre", "target:supplied", "dataOut:supplied", "post"), SequenceHook.events);
+
+        SequenceHook.events.clear();
+        try {
+            mockMvc.perform(get("/sequence?fail=true").contentType("application/json"));
+        } catch (Exception e) {
+            // the exception of the target method is rethrown
+        }
+        assertEquals(List.of("dataIn", "pre", "target:supplied", "exception:sequence error", "post"), SequenceHook.events);
+    }
+
+    @Test
+    @Order(15)
+    public void shouldSupplyDataInParametersConcurrently() throws Exception {
+        assertEquals("profile:/enrichment,cart,3", getContent("/enrichment"));
+
+        Timeline.Entry profile = Timeline.entries.get("profile");
+        Timeline.Entry cart = Timeline.entries.get("cart");
+        Timeline.Entry offers = Timeline.entries.get("offers");
+        assertEquals("/offers", offers.value);
+
+        // testing that the hook methods run concurrently
+        assertTrue(profile.concurrent && cart.concurrent && offers.concurrent);
+    }
+
+    @Test
+    @Order(16)
+    public void shouldSampleAndRateLimitHooks() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(get("/sampled").contentType("application/json"))
+                    .andExpect(status().isOk());
+        }
+
+        // testing the burst of the token bucket and the skipped calls
+        assertEquals(2, SampledHook.pre.get());
+        assertEquals(0, SampledHook.post.get());
+    }
+
+    @Test
+    @Order(17)
+    public void shouldTriggerConditionalHooks() throws Exception {
+        for (int amount : new int[]{5, 500, 50, 1000}) {
+            getContent("/conditional?amount=" + amount);
+        }
+
+        assertEquals(List.of("pre", "dataOut:large:500", "pre", "dataOut:large:1000"), ConditionalHook.events);
+    }
+
+    @Test
+    @Order(18)
+    public void shouldScopeHookInstances() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            results.add(executor.submit(() -> getContent("/scoped")));
+        }
+
+        for (Future<String> result : results) {
+            result.get(10, TimeUnit.SECONDS);
+        }
+
+        executor.shutdown();
+
+        // testing that a pooled instance is used by one thread at a time
+        assertTrue(PooledHook.instances.size() <= 2);
+        assertEquals(0, PooledHook.overlaps.get());
+
+        // testing an instance per thread and a new prototype bean per call
+        assertTrue(ThreadLocalHook.instances.values().stream().allMatch(instances -> instances.size() == 1));
+        assertEquals(ThreadLocalHook.instances.size(), ThreadLocalHook.instances.values().stream().flatMap(Set::stream).distinct().count());
+        assertEquals(20, PrototypeHookComponent.instances.size());
+    }
+
+    @Test
+    @Order(19)
+    public void shouldShortCircuitTargetMethod() throws Exception {
+        EdgeCacheHook.events.clear();
+        assertEquals("cached:home", getContent("/edge-cache?page=home"));
+        assertEquals(List.of("dataOut:cached:home", "post"), EdgeCacheHook.events);
+
+        EdgeCacheHook.events.clear();
+        assertEquals("rendered:about", getContent("/edge-cache?page=about"));
+        assertEquals(List.of("target", "dataOut:rendered:about", "post"), EdgeCacheHook.events);
+    }
+
+    @Test
+    @Order(20)
+    public void shouldNotifyRegisteredListeners() throws Exception {
+        List<String> events = new CopyOnWriteArrayList<>();
+        HookRegistry.Registration registration = hookRegistry.register("/hello*", (type, hook) -> events.add(type + ":" + hook.getTag()));
+        HookRegistry.Registration exact = hookRegistry.register("/edge-cache", (type, hook) -> events.add(type + ":" + hook.getDataOut()));
+
+        getContent("/hello?query=listener");
+        getContent("/edge-cache?page=home");
+        assertEquals(List.of("pre:/hello", "post:/hello", "pre:null", "dataOut:cached:home", "post:null"), events);
+
+        registration.unregister();
+        exact.unregister();
+        events.clear();
+        getContent("/hello?query=listener");
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    @Order(21)
+    public void shouldRecordFlightRecorderEvents() throws Exception {
+        Path dump = Files.createTempFile("hooks", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.dinuberinde.hooks.HookInvocation");
+            recording.start();
+            getContent("/hello?query=recording");
+            recording.stop();
+            recording.dump(dump);
+
+            List<String> invocations = RecordingFile.readAllEvents(dump).stream()
+                    .filter(event -> "/hello".equals(event.getString("tag")))
+                    .map(event -> event.getString("type") + ":" + event.getString("definingClass") + "#" + event.getString("method") + ":" + event.getString("outcome"))
+                    .collect(Collectors.toList());
+
+            assertEquals(List.of("pre:hooks.LogHook#pre:success", "post:hooks.LogHook#post:success"), invocations);
+        } finally {
+            Files.delete(dump);
+        }
+    }
+
+    @Test
+    @Order(22)
+    public void shouldGuardHooks() throws Exception {
+        assertEquals("live", getContent("/guarded"));
+        assertEquals(1, GuardedHook.calls.get());
+
+        // testing the fallback of the failing calls, then the open circuit breaker which skips the hook method
+        GuardedHook.failing = true;
+        assertEquals("fallback", getContent("/guarded"));
+        assertEquals("fallback", getContent("/guarded"));
+        assertEquals("fallback", getContent("/guarded"));
+        assertEquals(3, GuardedHook.calls.get());
+
+        // testing the probe call which closes the circuit breaker
+        GuardedHook.failing = false;
+        Thread.sleep(400);
+        assertEquals("live", getContent("/guarded"));
+        assertEquals("live", getContent("/guarded"));
+        assertEquals(5, GuardedHook.calls.get());
+
+        // testing the timeout of a slow pre hook, which fails the call
+        GuardedHook.slow = true;
+        mockMvc.perform(get("/guarded").contentType("application/json"))
+                .andExpect(status().isForbidden())
+                .andExpect(result -> assertEquals("TIMEOUT", result.getResponse().getContentAsString()));
+
+        // testing the timeout of a slow data in hook without a fallback, which fails the call as well
+        mockMvc.perform(get("/guarded-supplier").contentType("application/json"))
+                .andExpect(status().isForbidden())
+                .andExpect(result -> assertEquals("TIMEOUT", result.getResponse().getContentAsString()));
+        GuardedHook.slow = false;
+        assertEquals("live", getContent("/guarded-supplier"));
+    }
+
+    @Test
+    @Order(23)
+    public void shouldDeliverDurableHooks() throws Exception {
+        AuditHook.events.clear();
+        assertEquals("transfer:10", getContent("/audit?amount=10"));
+        try {
+            mockMvc.perform(get("/audit?amount=0").contentType("application/json"));
+        } catch (Exception e) {
+            // the failure of the target method is expected
+        }
+
+        for (int i = 0; i < 50 && AuditHook.events.size() < 2; i++) {
+            Thread.sleep(100);
+        }
+
+        // testing the delivery of the hooks by the consumers of the outboxes
+        assertEquals(List.of("/audit:transfer:10:spring-hooks-outbox-dataOut-hooks.AuditHook@audit",
+                "/audit:invalid amount 0:spring-hooks-outbox-exception-hooks.AuditHook@auditFailure"), AuditHook.events);
+        assertTrue(Files.isRegularFile(Path.of("target/hooks-outbox/dataOut-hooks.AuditHook@audit/checkpoint")));
+    }
+
+    @Test
+    @Order(24)
+    public void shouldDispatchHooksThroughRingBuffer() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            assertEquals(String.valueOf(i), getContent("/ringBuffer?sequence=" + i));
+        }
+
+        assertTrue(RingBufferHook.latch.await(5, TimeUnit.SECONDS));
+
+        // testing that the single consumer of the ring buffer called the hooks in publication order
+        assertEquals(IntStream.range(0, 100).boxed().collect(Collectors.toList()), RingBufferHook.dataOuts);
+        assertEquals(Set.of("spring-hooks-ring-RingBufferHook-1"), RingBufferHook.threads);
+    }
+
+    @Test
+    @Order(25)
+    public void shouldMemoizeHooksOfNestedCalls() throws Exception {
+        MemoHook.authorizations.set(0);
+        MemoHook.profiles.set(0);
+
+        // testing that the nested calls of a request reuse the results of the hooks
+        assertEquals("profile-1, orders of profile-1, orders of profile-1", getContent("/memo"));
+        assertEquals(1, MemoHook.authorizations.get());
+        assertEquals("profile-2, orders of profile-2, orders of profile-2", getContent("/memo"));
+        assertEquals(2, MemoHook.authorizations.get());
+
+        // testing that outside of a request the results are memoized only for the outermost call
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            assertEquals("orders of profile-3", executor.submit(() -> orderService.orders(null)).get());
+            assertEquals("orders of profile-4", executor.submit(() -> orderService.orders(null)).get());
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(4, MemoHook.authorizations.get());
+
+        // testing that the parameters supplied concurrently by the same memoized hook wait for a single call
+        assertEquals("shared-1, shared-1", getContent("/memo-concurrent"));
+        assertEquals(1, MemoHook.sharedProfiles.get());
+    }
+
+    @Test
+    @Order(26)
+    public void shouldExposeInvocationToHooks() throws Exception {
+        assertEquals("abc", getContent("/invocation?query=abc"));
+
+        // testing that the pre hook has no elapsed time and the hooks after the target method measured it
+        assertEquals(List.of("invocationExample", "Controller", List.of("abc"), -1L), InvocationHook.map.get("pre"));
+        for (String type : List.of("dataOut", "post")) {
+            List<Object> invocation = InvocationHook.map.get(type);
+            assertEquals(List.of("invocationExample", "Controller", List.of("abc")), invocation.subList(0, 3));
+            assertTrue((long) invocation.get(3) > 0);
+        }
+
+        // testing that the dataOut and post hooks share the time of the same call
+        assertEquals(InvocationHook.map.get("dataOut").get(3), InvocationHook.map.get("post").get(3));
+    }
+
+    @Test
+    @Order(27)
+    public void shouldFailClosedOnGuardedPreHooks() throws Exception {
+        // testing that the denials open the breaker, whose rejections deny the calls as well
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/security-guarded").contentType("application/json"))
+                    .andExpect(status().isForbidden())
+                    .andExpect(result -> assertEquals("not allowed to access api", result.getResponse().getErrorMessage()));
+        }
+
+        for (String jwt : new String[]{"wrong", "abcd"}) {
+            mockMvc.perform(get("/security-guarded").header("jwt", jwt).contentType("application/json"))
+                    .andExpect(status().isForbidden())
+                    .andExpect(result -> assertEquals("CIRCUIT_OPEN", result.getResponse().getContentAsString()));
+        }
+
+        // testing that the denials ignored by the breaker do not open it
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/security-ignored").contentType("application/json"))
+                    .andExpect(status().isForbidden())
+                    .andExpect(result -> assertEquals("not allowed to access api", result.getResponse().getErrorMessage()));
+        }
+
+        String result = mockMvc.perform(get("/security-ignored").header("jwt", "abcd").contentType("application/json"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("rest api called", result);
+    }
+
+    @Test
+    @Order(28)
+    public void shouldRejectInvalidHookAnnotationsAtStartup() {
+        new ApplicationContextRunner()
+                .withUserConfiguration(HooksAOP.class, InvalidHookService.class)
+                .run(context -> {
+                    Throwable failure = context.getStartupFailure();
+                    assertTrue(failure instanceof IllegalStateException);
+                    assertTrue(failure.getMessage().contains("invalidExample"));
+                    assertTrue(failure.getMessage().contains("The sample rate of the hook [post] of [hooks.LogHook] must be between 0 and 1"));
+                });
+    }
+
+    public static class InvalidHookService {
+
+        @PostHook(definingClass = LogHook.class, tag = "/invalid", sampleRate = 2)
+        public void invalidExample() {}
+    }
+
+    @Test
+    @Order(29)
+    public void shouldDeliverRecoveredOutboxesToTheirHooks() throws Exception {
+        Path outbox = Path.of("target/hooks-outbox-recovered");
+        FileSystemUtils.deleteRecursively(outbox);
+        AuditHook.events.clear();
+        ApplicationContextRunner runner = new ApplicationContextRunner()
+                .withPropertyValues("spring.hooks.outbox.dir=" + outbox)
+                .withUserConfiguration(HooksAOP.class, AnnotationAwareAspectJAutoProxyCreator.class);
+
+        runner.withUserConfiguration(RecoveredAuditService.class).run(context -> {
+            assertEquals("transfer:1", context.getBean(RecoveredAuditService.class).transfer(1));
+            awaitAuditEvents(1);
+        });
+
+        // the prototype is not resolved on startup, so its outbox is recovered before the hook plan of its target method
+        runner.withUserConfiguration(RecoveredAuditConfiguration.class).run(context -> {
+            RecoveredAuditService service = (RecoveredAuditService) context.getBean("recoveredAuditService");
+            assertEquals("transfer:2", service.transfer(2));
+            awaitAuditEvents(2);
+
+            HookStats.Snapshot audit = context.getBean(HookMetrics.class).snapshot().stream()
+                    .filter(stats -> stats.getDefiningClass().equals(AuditHook.class.getName()) && stats.getMethod().equals("audit") && stats.getTag().equals("/recovered"))
+                    .findAny().orElseThrow();
+            assertEquals(1, audit.getInvocations());
+        });
+
+        assertEquals(List.of("/recovered:transfer:1:spring-hooks-outbox-dataOut-hooks.AuditHook@audit",
+                "/recovered:transfer:2:spring-hooks-outbox-dataOut-hooks.AuditHook@audit"), AuditHook.events);
+    }
+
+    @Test
+    @Order(30)
+    public void shouldDropOutboxRecordsOfTypesNotAllowed() throws Exception {
+        Path outbox = Path.of("target/hooks-outbox-filtered");
+        FileSystemUtils.deleteRecursively(outbox);
+        new ApplicationContextRunner()
+                .withPropertyValues("spring.hooks.outbox.dir=" + outbox)
+                .withUserConfiguration(HooksAOP.class, AnnotationAwareAspectJAutoProxyCreator.class, ReceiptService.class)
+                .run(context -> {
+                    ReceiptService service = context.getBean(ReceiptService.class);
+                    service.receipt();
+                    service.untypedReceipt();
+                    service.untypedText();
+                    service.untypedBits();
+                    service.untypedList();
+                    for (int i = 0; i < 50 && ReceiptHook.events.size() < 3; i++) {
+                        Thread.sleep(100);
+                    }
+
+                    // the receipt and the bit set returned as an Object are not allowed by the filter of the outbox and are dropped,
+                    // and the delivered hooks do not carry the target method
+                    assertEquals(Set.of("typed:r1:10:null", "untyped:text", "untyped:[a, b]"), Set.copyOf(ReceiptHook.events));
+                });
+    }
+
+    @Test
+    @Order(31)
+    public void shouldNotTriggerCompletionStageHooksOfDeniedCalls() throws Exception {
+        mockMvc.perform(get("/completion-denied").contentType("application/json"))
+                .andExpect(status().isForbidden())
+                .andExpect(result -> assertEquals("not allowed to access api", result.getResponse().getErrorMessage()));
+
+        // the pre hook runs before the hooks of the completion stage are attached
+        assertTrue(CompletionHook.events.stream().noneMatch(event -> event.startsWith("/completion-denied:")));
+
+        MvcResult result = mockMvc.perform(get("/completion-denied").header("jwt", "abcd").contentType("application/json"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+
+        assertEquals(List.of("/completion-denied:allowed", "/completion-denied:post"),
+                CompletionHook.events.stream().filter(event -> event.startsWith("/completion-denied:")).collect(Collectors.toList()));
+    }
+
+    @Test
+    @Order(32)
+    public void shouldExposeInvocationToCompletionStageHooks() throws Exception {
+        MvcResult result = mockMvc.perform(get("/invocation-completion?query=abc").contentType("application/json"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+
+        for (int i = 0; i < 50 && !InvocationHook.map.containsKey("completionDataOut"); i++) {
+            Thread.sleep(100);
+        }
+
+        // testing that the hook, which runs on the thread completing the future, sees its own call
+        List<Object> invocation = InvocationHook.map.get("completionDataOut");
+        assertEquals(List.of("invocationCompletionExample", "Controller", List.of("abc")), invocation.subList(0, 3));
+        assertTrue((long) invocation.get(3) > 0);
+    }
+
+    @Test
+    @Order(33)
+    public void shouldRejectTimedHookCallsOfFullExecutor() throws Exception {
+        new ApplicationContextRunner()
+                .withPropertyValues("spring.hooks.timeout.threads=1", "spring.hooks.timeout.queue-capacity=1")
+                .withUserConfiguration(HooksAOP.class, AnnotationAwareAspectJAutoProxyCreator.class, CheckedService.class)
+                .run(context -> {
+                    CheckedService service = context.getBean(CheckedService.class);
+                    ExecutorService callers = Executors.newFixedThreadPool(3);
+                    try {
+                        Future<String> running = callers.submit(service::check);
+                        assertTrue(BlockingCheckHook.entered.await(5, TimeUnit.SECONDS));
+
+                        // one of the next calls waits in the queue, the other one is rejected instead of running without its timeout
+                        CompletionService<String> calls = new ExecutorCompletionService<>(callers);
+                        calls.submit(service::check);
+                        calls.submit(service::check);
+                        ExecutionException rejected = assertThrows(ExecutionException.class, () -> calls.poll(5, TimeUnit.SECONDS).get());
+                        assertEquals(HookRejectedException.Reason.BULKHEAD_FULL, ((HookRejectedException) rejected.getCause()).getReason());
+
+                        BlockingCheckHook.release.countDown();
+                        assertEquals("checked", running.get(5, TimeUnit.SECONDS));
+                        assertEquals("checked", calls.poll(5, TimeUnit.SECONDS).get());
+                        assertEquals(2, BlockingCheckHook.calls.get());
+                    } finally {
+                        callers.shutdownNow();
+                    }
+                });
+    }
+
+    @Test
+    @Order(34)
+    public void shouldDispatchEachPostHookWithItsOwnSettings() throws Exception {
+        new ApplicationContextRunner()
+                .withPropertyValues("spring.hooks.scope." + MisconfiguredPostHook.class.getName() + "=bogus")
+                .withUserConfiguration(HooksAOP.class, AnnotationAwareAspectJAutoProxyCreator.class, PostHookServiceConfiguration.class)
+                .run(context -> {
+                    // the prototype is resolved on its first call, so its invalid first hook does not fail the startup
+                    PostHookService service = (PostHookService) context.getBean("postHookService");
+                    assertEquals("posted", service.post());
+
+                    // the invalid first hook has no ring buffer, and the second hook is dispatched through its own anyway
+                    assertTrue(RingPostHook.threads.poll(5, TimeUnit.SECONDS).startsWith("spring-hooks-ring-"));
+                });
+    }
+
+    private static void awaitAuditEvents(int size) throws InterruptedException {
+        for (int i = 0; i < 50 && AuditHook.events.size() < size; i++) {
+            Thread.sleep(100);
+        }
+    }
+
+    public static class RecoveredAuditService {
+
+        @DataOutHook(definingClass = AuditHook.class, method = "audit", tag = "/recovered", durable = true)
+        public String transfer(int amount) {
+            return "transfer:" + amount;
+        }
+    }
+
+    public static class PostHookService {
+
+        @PostHook(definingClass = {MisconfiguredPostHook.class, RingPostHook.class}, ringBuffer = true)
+        public String post() {
+            return "posted";
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    public static class PostHookServiceConfiguration {
+
+        @Bean
+        @Scope("prototype")
+        public Object postHookService() {
+            return new PostHookService();
+        }
+    }
+
+    public static class MisconfiguredPostHook {
+
+        public void post() {
+        }
+    }
+
+    public static class RingPostHook {
+        static final BlockingQueue<String> threads = new LinkedBlockingQueue<>();
+
+        public void post() {
+            threads.add(Thread.currentThread().getName());
+        }
+    }
+
+    public static class CheckedService {
+
+        @PreHook(definingClass = BlockingCheckHook.class, method = "check", timeoutMillis = 10_000)
+        public String check() {
+            return "checked";
+        }
+    }
+
+    public static class BlockingCheckHook {
+        static final CountDownLatch entered = new CountDownLatch(1);
+        static final CountDownLatch release = new CountDownLatch(1);
+        static final AtomicInteger calls = new AtomicInteger();
+
+        public void check() throws InterruptedException {
+            calls.incrementAndGet();
+            entered.countDown();
+            release.await();
+        }
+    }
+
+    public static class ReceiptService {
+
+        @DataOutHook(definingClass = ReceiptHook.class, method = "typed", tag = "/receipt", durable = true)
+        public Receipt receipt() {
+            return new Receipt("r1", new Amount(10));
+        }
+
+        @DataOutHook(definingClass = ReceiptHook.class, method = "untyped", tag = "/receipt", durable = true)
+        public Object untypedReceipt() {
+            return new Receipt("r2", new Amount(20));
+        }
+
+        @DataOutHook(definingClass = ReceiptHook.class, method = "untyped", tag = "/receipt", durable = true)
+        public Object untypedText() {
+            return "text";
+        }
+
+        @DataOutHook(definingClass = ReceiptHook.class, method = "untyped", tag = "/receipt", durable = true)
+        public Object untypedBits() {
+            return BitSet.valueOf(new long[]{42});
+        }
+
+        @DataOutHook(definingClass = ReceiptHook.class, method = "untyped", tag = "/receipt", durable = true)
+        public Object untypedList() {
+            return new ArrayList<>(List.of("a", "b"));
+        }
+    }
+
+    public static class ReceiptHook {
+        static final List<String> events = new CopyOnWriteArrayList<>();
+
+        public void typed(Hook hook) {
+            Receipt receipt = (Receipt) hook.getDataOut();
+            events.add("typed:" + receipt.id + ":" + receipt.amount.value + ":" + hook.getMethod());
+        }
+
+        public void untyped(Hook hook) {
+            events.add("untyped:" + hook.getDataOut());
+        }
+    }
+
+    public static class Receipt implements Serializable {
+        private final String id;
+        private final Amount amount;
+
+        public Receipt(String id, Amount amount) {
+            this.id = id;
+            this.amount = amount;
+        }
+    }
+
+    public static class Amount implements Serializable {
+        private final long value;
+
+        public Amount(long value) {
+            this.value = value;
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    public static class RecoveredAuditConfiguration {
+
+        @Bean
+        @Scope("prototype")
+        public Object recoveredAuditService() {
+            return new RecoveredAuditService();
+        }
+    }
+
+    private String getContent(String url) throws Exception {
+        return mockMvc.perform(get(url).contentType("application/json"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    public static class CacheStatsJson {
+        public String target;
+        public String definingClass;
+        public String method;
+        public String tag;
+        public int size;
+        public long hits;
+        public long misses;
+        public long loadFailures;
+        public long evictions;
+        public double hitRate;
+    }
+
+    public static class SnapshotJson {
+        public String definingClass;
+        public String method;
+        public String tag;
+        public long invocations;
+        public long errors;
+        public long meanNanos;
+        public long maxNanos;
+        public long p50Nanos;
+        public long p90Nanos;
+        public long p99Nanos;
+    }
 
     public static String toJsonString(Object obj) {
         try {
@@ -4,15 +4,29 @@ package controller;
 import com.dinuberinde.hooks.*;
 import helper.Person;
 import hooks.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 public class Controller {
 
+    @Autowired
+    private OrderService orderService;
+
     /**
      * Example of using a {@link PreHook} and a {@link PostHook} for an endpoint method.
      * The {@link LogHook} class contains a pre and a post method that just logs the current request.
@@ -50,12 +64,13 @@ public class Controller {
      * enriched person to the current method.
      *
      * Furthermore, the {@link DataOutHook} consumes the returned value of the current value.
+     * The {@link Hook} passed to the data out hook is recycled, since the hook does not retain it.
      *
      * @param person the person to be enriched with an id
      * @return the person created
      */
     @DataInHook(definingClass = PersonDataInHook.class)
-    @DataOutHook(definingClass = PersonDataOutHook.class)
+    @DataOutHook(definingClass = PersonDataOutHook.class, reuseHook = true)
     @PostMapping(value = "create-person", produces = MediaType.APPLICATION_JSON_VALUE)
     public Person createPerson(@DataIn @RequestBody Person person) {
         return person;
@@ -70,4 +85,304 @@ public class Controller {
     public String securityExample(String query) {
         return "rest api called " + query ;
     }
+
+    /**
+     * Example of a guarded {@link PreHook} used as a JWT filter: the denials count as failures of its circuit breaker,
+     * which opens after two of them. Since the pre hooks fail closed, the calls skipped by the open breaker are denied too.
+     */
+    @GetMapping(value = "security-guarded")
+    @PreHook(definingClass = JWTHook.class, method = "secure", tag = "/security-guarded", breakerThreshold = 2, breakerOpenMillis = 60_000)
+    public String securityGuardedExample() {
+        return "rest api called";
+    }
+
+    /**
+     * Example of a guarded {@link PreHook} used as a JWT filter, whose denials do not count as failures of its circuit breaker.
+     */
+    @GetMapping(value = "security-ignored")
+    @PreHook(definingClass = JWTHook.class, method = "secure", tag = "/security-ignored", breakerThreshold = 2, breakerOpenMillis = 60_000, breakerIgnore = ResponseStatusException.class)
+    public String securityIgnoredExample() {
+        return "rest api called";
+    }
+
+    /**
+     * The calls rejected by the guard of a {@link PreHook} are denied.
+     */
+    @ExceptionHandler(HookRejectedException.class)
+    @ResponseStatus(HttpStatus.FORBIDDEN)
+    public String hookRejected(HookRejectedException e) {
+        return e.getReason().name();
+    }
+
+    /**
+     * Example of asynchronous {@link PostHook} and {@link DataOutHook}, which run on the
+     * {@link AsyncHookExecutor} instead of the request thread.
+     */
+    @PostHook(definingClass = AsyncLogHook.class, tag = "/async", async = true)
+    @DataOutHook(definingClass = AsyncLogHook.class, tag = "/async", async = true)
+    @GetMapping(value = "async")
+    public String asyncExample() {
+        return "async result";
+    }
+
+    /**
+     * Example of {@link PostHook} and {@link DataOutHook} dispatched through the ring buffer
+     * of their hook class in the {@link HookRingBuffers}, instead of run on the request thread.
+     */
+    @PostHook(definingClass = RingBufferHook.class, tag = "/ringBuffer", ringBuffer = true)
+    @DataOutHook(definingClass = RingBufferHook.class, tag = "/ringBuffer", ringBuffer = true)
+    @GetMapping(value = "ringBuffer")
+    public int ringBufferExample(@RequestParam int sequence) {
+        return sequence;
+    }
+
+    /**
+     * Example of hooks memoized across nested advised calls: the pre hook runs once per call of this endpoint
+     * and the data in hook once per request, although the {@link OrderService} declares the same hooks.
+     */
+    @PreHook(definingClass = MemoHook.class, method = "authorize", tag = "/memo", memoize = HookMemoization.INVOCATION)
+    @DataInHook(definingClass = MemoHook.class, method = "profile", tag = "/memo", memoize = HookMemoization.REQUEST)
+    @GetMapping(value = "memo")
+    public String memoExample(@DataIn String profile) {
+        return profile + ", " + orderService.orders(null) + ", " + orderService.orders(null);
+    }
+
+    /**
+     * Example of a memoized {@link DataInHook} supplying two parameters concurrently: the hook method runs once
+     * and both parameters share its result.
+     */
+    @DataInHook(definingClass = MemoHook.class, method = "sharedProfile", tag = "/memo-concurrent", memoize = HookMemoization.INVOCATION)
+    @GetMapping(value = "memo-concurrent")
+    public String memoConcurrentExample(@DataIn @RequestParam(defaultValue = "") String first, @DataIn @RequestParam(defaultValue = "") String second) {
+        return first + ", " + second;
+    }
+
+    /**
+     * Example of hooks which read the target method, its arguments, the target instance
+     * and the elapsed time of the target method from their {@link Hook}.
+     */
+    @PreHook(definingClass = InvocationHook.class, tag = "/invocation")
+    @DataOutHook(definingClass = InvocationHook.class, tag = "/invocation")
+    @PostHook(definingClass = InvocationHook.class, tag = "/invocation")
+    @GetMapping(value = "invocation")
+    public String invocationExample(@RequestParam String query) throws InterruptedException {
+        TimeUnit.MILLISECONDS.sleep(20);
+        return query;
+    }
+
+    /**
+     * Example of a {@link DataOutHook} of a method returning a {@link CompletableFuture} which reads the target method,
+     * its arguments and its elapsed time from its {@link Hook}, on the thread which completes the future.
+     */
+    @DataOutHook(definingClass = InvocationHook.class, method = "completionDataOut", tag = "/invocation-completion")
+    @GetMapping(value = "invocation-completion")
+    public CompletableFuture<String> invocationCompletionExample(@RequestParam String query) {
+        return CompletableFuture.supplyAsync(() -> query, CompletableFuture.delayedExecutor(20, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Example of {@link DataOutHook} whose hook method receives the returned values in batches
+     * of three or after 200 milliseconds.
+     */
+    @DataOutHook(definingClass = BatchDataOutHook.class, tag = "/batch", batchSize = 3, batchMaxDelayMillis = 200)
+    @GetMapping(value = "batch")
+    public String batchExample(String query) {
+        return query;
+    }
+
+    /**
+     * Example of {@link DataOutHook} which shares the hook method of the previous example with another batch size,
+     * so that its returned values are delivered one by one.
+     */
+    @DataOutHook(definingClass = BatchDataOutHook.class, tag = "/batch", batchSize = 1)
+    @GetMapping(value = "batch-single")
+    public String batchSingleExample(String query) {
+        return query;
+    }
+
+    /**
+     * Example of {@link PreHook} whose hooks run in parallel. The {@link ParallelQuotaHook} depends on
+     * the {@link ParallelAuthHook}, while the {@link ParallelFlagsHook} runs concurrently with both.
+     */
+    @PreHook(definingClass = {ParallelAuthHook.class, ParallelQuotaHook.class, ParallelFlagsHook.class}, tag = "/parallel", parallel = true)
+    @GetMapping(value = "parallel")
+    public String parallelExample(String query) {
+        return query;
+    }
+
+    /**
+     * Example of {@link DataInHook} whose results are cached for a minute, keyed by the currency.
+     * The {@link CachedRateHook} gets called once for each currency.
+     */
+    @DataInHook(definingClass = CachedRateHook.class, tag = "/cached-rate", cacheTtlMillis = 60_000, cacheKeyArgs = 0)
+    @GetMapping(value = "cached-rate")
+    public String cachedRateExample(String currency, @DataIn @RequestParam(defaultValue = "") String rate) {
+        return currency + ":" + rate;
+    }
+
+    /**
+     * Example of hooks of a method returning a {@link Flux}: the {@link DataInHook} supplies a {@link Mono},
+     * the {@link DataOutHook} receives each emitted element and the {@link PostHook} runs on completion.
+     */
+    @DataInHook(definingClass = ReactiveHook.class, tag = "/reactive")
+    @DataOutHook(definingClass = ReactiveHook.class, tag = "/reactive")
+    @PostHook(definingClass = ReactiveHook.class, tag = "/reactive")
+    @GetMapping(value = "reactive")
+    public Flux<String> reactiveExample(String query, @DataIn @RequestParam(defaultValue = "") String prefix) {
+        return Flux.fromArray(query.split(",")).map(element -> prefix + element);
+    }
+
+    /**
+     * Example of an {@link ExceptionHook} of a method returning a {@link Mono} which signals an error.
+     */
+    @ExceptionHook(definingClass = ReactiveHook.class, tag = "/reactive-error")
+    @PostHook(definingClass = ReactiveHook.class, tag = "/reactive-error")
+    @GetMapping(value = "reactive-error")
+    public Mono<String> reactiveErrorExample() {
+        return Mono.error(new IllegalStateException("reactive error"));
+    }
+
+    /**
+     * Example of hooks of a method returning a {@link CompletableFuture}: the {@link DataOutHook} receives
+     * the value of the future and the {@link PostHook} runs when the future completes.
+     */
+    @DataOutHook(definingClass = CompletionHook.class, tag = "/completion")
+    @PostHook(definingClass = CompletionHook.class, tag = "/completion")
+    @GetMapping(value = "completion")
+    public CompletableFuture<String> completionExample(String query) {
+        return CompletableFuture.supplyAsync(() -> query, CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Example of an {@link ExceptionHook} of a method returning a {@link CompletableFuture} which completes exceptionally.
+     */
+    @ExceptionHook(definingClass = CompletionHook.class, tag = "/completion-error")
+    @PostHook(definingClass = CompletionHook.class, tag = "/completion-error")
+    @GetMapping(value = "completion-error")
+    public CompletableFuture<String> completionErrorExample() {
+        return CompletableFuture.supplyAsync(() -> {
+            throw new IllegalStateException("completion error");
+        });
+    }
+
+    /**
+     * Example of a {@link PreHook} used as a JWT filter of a method returning a {@link CompletableFuture}: a denied call
+     * neither runs the target method nor the hooks attached to its future.
+     */
+    @PreHook(definingClass = JWTHook.class, method = "secure", tag = "/completion-denied")
+    @DataOutHook(definingClass = CompletionHook.class, tag = "/completion-denied")
+    @ExceptionHook(definingClass = CompletionHook.class, tag = "/completion-denied")
+    @PostHook(definingClass = CompletionHook.class, tag = "/completion-denied")
+    @GetMapping(value = "completion-denied")
+    public CompletableFuture<String> completionDeniedExample() {
+        return CompletableFuture.completedFuture("allowed");
+    }
+
+    /**
+     * Example of all the hooks of a method, which record the order they are triggered in.
+     */
+    @DataInHook(definingClass = SequenceHook.class, tag = "/sequence")
+    @PreHook(definingClass = SequenceHook.class, tag = "/sequence")
+    @DataOutHook(definingClass = SequenceHook.class, tag = "/sequence")
+    @ExceptionHook(definingClass = SequenceHook.class, tag = "/sequence")
+    @PostHook(definingClass = SequenceHook.class, tag = "/sequence")
+    @GetMapping(value = "sequence")
+    public String sequenceExample(@RequestParam(defaultValue = "false") boolean fail, @DataIn @RequestParam(defaultValue = "") String input) {
+        SequenceHook.events.add("target:" + input);
+        if (fail) {
+            throw new IllegalStateException("sequence error");
+        }
+
+        return input;
+    }
+
+    /**
+     * Example of a {@link DataInHook} with several {@link DataIn} parameters, each supplied by its own hook method.
+     * The hook methods run concurrently before the current method.
+     */
+    @DataInHook(definingClass = EnrichmentHook.class, tag = "/enrichment")
+    @GetMapping(value = "enrichment")
+    public String enrichmentExample(@DataIn @RequestParam(defaultValue = "") String profile,
+                                    @DataIn(definingClass = EnrichmentHook.class, method = "cart") @RequestParam(defaultValue = "") String cart,
+                                    @DataIn(definingClass = EnrichmentHook.class, method = "offers", tag = "/offers") @RequestParam(defaultValue = "0") int offers) {
+        return profile + "," + cart + "," + offers;
+    }
+
+    /**
+     * Example of a {@link PreHook} limited to two calls per second and of a {@link PostHook}
+     * whose sample rate skips every call.
+     */
+    @PreHook(definingClass = SampledHook.class, tag = "/sampled", maxPerSecond = 2)
+    @PostHook(definingClass = SampledHook.class, tag = "/sampled", sampleRate = 0)
+    @GetMapping(value = "sampled")
+    public void sampledExample() {}
+
+    /**
+     * Example of hooks called only when their condition holds: the {@link PreHook} for large amounts
+     * and the {@link DataOutHook} for the results of the large amounts.
+     */
+    @PreHook(definingClass = ConditionalHook.class, tag = "/conditional", condition = "args[0] > 100")
+    @DataOutHook(definingClass = ConditionalHook.class, tag = "/conditional", condition = "tag == '/conditional' and result.startsWith('large')")
+    @GetMapping(value = "conditional")
+    public String conditionalExample(@RequestParam int amount) {
+        return (amount > 100 ? "large:" : "small:") + amount;
+    }
+
+    /**
+     * Example of guarded hooks: a {@link DataInHook} whose circuit breaker opens after two consecutive failures,
+     * supplying the parameter through its fallback method meanwhile, and a {@link PreHook} which is not waited for
+     * longer than 100 milliseconds, failing the call when it times out.
+     */
+    @DataInHook(definingClass = GuardedHook.class, method = "rate", tag = "/guarded", breakerThreshold = 2, breakerOpenMillis = 300, fallback = "lastKnownRate")
+    @PreHook(definingClass = GuardedHook.class, tag = "/guarded", timeoutMillis = 100)
+    @GetMapping(value = "guarded")
+    public String guardedExample(@DataIn String rate) {
+        return rate;
+    }
+
+    /**
+     * Example of a {@link DataInHook} without a fallback which is not waited for longer than 100 milliseconds,
+     * failing the call when it times out.
+     */
+    @DataInHook(definingClass = GuardedHook.class, method = "slowRate", tag = "/guarded-supplier", timeoutMillis = 100)
+    @GetMapping(value = "guarded-supplier")
+    public String guardedSupplierExample(@DataIn @RequestParam(defaultValue = "") String rate) {
+        return rate;
+    }
+
+    /**
+     * Example of durable hooks: the transfers and their failures are appended to an outbox on the local disk
+     * and delivered to the {@link AuditHook} by a background thread, even after a restart.
+     */
+    @DataOutHook(definingClass = AuditHook.class, method = "audit", tag = "/audit", durable = true)
+    @ExceptionHook(definingClass = AuditHook.class, method = "auditFailure", tag = "/audit", durable = true)
+    @GetMapping(value = "audit")
+    public String auditExample(@RequestParam int amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("invalid amount " + amount);
+        }
+
+        return "transfer:" + amount;
+    }
+
+    /**
+     * Example of hook classes with different scopes: a pool of two instances, an instance per thread
+     * and a prototype Spring bean created on every call.
+     */
+    @PostHook(definingClass = {PooledHook.class, ThreadLocalHook.class, PrototypeHookComponent.class}, tag = "/scoped")
+    @GetMapping(value = "scoped")
+    public void scopedExample() {}
+
+    /**
+     * Example of a {@link PreHook} which serves a cached page: the hook method returns a short-circuit
+     * {@link HookResult}, so that the current method is not invoked and the data out and post hooks receive the cached page.
+     */
+    @PreHook(definingClass = EdgeCacheHook.class, tag = "/edge-cache")
+    @DataOutHook(definingClass = EdgeCacheHook.class, tag = "/edge-cache")
+    @PostHook(definingClass = EdgeCacheHook.class, tag = "/edge-cache")
+    @GetMapping(value = "edge-cache")
+    public String edgeCacheExample(String page) {
+        EdgeCacheHook.events.add("target");
+        return "rendered:" + page;
+    }
 }
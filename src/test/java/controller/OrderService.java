@@ -0,0 +1,22 @@
+package controller;
+
+import com.dinuberinde.hooks.DataIn;
+import com.dinuberinde.hooks.DataInHook;
+import com.dinuberinde.hooks.HookMemoization;
+import com.dinuberinde.hooks.PreHook;
+import hooks.MemoHook;
+import org.springframework.stereotype.Service;
+
+@Service
+public class OrderService {
+
+    /**
+     * Example of hooks memoized across nested advised calls: called from {@link Controller#memoExample(String)},
+     * it reuses the results of the hooks of the endpoint instead of calling the hook methods again.
+     */
+    @PreHook(definingClass = MemoHook.class, method = "authorize", tag = "/memo", memoize = HookMemoization.INVOCATION)
+    @DataInHook(definingClass = MemoHook.class, method = "profile", tag = "/memo", memoize = HookMemoization.REQUEST)
+    public String orders(@DataIn String profile) {
+        return "orders of " + profile;
+    }
+}
@@ -0,0 +1,59 @@
+package helper;
+
+import java.util.Map;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class Timeline {
+    public static final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private static final Map<String, CyclicBarrier> rendezvous = new ConcurrentHashMap<>();
+
+    public static void record(String name, String value, long sleepMillis) {
+        long start = System.nanoTime();
+        try {
+            Thread.sleep(sleepMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        entries.put(name, new Entry(start, System.nanoTime(), Thread.currentThread().getName(), value, false));
+    }
+
+    // the calls of a rendezvous wait for each other, so that they are concurrent if they all arrive, however slow the machine
+    public static void recordConcurrent(String name, String value, String rendezvousName, int parties) {
+        long start = System.nanoTime();
+        CyclicBarrier barrier = rendezvous.computeIfAbsent(rendezvousName, key -> new CyclicBarrier(parties));
+        boolean concurrent;
+        try {
+            barrier.await(5, TimeUnit.SECONDS);
+            concurrent = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            concurrent = false;
+        } catch (BrokenBarrierException | TimeoutException e) {
+            rendezvous.remove(rendezvousName, barrier);
+            concurrent = false;
+        }
+
+        entries.put(name, new Entry(start, System.nanoTime(), Thread.currentThread().getName(), value, concurrent));
+    }
+
+    public static class Entry {
+        public final long start;
+        public final long end;
+        public final String thread;
+        public final String value;
+        public final boolean concurrent;
+
+        public Entry(long start, long end, String thread, String value, boolean concurrent) {
+            this.start = start;
+            this.end = end;
+            this.thread = thread;
+            this.value = value;
+            this.concurrent = concurrent;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package hooks;
+
+import com.dinuberinde.hooks.Hook;
+import helper.DataHolder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+public class AsyncLogHook {
+    public static final CountDownLatch latch = new CountDownLatch(2);
+    public static final Map<String, DataHolder.Logger> map = new ConcurrentHashMap<>();
+
+    public void post(Hook hook) {
+        map.put("post", new DataHolder.Logger(hook.getTag(), Thread.currentThread().getName()));
+        latch.countDown();
+    }
+
+    public void dataOut(Hook hook) {
+        map.put("dataOut", new DataHolder.Logger(hook.getTag(), hook.getDataOut() + "@" + Thread.currentThread().getName()));
+        latch.countDown();
+    }
+}
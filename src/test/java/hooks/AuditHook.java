@@ -0,0 +1,18 @@
+package hooks;
+
+import com.dinuberinde.hooks.Hook;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class AuditHook {
+    public static final List<String> events = new CopyOnWriteArrayList<>();
+
+    public void audit(Hook hook) {
+        events.add(hook.getTag() + ":" + hook.getDataOut() + ":" + Thread.currentThread().getName());
+    }
+
+    public void auditFailure(Hook hook) {
+        events.add(hook.getTag() + ":" + hook.getException().getMessage() + ":" + Thread.currentThread().getName());
+    }
+}
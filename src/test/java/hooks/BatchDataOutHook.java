@@ -0,0 +1,19 @@
+package hooks;
+
+import com.dinuberinde.hooks.Hook;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+
+public class BatchDataOutHook {
+    public static final CountDownLatch latch = new CountDownLatch(2);
+    public static final Queue<String> batches = new ConcurrentLinkedQueue<>();
+
+    public void dataOut(List<Hook> hooks) {
+        batches.add(hooks.stream().map(hook -> hook.getTag() + ":" + hook.getDataOut()).collect(Collectors.joining(",")));
+        latch.countDown();
+    }
+}
@@ -0,0 +1,15 @@
+package hooks;
+
+import com.dinuberinde.hooks.Hook;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CachedRateHook {
+    public static final AtomicInteger calls = new AtomicInteger();
+
+    public String dataIn(Hook hook) throws InterruptedException {
+        // a slow supplier, so that concurrent misses overlap
+        Thread.sleep(50);
+        return "rate-" + calls.incrementAndGet();
+    }
+}
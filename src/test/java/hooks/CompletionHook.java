@@ -0,0 +1,29 @@
+package hooks;
+
+import com.dinuberinde.hooks.Hook;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+
+public class CompletionHook {
+    public static final CountDownLatch latch = new CountDownLatch(2);
+    public static final Queue<String> events = new ConcurrentLinkedQueue<>();
+    public static final Map<String, String> threads = new ConcurrentHashMap<>();
+
+    public void dataOut(Hook hook) {
+        events.add(hook.getTag() + ":" + hook.getDataOut());
+    }
+
+    public void exception(Hook hook) {
+        events.add(hook.getTag() + ":" + hook.getException().getMessage());
+    }
+
+    public void post(Hook hook) {
+        events.add(hook.getTag() + ":post");
+        threads.put(hook.getTag(), Thread.currentThread().getName());
+        latch.countDown();
+    }
+}
@@ -0,0 +1,18 @@
+package hooks;
+
+import com.dinuberinde.hooks.Hook;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class ConditionalHook {
+    public static final List<String> events = new CopyOnWriteArrayList<>();
+
+    public void pre(Hook hook) {
+        events.add("pre");
+    }
+
+    public void dataOut(Hook hook) {
+        events.add("dataOut:" + hook.getDataOut());
+    }
+}
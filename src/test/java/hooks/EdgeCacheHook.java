@@ -0,0 +1,26 @@
+package hooks;
+
+import com.dinuberinde.hooks.Hook;
+import com.dinuberinde.hooks.HookResult;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class EdgeCacheHook {
+    public static final List<String> events = new CopyOnWriteArrayList<>();
+
+    public HookResult<String> pre(Hook hook) {
+        String page = ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes()).getRequest().getParameter("page");
+        return page.equals("home") ? HookResult.shortCircuit("cached:" + page) : HookResult.proceed();
+    }
+
+    public void dataOut(Hook hook) {
+        events.add("dataOut:" + hook.getDataOut());
+    }
+
+    public void post(Hook hook) {
+        events.add("post");
+    }
+}
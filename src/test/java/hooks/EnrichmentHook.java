@@ -0,0 +1,22 @@
+package hooks;
+
+import com.dinuberinde.hooks.Hook;
+import helper.Timeline;
+
+public class EnrichmentHook {
+
+    public String dataIn(Hook hook) {
+        Timeline.recordConcurrent("profile", hook.getTag(), "enrichment", 3);
+        return "profile:" + hook.getTag();
+    }
+
+    public String cart() {
+        Timeline.recordConcurrent("cart", "", "enrichment", 3);
+        return "cart";
+    }
+
+    public Integer offers(Hook hook) {
+        Timeline.recordConcurrent("offers", hook.getTag(), "enrichment", 3);
+        return 3;
+    }
+}
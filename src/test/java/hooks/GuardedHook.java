@@ -0,0 +1,38 @@
+package hooks;
+
+import com.dinuberinde.hooks.Hook;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class GuardedHook {
+    public static final AtomicInteger calls = new AtomicInteger();
+    public static volatile boolean failing;
+    public static volatile boolean slow;
+
+    public String rate(Hook hook) {
+        calls.incrementAndGet();
+        if (failing) {
+            throw new IllegalStateException("rate service unavailable");
+        }
+
+        return "live";
+    }
+
+    public String slowRate() throws InterruptedException {
+        if (slow) {
+            Thread.sleep(1000);
+        }
+
+        return "live";
+    }
+
+    public String lastKnownRate() {
+        return "fallback";
+    }
+
+    public void pre(Hook hook) throws InterruptedException {
+        if (slow) {
+            Thread.sleep(1000);
+        }
+    }
+}
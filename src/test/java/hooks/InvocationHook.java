@@ -0,0 +1,31 @@
+package hooks;
+
+import com.dinuberinde.hooks.Hook;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class InvocationHook {
+    public static final Map<String, List<Object>> map = new ConcurrentHashMap<>();
+
+    public void pre(Hook hook) {
+        record("pre", hook);
+    }
+
+    public void dataOut(Hook hook) {
+        record("dataOut", hook);
+    }
+
+    public void post(Hook hook) {
+        record("post", hook);
+    }
+
+    public void completionDataOut(Hook hook) {
+        record("completionDataOut", hook);
+    }
+
+    private static void record(String type, Hook hook) {
+        map.put(type, List.of(hook.getMethod().getName(), hook.getTarget().getClass().getSimpleName(), List.of(hook.getArgs()), hook.getElapsedNanos()));
+    }
+}
@@ -0,0 +1,30 @@
+package hooks;
+
+import com.dinuberinde.hooks.Hook;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MemoHook {
+    public static final AtomicInteger authorizations = new AtomicInteger();
+    public static final AtomicInteger profiles = new AtomicInteger();
+    public static final AtomicInteger sharedProfiles = new AtomicInteger();
+    private static final CountDownLatch sharedCalls = new CountDownLatch(2);
+
+    public void authorize() {
+        authorizations.incrementAndGet();
+    }
+
+    public String profile(Hook hook) {
+        return "profile-" + profiles.incrementAndGet();
+    }
+
+    public String sharedProfile(Hook hook) throws InterruptedException {
+        int call = sharedProfiles.incrementAndGet();
+        // a second concurrent call, if any, gets the chance to start before this one returns
+        sharedCalls.countDown();
+        sharedCalls.await(200, TimeUnit.MILLISECONDS);
+        return "shared-" + call;
+    }
+}
@@ -0,0 +1,11 @@
+package hooks;
+
+import com.dinuberinde.hooks.Hook;
+import helper.Timeline;
+
+public class ParallelAuthHook {
+
+    public void pre(Hook hook) {
+        Timeline.recordConcurrent(ParallelAuthHook.class.getName(), hook.getTag(), "parallel", 2);
+    }
+}
@@ -0,0 +1,15 @@
+package hooks;
+
+import helper.Timeline;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+public class ParallelFlagsHook {
+
+    public void pre() {
+        // the http request is propagated to the parallel hooks
+        MockHttpServletRequest request = (MockHttpServletRequest) ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes()).getRequest();
+        Timeline.recordConcurrent(ParallelFlagsHook.class.getName(), request.getParameter("query"), "parallel", 2);
+    }
+}
@@ -0,0 +1,13 @@
+package hooks;
+
+import com.dinuberinde.hooks.Hook;
+import com.dinuberinde.hooks.HookDependsOn;
+import helper.Timeline;
+
+@HookDependsOn(ParallelAuthHook.class)
+public class ParallelQuotaHook {
+
+    public void pre(Hook hook) {
+        Timeline.record(ParallelQuotaHook.class.getName(), hook.getTag(), 10);
+    }
+}
@@ -0,0 +1,27 @@
+package hooks;
+
+import com.dinuberinde.hooks.Hook;
+import com.dinuberinde.hooks.HookScope;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@HookScope(value = HookScope.Scope.POOLED, poolSize = 2)
+public class PooledHook {
+    public static final Set<PooledHook> instances = ConcurrentHashMap.newKeySet();
+    public static final AtomicInteger overlaps = new AtomicInteger();
+
+    private boolean inUse;
+
+    public void post(Hook hook) throws InterruptedException {
+        instances.add(this);
+        if (inUse) {
+            overlaps.incrementAndGet();
+        }
+
+        inUse = true;
+        Thread.sleep(2);
+        inUse = false;
+    }
+}
@@ -0,0 +1,19 @@
+package hooks;
+
+import com.dinuberinde.hooks.Hook;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.annotation.Scope;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
+public class PrototypeHookComponent {
+    public static final Set<PrototypeHookComponent> instances = ConcurrentHashMap.newKeySet();
+
+    public void post(Hook hook) {
+        instances.add(this);
+    }
+}
@@ -0,0 +1,36 @@
+package hooks;
+
+import com.dinuberinde.hooks.Hook;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+
+public class ReactiveHook {
+    public static final CountDownLatch latch = new CountDownLatch(2);
+    public static final Queue<String> events = new ConcurrentLinkedQueue<>();
+    public static final Map<String, String> threads = new ConcurrentHashMap<>();
+
+    public Mono<String> dataIn(Hook hook) {
+        return Mono.just("item-");
+    }
+
+    public void dataOut(Hook hook) {
+        Object dataOut = hook.getDataOut();
+        events.add(hook.getTag() + ":" + (dataOut instanceof List ? "list" + dataOut : dataOut));
+    }
+
+    public void exception(Hook hook) {
+        events.add(hook.getTag() + ":" + hook.getException().getMessage());
+    }
+
+    public void post(Hook hook) {
+        events.add(hook.getTag() + ":post");
+        threads.put(hook.getTag(), Thread.currentThread().getName());
+        latch.countDown();
+    }
+}
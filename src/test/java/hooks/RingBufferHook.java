@@ -0,0 +1,26 @@
+package hooks;
+
+import com.dinuberinde.hooks.Hook;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+public class RingBufferHook {
+    public static final CountDownLatch latch = new CountDownLatch(200);
+    public static final List<Object> dataOuts = new CopyOnWriteArrayList<>();
+    public static final Set<String> threads = ConcurrentHashMap.newKeySet();
+
+    public void post(Hook hook) {
+        threads.add(Thread.currentThread().getName());
+        latch.countDown();
+    }
+
+    public void dataOut(Hook hook) {
+        dataOuts.add(hook.getDataOut());
+        threads.add(Thread.currentThread().getName());
+        latch.countDown();
+    }
+}
@@ -0,0 +1,18 @@
+package hooks;
+
+import com.dinuberinde.hooks.Hook;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SampledHook {
+    public static final AtomicInteger pre = new AtomicInteger();
+    public static final AtomicInteger post = new AtomicInteger();
+
+    public void pre(Hook hook) {
+        pre.incrementAndGet();
+    }
+
+    public void post(Hook hook) {
+        post.incrementAndGet();
+    }
+}
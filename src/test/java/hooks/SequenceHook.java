@@ -0,0 +1,31 @@
+package hooks;
+
+import com.dinuberinde.hooks.Hook;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class SequenceHook {
+    public static final List<String> events = new CopyOnWriteArrayList<>();
+
+    public String dataIn() {
+        events.add("dataIn");
+        return "supplied";
+    }
+
+    public void pre(Hook hook) {
+        events.add("pre");
+    }
+
+    public void dataOut(Hook hook) {
+        events.add("dataOut:" + hook.getDataOut());
+    }
+
+    public void exception(Hook hook) {
+        events.add("exception:" + hook.getException().getMessage());
+    }
+
+    public void post(Hook hook) {
+        events.add("post");
+    }
+}
@@ -0,0 +1,17 @@
+package hooks;
+
+import com.dinuberinde.hooks.Hook;
+import com.dinuberinde.hooks.HookScope;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@HookScope(HookScope.Scope.THREAD_LOCAL)
+public class ThreadLocalHook {
+    public static final Map<String, Set<ThreadLocalHook>> instances = new ConcurrentHashMap<>();
+
+    public void post(Hook hook) {
+        instances.computeIfAbsent(Thread.currentThread().getName(), k -> ConcurrentHashMap.newKeySet()).add(this);
+    }
+}